@@ -1,6 +1,9 @@
 package com.bank.amb;
 
 import com.bank.amb.model.*;
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.repository.InMemoryDefaulterHistoryRepository;
+import com.bank.amb.repository.InMemoryHistoryArchive;
 import com.bank.amb.service.AMBRuleEngine;
 import dev.cel.common.CelValidationException;
 
@@ -9,6 +12,9 @@ import java.util.List;
 
 public class AMBApplication {
 
+    // The rules look back to currentMonth - 2
+    private static final int WINDOW_MONTHS = 3;
+
     public static void main(String[] args) {
         try {
             System.out.println("═══════════════════════════════════════════════════════");
@@ -22,10 +28,10 @@ public class AMBApplication {
             // Create test accounts
             List<Account> accounts = createTestAccounts();
 
-            // Track all results
-            List<ProbableDefaulter> allPD = new ArrayList<>();
-            List<ActualDefaulter> allAD = new ArrayList<>();
-            List<Charge> allCharges = new ArrayList<>();
+            // Only the last WINDOW_MONTHS months stay indexed for the engine; older results go to the archive
+            InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+            InMemoryDefaulterHistoryRepository history =
+                    new InMemoryDefaulterHistoryRepository(new AccountDictionary(), archive);
 
             // MONTH 3, DAY 25 - Probable Check
             System.out.println("╔══════════════════════════════════════╗");
@@ -36,8 +42,9 @@ public class AMBApplication {
             ctx1.setCurrentMonth(3);
             ctx1.setCheckDay(25);
 
-            AMBRuleEngine.RuleResult result1 = engine.execute(accounts, ctx1, allPD, allAD, allCharges);
-            allPD.addAll(result1.probableDefaulters);
+            history.evictBefore(ctx1.getCurrentMonth() - WINDOW_MONTHS + 1);
+            AMBRuleEngine.RuleResult result1 = engine.execute(accounts, ctx1, history);
+            history.addProbableDefaulters(result1.probableDefaulters);
             System.out.println("✓ Found " + result1.probableDefaulters.size() + " probable defaulters\n");
 
             // MONTH 4, DAY 3 - Actual Check
@@ -49,8 +56,9 @@ public class AMBApplication {
             ctx2.setCurrentMonth(4);
             ctx2.setCheckDay(3);
 
-            AMBRuleEngine.RuleResult result2 = engine.execute(accounts, ctx2, allPD, allAD, allCharges);
-            allAD.addAll(result2.actualDefaulters);
+            history.evictBefore(ctx2.getCurrentMonth() - WINDOW_MONTHS + 1);
+            AMBRuleEngine.RuleResult result2 = engine.execute(accounts, ctx2, history);
+            history.addActualDefaulters(result2.actualDefaulters);
             System.out.println("✓ Found " + result2.actualDefaulters.size() + " actual defaulters\n");
 
             // MONTH 4, DAY 25 - Probable Check
@@ -62,8 +70,9 @@ public class AMBApplication {
             ctx3.setCurrentMonth(4);
             ctx3.setCheckDay(25);
 
-            AMBRuleEngine.RuleResult result3 = engine.execute(accounts, ctx3, allPD, allAD, allCharges);
-            allPD.addAll(result3.probableDefaulters);
+            history.evictBefore(ctx3.getCurrentMonth() - WINDOW_MONTHS + 1);
+            AMBRuleEngine.RuleResult result3 = engine.execute(accounts, ctx3, history);
+            history.addProbableDefaulters(result3.probableDefaulters);
             System.out.println("✓ Found " + result3.probableDefaulters.size() + " probable defaulters\n");
 
             // MONTH 5, DAY 3 - Charge Calculation
@@ -75,13 +84,16 @@ public class AMBApplication {
             ctx4.setCurrentMonth(5);
             ctx4.setCheckDay(3);
 
-            AMBRuleEngine.RuleResult result4 = engine.execute(accounts, ctx4, allPD, allAD, allCharges);
-            allAD.addAll(result4.actualDefaulters);
-            allCharges.addAll(result4.charges);
+            history.evictBefore(ctx4.getCurrentMonth() - WINDOW_MONTHS + 1);
+            AMBRuleEngine.RuleResult result4 = engine.execute(accounts, ctx4, history);
+            history.addActualDefaulters(result4.actualDefaulters);
+            history.addCharges(result4.charges);
             System.out.println("✓ Applied " + result4.charges.size() + " charges\n");
 
             // Summary
-            printSummary(allPD, allAD, allCharges);
+            printSummary(withArchived(archive.getProbableDefaulters(), history.getProbableDefaulters()),
+                    withArchived(archive.getActualDefaulters(), history.getActualDefaulters()),
+                    withArchived(archive.getCharges(), history.getCharges()));
 
         } catch (CelValidationException e) {
             System.err.println("CEL validation error: " + e.getMessage());
@@ -89,6 +101,12 @@ public class AMBApplication {
         }
     }
 
+    private static <T> List<T> withArchived(List<T> archived, List<T> active) {
+        List<T> all = new ArrayList<>(archived);
+        all.addAll(active);
+        return all;
+    }
+
     private static List<Account> createTestAccounts() {
         List<Account> accounts = new ArrayList<>();
 
@@ -1,37 +1,67 @@
 package com.bank.amb.model;
 
-import java.util.Arrays;
-
 public class Account {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED; // dense key for history lookups
     private String accountName;
     private double[] dailyBalances; // 30 days
+    private double[] balancePrefixSums; // [d] = sum of days 1..d, rebuilt when balances are set
     private int currentMonth;
 
     public Account() {
-        this.dailyBalances = new double[30];
+        setDailyBalances(new double[30]);
     }
 
+    // Days after endDay count as zero, so the AMB is always divided by 30
     public double calculateAMB(int startDay, int endDay) {
         if (dailyBalances == null || dailyBalances.length < 30) {
             return 0.0;
         }
+        return getBalanceSum(startDay, endDay) / 30.0;
+    }
 
-        double sum = 0;
-        for (int i = startDay - 1; i < endDay && i < dailyBalances.length; i++) {
-            sum += dailyBalances[i];
+    // O(1) sum of days startDay..endDay (inclusive, 1-based)
+    public double getBalanceSum(int startDay, int endDay) {
+        if (balancePrefixSums == null) {
+            return 0.0;
         }
+        int from = Math.max(startDay, 1);
+        int to = Math.min(endDay, balancePrefixSums.length - 1);
+        return to < from ? 0.0 : balancePrefixSums[to] - balancePrefixSums[from - 1];
+    }
+
+    // Average over an arbitrary window (e.g. days 1-15 or 16-30), divided by the window length
+    public double getAverageBalance(int startDay, int endDay) {
+        return endDay < startDay ? 0.0 : getBalanceSum(startDay, endDay) / (endDay - startDay + 1);
+    }
 
-        int remainingDays = 30 - endDay;
-        return (sum + (remainingDays * 0)) / 30.0;
+    public void setDailyBalance(int day, double balance) {
+        double delta = balance - dailyBalances[day - 1];
+        dailyBalances[day - 1] = balance;
+        for (int d = day; d < balancePrefixSums.length; d++) {
+            balancePrefixSums[d] += delta;
+        }
     }
 
     public String getAccountId() { return accountId; }
     public void setAccountId(String accountId) { this.accountId = accountId; }
+    public int getAccountKey() { return accountKey; }
+    public void setAccountKey(int accountKey) { this.accountKey = accountKey; }
     public String getAccountName() { return accountName; }
     public void setAccountName(String accountName) { this.accountName = accountName; }
     public double[] getDailyBalances() { return dailyBalances; }
-    public void setDailyBalances(double[] dailyBalances) { this.dailyBalances = dailyBalances; }
+    // Pass the array back after changing it in place so the prefix sums are rebuilt
+    public void setDailyBalances(double[] dailyBalances) {
+        this.dailyBalances = dailyBalances;
+        if (dailyBalances == null) {
+            this.balancePrefixSums = null;
+            return;
+        }
+        this.balancePrefixSums = new double[dailyBalances.length + 1];
+        for (int i = 0; i < dailyBalances.length; i++) {
+            balancePrefixSums[i + 1] = balancePrefixSums[i] + dailyBalances[i];
+        }
+    }
     public int getCurrentMonth() { return currentMonth; }
     public void setCurrentMonth(int currentMonth) { this.currentMonth = currentMonth; }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.bank.amb.model;
 
 public class Charge {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED; // dense key for history lookups
     private int month1;
     private int month2;
     private double shortfall1;
@@ -14,6 +15,8 @@ public class Charge {
 
     public String getAccountId() { return accountId; }
     public void setAccountId(String accountId) { this.accountId = accountId; }
+    public int getAccountKey() { return accountKey; }
+    public void setAccountKey(int accountKey) { this.accountKey = accountKey; }
     public int getMonth1() { return month1; }
     public void setMonth1(int month1) { this.month1 = month1; }
     public int getMonth2() { return month2; }
@@ -2,6 +2,7 @@ package com.bank.amb.model;
 
 public class ProbableDefaulter {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED; // dense key for history lookups
     private int month;
     private double amb;
     private boolean smsSent;
@@ -9,6 +10,8 @@ public class ProbableDefaulter {
 
     public String getAccountId() { return accountId; }
     public void setAccountId(String accountId) { this.accountId = accountId; }
+    public int getAccountKey() { return accountKey; }
+    public void setAccountKey(int accountKey) { this.accountKey = accountKey; }
     public int getMonth() { return month; }
     public void setMonth(int month) { this.month = month; }
     public double getAmb() { return amb; }
@@ -0,0 +1,118 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Defaulter and charge history, looked up by (account key, month)
+ *
+ * Engines ask a few yes/no questions per account (probable last month,
+ * actual one or two months back, charged recently) plus the shortfalls of
+ * the defaulted months; every lookup here is a single keyed access instead
+ * of a scan over the whole history. Keys come from
+ * {@link #getAccountDictionary()}: an engine keys each account once per run
+ * and asks every question by int. The accountId overloads look the key up
+ * on every call and are meant for occasional use.
+ *
+ * Add calls set the account key of every record they store (see
+ * {@link AccountDictionary#keyOf(String, int)}), so the records are modified.
+ */
+public interface DefaulterHistoryRepository {
+
+    void addProbableDefaulters(Collection<ProbableDefaulter> probableDefaulters);
+
+    void addActualDefaulters(Collection<ActualDefaulter> actualDefaulters);
+
+    void addCharges(Collection<Charge> charges);
+
+    /**
+     * Dictionary the account keys of this history come from
+     */
+    AccountDictionary getAccountDictionary();
+
+    /**
+     * Probable defaulter record for the account key and month, or null
+     */
+    ProbableDefaulter findProbableDefaulter(int accountKey, int month);
+
+    /**
+     * Actual defaulter record for the account key and defaulted month, or null
+     */
+    ActualDefaulter findActualDefaulter(int accountKey, int month);
+
+    /**
+     * Charge levied on the account key in the given month, or null
+     */
+    Charge findCharge(int accountKey, int chargedInMonth);
+
+    default ProbableDefaulter findProbableDefaulter(String accountId, int month) {
+        return findProbableDefaulter(getAccountDictionary().lookup(accountId), month);
+    }
+
+    default ActualDefaulter findActualDefaulter(String accountId, int month) {
+        return findActualDefaulter(getAccountDictionary().lookup(accountId), month);
+    }
+
+    default Charge findCharge(String accountId, int chargedInMonth) {
+        return findCharge(getAccountDictionary().lookup(accountId), chargedInMonth);
+    }
+
+    default boolean isProbableDefaulter(int accountKey, int month) {
+        return findProbableDefaulter(accountKey, month) != null;
+    }
+
+    default boolean isActualDefaulter(int accountKey, int month) {
+        return findActualDefaulter(accountKey, month) != null;
+    }
+
+    default boolean isCharged(int accountKey, int chargedInMonth) {
+        return findCharge(accountKey, chargedInMonth) != null;
+    }
+
+    default boolean isProbableDefaulter(String accountId, int month) {
+        return findProbableDefaulter(accountId, month) != null;
+    }
+
+    default boolean isActualDefaulter(String accountId, int month) {
+        return findActualDefaulter(accountId, month) != null;
+    }
+
+    default boolean isCharged(String accountId, int chargedInMonth) {
+        return findCharge(accountId, chargedInMonth) != null;
+    }
+
+    /**
+     * Shortfall of the account's actual default in the month, 0 if it did not default
+     */
+    default double getShortfall(int accountKey, int month) {
+        ActualDefaulter defaulter = findActualDefaulter(accountKey, month);
+        return defaulter != null ? defaulter.getShortfall() : 0.0;
+    }
+
+    default double getShortfall(String accountId, int month) {
+        return getShortfall(getAccountDictionary().lookup(accountId), month);
+    }
+
+    /**
+     * Hand records of months before oldestMonth (charges by chargedInMonth)
+     * to the repository's {@link HistoryArchive}; neither lookups nor the
+     * getters see them afterwards.
+     */
+    void evictBefore(int oldestMonth);
+
+    /**
+     * Records of the active window, in insertion order
+     */
+    List<ProbableDefaulter> getProbableDefaulters();
+
+    List<ActualDefaulter> getActualDefaulters();
+
+    List<Charge> getCharges();
+
+    void clear();
+}
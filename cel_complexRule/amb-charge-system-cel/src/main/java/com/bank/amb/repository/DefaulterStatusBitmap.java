@@ -0,0 +1,335 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compact defaulter status history for the months the rules look at,
+ * indexed by the dense account keys of an {@link AccountDictionary}.
+ *
+ * Each account has a 16-bit lane, four lanes to a long word, holding three
+ * flags (probable, actual, charged) for the latest {@link #WINDOW_MONTHS}
+ * months: bit {@code (latestMonth - month) * 3 + flag} of the lane. Moving
+ * to a later month shifts every word left, so months that fall out of the
+ * window are dropped without a cleanup pass, and the prior-month questions
+ * the engines ask are single mask tests.
+ *
+ * Shortfalls of actual defaults live in parallel primitive arrays, an open
+ * addressing table keyed by account and month slot, so only defaulters take
+ * space. For 10M accounts the status words take 20 MB, plus 12 bytes per
+ * table slot for the defaults in the window.
+ *
+ * As in the repositories, the first record of an account and month wins.
+ */
+public class DefaulterStatusBitmap {
+
+    // The current month and the two before it, as the rules need
+    public static final int WINDOW_MONTHS = 3;
+
+    private static final int PROBABLE = 0;
+    private static final int ACTUAL = 1;
+    private static final int CHARGED = 2;
+    private static final int BITS_PER_MONTH = 3;
+    private static final int LANE_BITS = 16;
+    private static final int ACCOUNTS_PER_WORD = Long.SIZE / LANE_BITS;
+    private static final long LANE_MASK = (1L << (WINDOW_MONTHS * BITS_PER_MONTH)) - 1;
+    private static final long WINDOW_MASK = LANE_MASK * 0x0001_0001_0001_0001L;
+    private static final int MAX_ACCOUNT_KEY = (Integer.MAX_VALUE - 1) / WINDOW_MONTHS;
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private long[] status;
+    private int latestMonth;
+    private boolean empty = true;
+
+    // Shortfall table: slot key + 1 (0 = free) and the shortfall
+    private int[] shortfallKeys = new int[MIN_TABLE_SIZE];
+    private double[] shortfalls = new double[MIN_TABLE_SIZE];
+    private int shortfallCount;
+
+    public DefaulterStatusBitmap(int expectedAccounts) {
+        this.status = new long[words(Math.max(expectedAccounts, 1))];
+    }
+
+    /**
+     * Status of the repository's records up to currentMonth, numbered with
+     * the repository's dictionary; the window ends at currentMonth
+     */
+    public static DefaulterStatusBitmap of(DefaulterHistoryRepository history, int currentMonth) {
+        return of(history.getAccountDictionary(), history.getProbableDefaulters(), history.getActualDefaulters(),
+                history.getCharges(), currentMonth);
+    }
+
+    /**
+     * Status of plain history lists up to currentMonth, numbered with accounts.
+     * The records' own keys are only read, never rewritten.
+     */
+    public static DefaulterStatusBitmap of(AccountDictionary accounts,
+                                           Collection<ProbableDefaulter> probableDefaulters,
+                                           Collection<ActualDefaulter> actualDefaulters,
+                                           Collection<Charge> charges,
+                                           int currentMonth) {
+        DefaulterStatusBitmap bitmap = new DefaulterStatusBitmap(accounts.size());
+        bitmap.advanceTo(currentMonth);
+        for (ProbableDefaulter pd : probableDefaulters) {
+            if (pd.getMonth() <= currentMonth) {
+                bitmap.markProbableDefaulter(accounts.keyOf(pd.getAccountId(), pd.getAccountKey()), pd.getMonth());
+            }
+        }
+        for (ActualDefaulter ad : actualDefaulters) {
+            if (ad.getMonth() <= currentMonth) {
+                bitmap.markActualDefaulter(accounts.keyOf(ad.getAccountId(), ad.getAccountKey()), ad.getMonth(),
+                        ad.getShortfall());
+            }
+        }
+        for (Charge charge : charges) {
+            if (charge.getChargedInMonth() <= currentMonth) {
+                bitmap.markCharged(accounts.keyOf(charge.getAccountId(), charge.getAccountKey()),
+                        charge.getChargedInMonth());
+            }
+        }
+        return bitmap;
+    }
+
+    public void markProbableDefaulter(int accountKey, int month) {
+        set(accountKey, month, PROBABLE);
+    }
+
+    public void markActualDefaulter(int accountKey, int month, double shortfall) {
+        if (set(accountKey, month, ACTUAL)) {
+            putShortfall(shortfallKey(accountKey, month), shortfall);
+        }
+    }
+
+    public void markCharged(int accountKey, int chargedInMonth) {
+        set(accountKey, chargedInMonth, CHARGED);
+    }
+
+    public boolean isProbableDefaulter(int accountKey, int month) {
+        return test(accountKey, month, PROBABLE);
+    }
+
+    public boolean isActualDefaulter(int accountKey, int month) {
+        return test(accountKey, month, ACTUAL);
+    }
+
+    public boolean isCharged(int accountKey, int chargedInMonth) {
+        return test(accountKey, chargedInMonth, CHARGED);
+    }
+
+    /**
+     * Whether the account was charged in any month from fromMonth to toMonth inclusive
+     */
+    public boolean isChargedBetween(int accountKey, int fromMonth, int toMonth) {
+        long mask = 0L;
+        for (int month = fromMonth; month <= toMonth; month++) {
+            mask |= bit(month, CHARGED);
+        }
+        return (lane(accountKey) & mask) != 0;
+    }
+
+    /**
+     * Actual defaults in both month - 2 and month - 1, the charge condition
+     */
+    public boolean hasConsecutiveDefaults(int accountKey, int month) {
+        long mask = bit(month - 1, ACTUAL) | bit(month - 2, ACTUAL);
+        return Long.bitCount(mask) == 2 && (lane(accountKey) & mask) == mask;
+    }
+
+    /**
+     * Shortfall of the account's actual default in the month, 0 if it did not default
+     */
+    public double getShortfall(int accountKey, int month) {
+        if (!isActualDefaulter(accountKey, month)) {
+            return 0.0;
+        }
+        int index = findSlot(shortfallKey(accountKey, month));
+        return shortfallKeys[index] != 0 ? shortfalls[index] : 0.0;
+    }
+
+    /**
+     * Latest month recorded so far; the window ends here
+     */
+    public int getLatestMonth() {
+        return latestMonth;
+    }
+
+    /**
+     * Accounts the status words have room for
+     */
+    public int getCapacity() {
+        return status.length * ACCOUNTS_PER_WORD;
+    }
+
+    public long getMemoryBytes() {
+        return (long) status.length * Long.BYTES
+                + (long) shortfallKeys.length * (Integer.BYTES + Double.BYTES);
+    }
+
+    public void clear() {
+        Arrays.fill(status, 0L);
+        clearShortfalls();
+        empty = true;
+    }
+
+    /**
+     * Sets a flag; returns false if it was already set or the month is outside the window
+     */
+    private boolean set(int accountKey, int month, int flag) {
+        if (accountKey < 0 || accountKey > MAX_ACCOUNT_KEY) {
+            throw new IllegalArgumentException("Account key out of range: " + accountKey);
+        }
+        advanceTo(month);
+        long bit = bit(month, flag);
+        if (bit == 0) {
+            return false;
+        }
+        ensureCapacity(accountKey + 1);
+        long shifted = bit << shift(accountKey);
+        int word = accountKey / ACCOUNTS_PER_WORD;
+        if ((status[word] & shifted) != 0) {
+            return false;
+        }
+        status[word] |= shifted;
+        return true;
+    }
+
+    private boolean test(int accountKey, int month, int flag) {
+        return (lane(accountKey) & bit(month, flag)) != 0;
+    }
+
+    private long lane(int accountKey) {
+        int word = accountKey / ACCOUNTS_PER_WORD;
+        if (accountKey < 0 || word >= status.length) {
+            return 0L;
+        }
+        return (status[word] >>> shift(accountKey)) & LANE_MASK;
+    }
+
+    private long bit(int month, int flag) {
+        if (empty) {
+            return 0L;
+        }
+        long age = (long) latestMonth - month;
+        if (age < 0 || age >= WINDOW_MONTHS) {
+            return 0L;
+        }
+        return 1L << (age * BITS_PER_MONTH + flag);
+    }
+
+    private void advanceTo(int month) {
+        if (empty) {
+            latestMonth = month;
+            empty = false;
+            return;
+        }
+        if (month <= latestMonth) {
+            return;
+        }
+        long delta = (long) month - latestMonth;
+        if (delta >= WINDOW_MONTHS) {
+            Arrays.fill(status, 0L);
+            clearShortfalls();
+        } else {
+            // Lanes keep their top bits free, so no flag crosses into the next lane
+            int shift = (int) delta * BITS_PER_MONTH;
+            for (int i = 0; i < status.length; i++) {
+                status[i] = (status[i] << shift) & WINDOW_MASK;
+            }
+        }
+        latestMonth = month;
+    }
+
+    private void ensureCapacity(int accounts) {
+        int words = words(accounts);
+        if (words > status.length) {
+            status = Arrays.copyOf(status, Math.max(words, status.length + (status.length >> 1)));
+        }
+    }
+
+    private static int words(int accounts) {
+        return (accounts + ACCOUNTS_PER_WORD - 1) / ACCOUNTS_PER_WORD;
+    }
+
+    private static int shift(int accountKey) {
+        return (accountKey % ACCOUNTS_PER_WORD) * LANE_BITS;
+    }
+
+    /**
+     * Months a window apart share a slot; the status bit tells which one it holds
+     */
+    private static int shortfallKey(int accountKey, int month) {
+        return accountKey * WINDOW_MONTHS + Math.floorMod(month, WINDOW_MONTHS);
+    }
+
+    private void putShortfall(int key, double shortfall) {
+        int index = findSlot(key);
+        if (shortfallKeys[index] == 0) {
+            shortfallKeys[index] = key + 1;
+            shortfallCount++;
+        }
+        shortfalls[index] = shortfall;
+        if (shortfallCount * 2 > shortfallKeys.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Slot holding key, or the free slot where it belongs
+     */
+    private int findSlot(int key) {
+        int mask = shortfallKeys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (shortfallKeys[index] != 0 && shortfallKeys[index] != key + 1) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Grow the table, dropping slots whose month has left the window
+     */
+    private void rehash() {
+        int[] oldKeys = shortfallKeys;
+        double[] oldShortfalls = shortfalls;
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0 && isLive(oldKeys[i] - 1)) {
+                live++;
+            }
+        }
+        int size = MIN_TABLE_SIZE;
+        while (size <= live * 2) {
+            size <<= 1;
+        }
+        shortfallKeys = new int[size];
+        shortfalls = new double[size];
+        shortfallCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i] - 1;
+            if (oldKeys[i] != 0 && isLive(key)) {
+                int index = findSlot(key);
+                shortfallKeys[index] = key + 1;
+                shortfalls[index] = oldShortfalls[i];
+                shortfallCount++;
+            }
+        }
+    }
+
+    private boolean isLive(int key) {
+        int accountKey = key / WINDOW_MONTHS;
+        int month = latestMonth - Math.floorMod(latestMonth - key % WINDOW_MONTHS, WINDOW_MONTHS);
+        return isActualDefaulter(accountKey, month);
+    }
+
+    private void clearShortfalls() {
+        Arrays.fill(shortfallKeys, 0);
+        Arrays.fill(shortfalls, 0.0);
+        shortfallCount = 0;
+    }
+}
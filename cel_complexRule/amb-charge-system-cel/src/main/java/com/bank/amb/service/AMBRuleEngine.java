@@ -1,6 +1,9 @@
 package com.bank.amb.service;
 
 import com.bank.amb.model.*;
+import com.bank.amb.repository.DefaulterHistoryRepository;
+import com.bank.amb.repository.DefaulterStatusBitmap;
+import com.bank.amb.repository.InMemoryDefaulterHistoryRepository;
 import dev.cel.common.CelAbstractSyntaxTree;
 import dev.cel.common.CelValidationException;
 import dev.cel.common.types.SimpleType;
@@ -78,20 +81,44 @@ public class AMBRuleEngine {
                               List<ActualDefaulter> existingAD,
                               List<Charge> existingCharges) {
 
+        return execute(accounts, context,
+                InMemoryDefaulterHistoryRepository.of(existingPD, existingAD, existingCharges));
+    }
+
+    /**
+     * Execute all CEL rules against indexed history. The history's status
+     * for the current and two prior months is read once into a
+     * {@link DefaulterStatusBitmap}; each account is keyed once with the
+     * history's dictionary, and every history question is then a mask test
+     * on its status bits. Accounts no rule can match are only counted (see
+     * {@link #isAtRisk}). No records are added to the repository. Each
+     * account is updated in place with the current month and its key.
+     */
+    public RuleResult execute(List<Account> accounts, ExecutionContext context,
+                              DefaulterHistoryRepository history) {
+
         List<ProbableDefaulter> newPD = new ArrayList<>();
         List<ActualDefaulter> newAD = new ArrayList<>();
         List<Charge> newCharges = new ArrayList<>();
 
+        AccountDictionary dictionary = history.getAccountDictionary();
+        DefaulterStatusBitmap status = DefaulterStatusBitmap.of(history, context.getCurrentMonth());
+        List<Account> atRisk = new ArrayList<>();
         for (Account account : accounts) {
             account.setCurrentMonth(context.getCurrentMonth());
+            account.setAccountKey(dictionary.keyOf(account.getAccountId(), account.getAccountKey()));
+            if (isAtRisk(account, context, status)) {
+                atRisk.add(account);
+            }
+        }
 
+        for (Account account : atRisk) {
             // Calculate AMB values
             double amb = account.calculateAMB(1, 25);
             double ambFull = account.calculateAMB(1, 30);
 
             // Build evaluation context
-            Map<String, Object> evalCtx = buildEvalContext(account, context, amb, ambFull,
-                    existingPD, existingAD, existingCharges);
+            Map<String, Object> evalCtx = buildEvalContext(account, context, amb, ambFull, status);
 
             // Execute rules in order
             try {
@@ -104,33 +131,51 @@ public class AMBRuleEngine {
             }
         }
 
-        // After all accounts processed, evaluate Rule 3 with complete AD list
-        List<ActualDefaulter> allAD = new ArrayList<>(existingAD);
-        allAD.addAll(newAD);
+        // After all accounts processed, evaluate Rule 3 with this run's actual defaulters as well;
+        // a month already in the history keeps its recorded shortfall
+        for (ActualDefaulter ad : newAD) {
+            status.markActualDefaulter(ad.getAccountKey(), ad.getMonth(), ad.getShortfall());
+        }
 
-        for (Account account : accounts) {
-            account.setCurrentMonth(context.getCurrentMonth());
+        for (Account account : atRisk) {
             double amb = account.calculateAMB(1, 25);
             double ambFull = account.calculateAMB(1, 30);
 
-            Map<String, Object> evalCtx = buildEvalContext(account, context, amb, ambFull,
-                    existingPD, allAD, existingCharges);
+            Map<String, Object> evalCtx = buildEvalContext(account, context, amb, ambFull, status);
             try {
-                evaluateRule3(evalCtx, account, context, allAD, newCharges);
+                evaluateRule3(evalCtx, account, context, status, newCharges);
             } catch (CelEvaluationException e) {
                 System.err.println("Error evaluating rule 3 for account " + account.getAccountId());
                 e.printStackTrace();
             }
         }
 
-        return new RuleResult(newPD, newAD, newCharges);
+        return new RuleResult(newPD, newAD, newCharges, accounts.size() - atRisk.size());
+    }
+
+    /**
+     * Pre-filter: whether any rule can match the account. On day 25 only an
+     * AMB below the minimum can (1A/1B); on day 3 a full-month AMB below it
+     * (2) or an actual default two months back that Rule 3 may charge. Other
+     * days let every account through.
+     */
+    private static boolean isAtRisk(Account account, ExecutionContext context, DefaulterStatusBitmap status) {
+        switch (context.getCheckDay()) {
+            case 25:
+                return account.calculateAMB(1, 25) < context.getMinBalance();
+            case 3:
+                return account.calculateAMB(1, 30) < context.getMinBalance()
+                        || status.isActualDefaulter(account.getAccountKey(), context.getCurrentMonth() - 2);
+            default:
+                return true;
+        }
     }
 
     private Map<String, Object> buildEvalContext(Account account, ExecutionContext context,
                                                  double amb, double ambFull,
-                                                 List<ProbableDefaulter> existingPD,
-                                                 List<ActualDefaulter> existingAD,
-                                                 List<Charge> existingCharges) {
+                                                 DefaulterStatusBitmap status) {
+        int accountKey = account.getAccountKey();
+        int month = context.getCurrentMonth();
         Map<String, Object> ctx = new HashMap<>();
         ctx.put("checkDay", context.getCheckDay());
         ctx.put("currentMonth", context.getCurrentMonth());
@@ -138,26 +183,11 @@ public class AMBRuleEngine {
         ctx.put("amb", amb);
         ctx.put("ambFull", ambFull);
 
-        ctx.put("wasActualDefaulterLastMonth",
-                existingAD.stream().anyMatch(ad -> ad.getAccountId().equals(account.getAccountId())
-                        && ad.getMonth() == context.getCurrentMonth() - 1));
-
-        ctx.put("isProbableDefaulterThisMonth",
-                existingPD.stream().anyMatch(pd -> pd.getAccountId().equals(account.getAccountId())
-                        && pd.getMonth() == context.getCurrentMonth()));
-
-        ctx.put("wasProbableDefaulterLastMonth",
-                existingPD.stream().anyMatch(pd -> pd.getAccountId().equals(account.getAccountId())
-                        && pd.getMonth() == context.getCurrentMonth() - 1));
-
-        ctx.put("wasActualDefaulter2MonthsAgo",
-                existingAD.stream().anyMatch(ad -> ad.getAccountId().equals(account.getAccountId())
-                        && ad.getMonth() == context.getCurrentMonth() - 2));
-
-        ctx.put("alreadyCharged",
-                existingCharges.stream().anyMatch(c -> c.getAccountId().equals(account.getAccountId())
-                        && (c.getChargedInMonth() == context.getCurrentMonth() - 1
-                        || c.getChargedInMonth() == context.getCurrentMonth() - 2)));
+        ctx.put("wasActualDefaulterLastMonth", status.isActualDefaulter(accountKey, month - 1));
+        ctx.put("isProbableDefaulterThisMonth", status.isProbableDefaulter(accountKey, month));
+        ctx.put("wasProbableDefaulterLastMonth", status.isProbableDefaulter(accountKey, month - 1));
+        ctx.put("wasActualDefaulter2MonthsAgo", status.isActualDefaulter(accountKey, month - 2));
+        ctx.put("alreadyCharged", status.isChargedBetween(accountKey, month - 2, month - 1));
 
         return ctx;
     }
@@ -168,6 +198,7 @@ public class AMBRuleEngine {
         if (matches) {
             ProbableDefaulter pd = new ProbableDefaulter();
             pd.setAccountId(account.getAccountId());
+            pd.setAccountKey(account.getAccountKey());
             pd.setMonth((Integer) ctx.get("currentMonth"));
             pd.setAmb((Double) ctx.get("amb"));
             pd.setSmsSent(false);
@@ -184,6 +215,7 @@ public class AMBRuleEngine {
         if (matches) {
             ProbableDefaulter pd = new ProbableDefaulter();
             pd.setAccountId(account.getAccountId());
+            pd.setAccountKey(account.getAccountKey());
             pd.setMonth((Integer) ctx.get("currentMonth"));
             pd.setAmb((Double) ctx.get("amb"));
             pd.setSmsSent(true);
@@ -201,6 +233,7 @@ public class AMBRuleEngine {
         if (matches) {
             ActualDefaulter ad = new ActualDefaulter();
             ad.setAccountId(account.getAccountId());
+            ad.setAccountKey(account.getAccountKey());
             ad.setMonth(context.getCurrentMonth() - 1);
             ad.setAmb((Double) ctx.get("ambFull"));
             ad.setShortfall(context.getMinBalance() - (Double) ctx.get("ambFull"));
@@ -214,43 +247,34 @@ public class AMBRuleEngine {
     }
 
     private void evaluateRule3(Map<String, Object> ctx, Account account, ExecutionContext context,
-                               List<ActualDefaulter> existingAD, List<Charge> results)
-            throws CelEvaluationException {
+                               DefaulterStatusBitmap status, List<Charge> results) throws CelEvaluationException {
         Boolean matches = (Boolean) runtime.createProgram(celRules.get("RULE_3")).eval(ctx);
-        if (matches) {
-            ActualDefaulter ad1 = existingAD.stream()
-                    .filter(ad -> ad.getAccountId().equals(account.getAccountId())
-                            && ad.getMonth() == context.getCurrentMonth() - 2)
-                    .findFirst().orElse(null);
-
-            ActualDefaulter ad2 = existingAD.stream()
-                    .filter(ad -> ad.getAccountId().equals(account.getAccountId())
-                            && ad.getMonth() == context.getCurrentMonth() - 1)
-                    .findFirst().orElse(null);
-
-            if (ad1 != null && ad2 != null) {
-                double baseCharge1 = Math.min(ad1.getShortfall() * 0.06, 500.0);
-                double gst1 = baseCharge1 * 0.18;
-                double baseCharge2 = Math.min(ad2.getShortfall() * 0.06, 500.0);
-                double gst2 = baseCharge2 * 0.18;
-
-                Charge charge = new Charge();
-                charge.setAccountId(account.getAccountId());
-                charge.setMonth1(ad1.getMonth());
-                charge.setMonth2(ad2.getMonth());
-                charge.setShortfall1(ad1.getShortfall());
-                charge.setShortfall2(ad2.getShortfall());
-                charge.setTotalShortfall(ad1.getShortfall() + ad2.getShortfall());
-                charge.setBaseCharge(baseCharge1 + baseCharge2);
-                charge.setGstAmount(gst1 + gst2);
-                charge.setTotalCharge((baseCharge1 + gst1) + (baseCharge2 + gst2));
-                charge.setChargedInMonth(context.getCurrentMonth());
-                results.add(charge);
-
-                System.out.println("[CEL RULE 3] Charge Applied: " + account.getAccountId()
-                        + " | Months: " + charge.getMonth1() + "+" + charge.getMonth2()
-                        + " | Total: ₹" + String.format("%.2f", charge.getTotalCharge()));
-            }
+        int month = context.getCurrentMonth();
+        if (matches && status.hasConsecutiveDefaults(account.getAccountKey(), month)) {
+            double shortfall1 = status.getShortfall(account.getAccountKey(), month - 2);
+            double shortfall2 = status.getShortfall(account.getAccountKey(), month - 1);
+            double baseCharge1 = Math.min(shortfall1 * 0.06, 500.0);
+            double gst1 = baseCharge1 * 0.18;
+            double baseCharge2 = Math.min(shortfall2 * 0.06, 500.0);
+            double gst2 = baseCharge2 * 0.18;
+
+            Charge charge = new Charge();
+            charge.setAccountId(account.getAccountId());
+            charge.setAccountKey(account.getAccountKey());
+            charge.setMonth1(month - 2);
+            charge.setMonth2(month - 1);
+            charge.setShortfall1(shortfall1);
+            charge.setShortfall2(shortfall2);
+            charge.setTotalShortfall(shortfall1 + shortfall2);
+            charge.setBaseCharge(baseCharge1 + baseCharge2);
+            charge.setGstAmount(gst1 + gst2);
+            charge.setTotalCharge((baseCharge1 + gst1) + (baseCharge2 + gst2));
+            charge.setChargedInMonth(context.getCurrentMonth());
+            results.add(charge);
+
+            System.out.println("[CEL RULE 3] Charge Applied: " + account.getAccountId()
+                    + " | Months: " + charge.getMonth1() + "+" + charge.getMonth2()
+                    + " | Total: ₹" + String.format("%.2f", charge.getTotalCharge()));
         }
     }
 
@@ -258,11 +282,18 @@ public class AMBRuleEngine {
         public final List<ProbableDefaulter> probableDefaulters;
         public final List<ActualDefaulter> actualDefaulters;
         public final List<Charge> charges;
+        public final int skippedAccounts;    // kept out of rule evaluation by the pre-filter
 
         public RuleResult(List<ProbableDefaulter> pd, List<ActualDefaulter> ad, List<Charge> ch) {
+            this(pd, ad, ch, 0);
+        }
+
+        public RuleResult(List<ProbableDefaulter> pd, List<ActualDefaulter> ad, List<Charge> ch,
+                          int skippedAccounts) {
             this.probableDefaulters = pd;
             this.actualDefaulters = ad;
             this.charges = ch;
+            this.skippedAccounts = skippedAccounts;
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.bank.amb;
 
 import com.bank.amb.model.Account;
+import com.bank.amb.repository.LogDefaulterHistoryRepository;
 import com.bank.amb.service.AMBService;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,7 +30,11 @@ public class AMBApplication {
         System.out.println("╚═══════════════════════════════════════════════════════════╝");
         System.out.println("\n");
 
-        AMBService ambService = new AMBService();
+        // -Damb.history.dir=<dir> keeps the defaulter history on disk across runs
+        String historyDir = System.getProperty("amb.history.dir");
+        LogDefaulterHistoryRepository history = historyDir != null
+                ? LogDefaulterHistoryRepository.open(Paths.get(historyDir)) : null;
+        AMBService ambService = history != null ? new AMBService(history) : new AMBService();
 
         // Create test accounts
         List<Account> accounts = createTestAccounts();
@@ -82,6 +88,10 @@ public class AMBApplication {
         // ═══════════════════════════════════════════════════════════════
         ambService.printReport();
 
+        if (history != null) {
+            history.close();
+        }
+
         System.out.println("✅ AMB Rules Engine demo completed successfully!\n");
     }
 
@@ -7,6 +7,8 @@ import io.gorules.zen_engine.ZenEngineResponse;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.bank.amb.model.*;
+import com.bank.amb.repository.DefaulterHistoryRepository;
+import com.bank.amb.repository.DefaulterStatusBitmap;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -19,12 +21,24 @@ import java.util.concurrent.CompletableFuture;
  */
 public class AMBRulesEngine {
 
+    // System property that, when "true", dumps every account's decision input and output (off by default)
+    public static final String DEBUG_PROPERTY = "amb.rules.debug";
+
     private final ZenEngine engine;
     private final ObjectMapper objectMapper;
     private final String decisionKey = "amb-rules";
+    private final boolean debug;
 
     public AMBRulesEngine() {
+        this(Boolean.getBoolean(DEBUG_PROPERTY));
+    }
+
+    /**
+     * @param debug print each account's decision input and output
+     */
+    public AMBRulesEngine(boolean debug) {
         this.objectMapper = new ObjectMapper();
+        this.debug = debug;
 
         ZenDecisionLoaderCallback loaderCallback = (key) -> {
             String content = loadDecisionModel("src/main/resources/rules/amb-rules.json");
@@ -35,6 +49,11 @@ public class AMBRulesEngine {
         System.out.println("✓ AMB Rules Engine initialized with GoRules Zen Engine!");
     }
 
+    /**
+     * Evaluate accounts against plain history lists. Only the status bitmap
+     * is built from them, numbered with a dictionary local to this call; no
+     * repository is indexed and the lists are left untouched.
+     */
     public RuleExecutionResult executeRules(
             List<Account> accounts,
             List<ProbableDefaulter> existingProbableDefaulters,
@@ -42,16 +61,50 @@ public class AMBRulesEngine {
             List<Charge> existingCharges,
             ExecutionContext context) {
 
+        AccountDictionary dictionary = new AccountDictionary();
+        return execute(accounts, dictionary, DefaulterStatusBitmap.of(dictionary, existingProbableDefaulters,
+                existingActualDefaulters, existingCharges, context.getCurrentMonth()), context);
+    }
+
+    /**
+     * Evaluate accounts against indexed history. The history's status for
+     * the current and two prior months is read once into a
+     * {@link DefaulterStatusBitmap}; each account is keyed once with the
+     * history's dictionary, and every history question is then a mask test
+     * on its status bits. Accounts no rule can match are only counted (see
+     * {@link #isAtRisk}). The accounts themselves are not modified: their key
+     * is only held for the evaluation, and the records created carry it.
+     */
+    public RuleExecutionResult executeRules(
+            List<Account> accounts,
+            DefaulterHistoryRepository history,
+            ExecutionContext context) {
+
+        return execute(accounts, history.getAccountDictionary(),
+                DefaulterStatusBitmap.of(history, context.getCurrentMonth()), context);
+    }
+
+    private RuleExecutionResult execute(
+            List<Account> accounts,
+            AccountDictionary dictionary,
+            DefaulterStatusBitmap status,
+            ExecutionContext context) {
+
         List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
         List<ActualDefaulter> actualDefaulters = new ArrayList<>();
         List<Charge> charges = new ArrayList<>();
 
         int rulesExecuted = 0;
+        int skippedAccounts = 0;
 
         for (Account account : accounts) {
             try {
-                Map<String, Object> input = prepareInput(
-                        account, existingProbableDefaulters, existingActualDefaulters, context);
+                int key = dictionary.keyOf(account.getAccountId(), account.getAccountKey());
+                if (!isAtRisk(account, key, context, status)) {
+                    skippedAccounts++;
+                    continue;
+                }
+                Map<String, Object> input = prepareInput(account, key, status, context);
 
                 JsonBuffer inputBuffer = new JsonBuffer(objectMapper.writeValueAsString(input));
                 CompletableFuture<ZenEngineResponse> futureResponse =
@@ -61,9 +114,8 @@ public class AMBRulesEngine {
                 String resultJson = response.result().toString();
                 Map<String, Object> result = objectMapper.readValue(resultJson, Map.class);
 
-                processResults(account, result, context,
-                        probableDefaulters, actualDefaulters, charges,
-                        existingProbableDefaulters, existingActualDefaulters);
+                processResults(account, key, result, context,
+                        probableDefaulters, actualDefaulters, charges, status);
 
                 rulesExecuted++;
 
@@ -73,15 +125,35 @@ public class AMBRulesEngine {
             }
         }
 
-        printSummary(probableDefaulters, actualDefaulters, charges, rulesExecuted);
+        printSummary(probableDefaulters, actualDefaulters, charges, rulesExecuted, skippedAccounts);
 
-        return new RuleExecutionResult(probableDefaulters, actualDefaulters, charges, rulesExecuted);
+        return new RuleExecutionResult(probableDefaulters, actualDefaulters, charges, rulesExecuted,
+                skippedAccounts);
+    }
+
+    /**
+     * Pre-filter: whether any decision table can match the account. On day 25
+     * only an AMB below the minimum can (1A/1B); on day 3 a full-month AMB
+     * below it (2) or an actual default two months back that a charge may
+     * follow (3). Other days let every account through.
+     */
+    private static boolean isAtRisk(Account account, int key, ExecutionContext context,
+                                    DefaulterStatusBitmap status) {
+        switch (context.getCheckDay()) {
+            case 25:
+                return account.calculateAMB(1, 25) < context.getMinBalance();
+            case 3:
+                return account.calculateAMB(1, 30) < context.getMinBalance()
+                        || status.isActualDefaulter(key, context.getCurrentMonth() - 2);
+            default:
+                return true;
+        }
     }
 
     private Map<String, Object> prepareInput(
             Account account,
-            List<ProbableDefaulter> existingPD,
-            List<ActualDefaulter> existingAD,
+            int key,
+            DefaulterStatusBitmap status,
             ExecutionContext context) {
 
         Map<String, Object> input = new HashMap<>();
@@ -98,24 +170,22 @@ public class AMBRulesEngine {
         input.put("ambDay1To30", ambDay1To30);
 
         // ============ DEBUG LOGGING ============
-        System.out.println("  🔍 DEBUG INPUT:");
-        System.out.println("     Account: " + account.getAccountId());
-        System.out.println("     Check Day: " + context.getCheckDay());
-        System.out.println("     Current Month: " + context.getCurrentMonth());
-        System.out.println("     AMB (1-25): ₹" + String.format("%.2f", ambDay1To25));
-        System.out.println("     AMB (1-30): ₹" + String.format("%.2f", ambDay1To30));
-        System.out.println("     Min Balance: ₹" + String.format("%.2f", context.getMinBalance()));
-        System.out.println("     Below Min? " + (ambDay1To25 < context.getMinBalance()));
+        if (debug) {
+            System.out.println("  🔍 DEBUG INPUT:");
+            System.out.println("     Account: " + account.getAccountId());
+            System.out.println("     Check Day: " + context.getCheckDay());
+            System.out.println("     Current Month: " + context.getCurrentMonth());
+            System.out.println("     AMB (1-25): ₹" + String.format("%.2f", ambDay1To25));
+            System.out.println("     AMB (1-30): ₹" + String.format("%.2f", ambDay1To30));
+            System.out.println("     Min Balance: ₹" + String.format("%.2f", context.getMinBalance()));
+            System.out.println("     Below Min? " + (ambDay1To25 < context.getMinBalance()));
+        }
         // =======================================
 
-        boolean wasActualLastMonth = existingAD.stream()
-                .anyMatch(ad -> ad.getAccountId().equals(account.getAccountId())
-                        && ad.getMonth() == context.getCurrentMonth() - 1);
+        boolean wasActualLastMonth = status.isActualDefaulter(key, context.getCurrentMonth() - 1);
         input.put("wasActualDefaulterLastMonth", wasActualLastMonth);
 
-        boolean wasProbableLastMonth = existingPD.stream()
-                .anyMatch(pd -> pd.getAccountId().equals(account.getAccountId())
-                        && pd.getMonth() == context.getCurrentMonth() - 1);
+        boolean wasProbableLastMonth = status.isProbableDefaulter(key, context.getCurrentMonth() - 1);
         input.put("wasProbableDefaulterLastMonth", wasProbableLastMonth);
 
         // ============ FIX: Check for actual defaulters in the CORRECT months ============
@@ -123,31 +193,28 @@ public class AMBRulesEngine {
         // - Month N-2 actual defaulter (adMonth2)
         // - Month N-1 actual defaulter (adMonth1)
 
-        ActualDefaulter adMonth2 = existingAD.stream()
-                .filter(ad -> ad.getAccountId().equals(account.getAccountId())
-                        && ad.getMonth() == context.getCurrentMonth() - 2)  // Look 2 months back
-                .findFirst().orElse(null);
-
-        ActualDefaulter adMonth1 = existingAD.stream()
-                .filter(ad -> ad.getAccountId().equals(account.getAccountId())
-                        && ad.getMonth() == context.getCurrentMonth() - 1)  // Look 1 month back
-                .findFirst().orElse(null);
+        boolean adMonth2 = status.isActualDefaulter(key, context.getCurrentMonth() - 2);  // Look 2 months back
+        boolean adMonth1 = status.isActualDefaulter(key, context.getCurrentMonth() - 1);  // Look 1 month back
+        double shortfallMonth2 = status.getShortfall(key, context.getCurrentMonth() - 2);
+        double shortfallMonth1 = status.getShortfall(key, context.getCurrentMonth() - 1);
 
-        input.put("actualDefaulterMonth2", adMonth2 != null);
-        input.put("actualDefaulterMonth1", adMonth1 != null);
-        input.put("shortfallMonth2", adMonth2 != null ? adMonth2.getShortfall() : 0.0);
-        input.put("shortfallMonth1", adMonth1 != null ? adMonth1.getShortfall() : 0.0);
+        input.put("actualDefaulterMonth2", adMonth2);
+        input.put("actualDefaulterMonth1", adMonth1);
+        input.put("shortfallMonth2", shortfallMonth2);
+        input.put("shortfallMonth1", shortfallMonth1);
 
         // ============ MORE DEBUG ============
-        System.out.println("     Was Actual Last Month: " + wasActualLastMonth);
-        System.out.println("     Was Probable Last Month: " + wasProbableLastMonth);
-        System.out.println("     Actual Defaulter M-1 (Month " + (context.getCurrentMonth() - 1) + "): " + (adMonth1 != null));
-        System.out.println("     Actual Defaulter M-2 (Month " + (context.getCurrentMonth() - 2) + "): " + (adMonth2 != null));
-        if (adMonth1 != null) {
-            System.out.println("     Shortfall M-1: ₹" + String.format("%.2f", adMonth1.getShortfall()));
-        }
-        if (adMonth2 != null) {
-            System.out.println("     Shortfall M-2: ₹" + String.format("%.2f", adMonth2.getShortfall()));
+        if (debug) {
+            System.out.println("     Was Actual Last Month: " + wasActualLastMonth);
+            System.out.println("     Was Probable Last Month: " + wasProbableLastMonth);
+            System.out.println("     Actual Defaulter M-1 (Month " + (context.getCurrentMonth() - 1) + "): " + adMonth1);
+            System.out.println("     Actual Defaulter M-2 (Month " + (context.getCurrentMonth() - 2) + "): " + adMonth2);
+            if (adMonth1) {
+                System.out.println("     Shortfall M-1: ₹" + String.format("%.2f", shortfallMonth1));
+            }
+            if (adMonth2) {
+                System.out.println("     Shortfall M-2: ₹" + String.format("%.2f", shortfallMonth2));
+            }
         }
         // ====================================
 
@@ -157,17 +224,19 @@ public class AMBRulesEngine {
     @SuppressWarnings("unchecked")
     private void processResults(
             Account account,
+            int key,
             Map<String, Object> result,
             ExecutionContext context,
             List<ProbableDefaulter> probableDefaulters,
             List<ActualDefaulter> actualDefaulters,
             List<Charge> charges,
-            List<ProbableDefaulter> existingPD,
-            List<ActualDefaulter> existingAD) {
+            DefaulterStatusBitmap status) {
 
         // ============ DEBUG OUTPUT ============
-        System.out.println("  📤 DEBUG OUTPUT:");
-        System.out.println("     Result: " + result);
+        if (debug) {
+            System.out.println("  📤 DEBUG OUTPUT:");
+            System.out.println("     Result: " + result);
+        }
         // ======================================
 
         // Process Probable Defaulter
@@ -178,6 +247,7 @@ public class AMBRulesEngine {
 
             ProbableDefaulter pd = new ProbableDefaulter();
             pd.setAccountId(account.getAccountId());
+            pd.setAccountKey(key);
             pd.setMonth(context.getCurrentMonth());
             pd.setAmb(account.calculateAMB(1, 25));
             pd.setSmsSent(sendSMS != null && sendSMS);
@@ -195,6 +265,7 @@ public class AMBRulesEngine {
 
             ActualDefaulter ad = new ActualDefaulter();
             ad.setAccountId(account.getAccountId());
+            ad.setAccountKey(key);
             ad.setMonth(context.getCurrentMonth() - 1);
             ad.setAmb(account.calculateAMB(1, 30));
             ad.setShortfall(shortfall);
@@ -211,18 +282,13 @@ public class AMBRulesEngine {
             // Look for an actual defaulter in the previous month
             int targetMonth = context.getCurrentMonth() - 2;  // Two months back from current
 
-            ActualDefaulter previousDefaulter = existingAD.stream()
-                    .filter(ad -> ad.getAccountId().equals(account.getAccountId())
-                            && ad.getMonth() == targetMonth)
-                    .findFirst().orElse(null);
-
-            if (previousDefaulter != null) {
+            if (status.isActualDefaulter(key, targetMonth)) {
                 // We have TWO consecutive defaults! Apply charge
                 System.out.println("  💰 CHARGE TRIGGERED! Found consecutive defaults for months " +
                         targetMonth + " and " + (context.getCurrentMonth() - 1));
 
-                Charge charge = calculateCharge(account.getAccountId(), context.getCurrentMonth(),
-                        previousDefaulter.getShortfall(), newActualDefaulter.getShortfall());
+                Charge charge = calculateCharge(account, key, context.getCurrentMonth(),
+                        status.getShortfall(key, targetMonth), newActualDefaulter.getShortfall());
                 charges.add(charge);
                 printCharge(account, charge);
             }
@@ -238,14 +304,14 @@ public class AMBRulesEngine {
             double shortfall1 = sf1Obj instanceof Number ? ((Number) sf1Obj).doubleValue() : 0.0;
             double shortfall2 = sf2Obj instanceof Number ? ((Number) sf2Obj).doubleValue() : 0.0;
 
-            Charge charge = calculateCharge(account.getAccountId(), context.getCurrentMonth(),
+            Charge charge = calculateCharge(account, key, context.getCurrentMonth(),
                     shortfall1, shortfall2);
             charges.add(charge);
             printCharge(account, charge);
         }
     }
 
-    private Charge calculateCharge(String accountId, int currentMonth,
+    private Charge calculateCharge(Account account, int key, int currentMonth,
                                    double shortfall1, double shortfall2) {
         // Month 1 charge
         double baseCharge1 = Math.min(shortfall1 * 0.06, 500.0);
@@ -264,7 +330,8 @@ public class AMBRulesEngine {
         double grandTotal = totalCharge1 + totalCharge2;
 
         Charge charge = new Charge();
-        charge.setAccountId(accountId);
+        charge.setAccountId(account.getAccountId());
+        charge.setAccountKey(key);
         charge.setMonth1(currentMonth - 2);
         charge.setMonth2(currentMonth - 1);
         charge.setShortfall1(shortfall1);
@@ -323,11 +390,12 @@ public class AMBRulesEngine {
     }
 
     private void printSummary(List<ProbableDefaulter> pd, List<ActualDefaulter> ad,
-                              List<Charge> charges, int rulesExecuted) {
+                              List<Charge> charges, int rulesExecuted, int skippedAccounts) {
         System.out.println("\n========================================");
         System.out.println("GoRules Execution Summary");
         System.out.println("========================================");
         System.out.println("Accounts Evaluated: " + rulesExecuted);
+        System.out.println("Accounts Skipped (maintained): " + skippedAccounts);
         System.out.println("Probable Defaulters: " + pd.size());
         System.out.println("Actual Defaulters: " + ad.size());
         System.out.println("Charges Applied: " + charges.size());
@@ -347,20 +415,31 @@ public class AMBRulesEngine {
         private List<ActualDefaulter> actualDefaulters;
         private List<Charge> charges;
         private int rulesExecuted;
+        private int skippedAccounts;
 
         public RuleExecutionResult(List<ProbableDefaulter> probableDefaulters,
                                    List<ActualDefaulter> actualDefaulters,
                                    List<Charge> charges,
                                    int rulesExecuted) {
+            this(probableDefaulters, actualDefaulters, charges, rulesExecuted, 0);
+        }
+
+        public RuleExecutionResult(List<ProbableDefaulter> probableDefaulters,
+                                   List<ActualDefaulter> actualDefaulters,
+                                   List<Charge> charges,
+                                   int rulesExecuted,
+                                   int skippedAccounts) {
             this.probableDefaulters = probableDefaulters;
             this.actualDefaulters = actualDefaulters;
             this.charges = charges;
             this.rulesExecuted = rulesExecuted;
+            this.skippedAccounts = skippedAccounts;
         }
 
         public List<ProbableDefaulter> getProbableDefaulters() { return probableDefaulters; }
         public List<ActualDefaulter> getActualDefaulters() { return actualDefaulters; }
         public List<Charge> getCharges() { return charges; }
         public int getRulesExecuted() { return rulesExecuted; }
+        public int getSkippedAccounts() { return skippedAccounts; }
     }
 }
\ No newline at end of file
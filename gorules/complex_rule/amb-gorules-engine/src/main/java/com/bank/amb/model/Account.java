@@ -1,5 +1,6 @@
 package com.bank.amb.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,10 +10,17 @@ import java.util.Map;
 public class Account {
 
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED; // dense key for history lookups
     private String accountName;
     private int currentMonth;
     private Map<Integer, Double> dailyBalances; // Day -> Balance
 
+    // Cumulative balance and recorded-day count for days 1..d, rebuilt on the
+    // first AMB query after balances change
+    private double[] prefixSums;
+    private int[] prefixCounts;
+    private boolean prefixStale = true;
+
     public Account() {
         this.dailyBalances = new HashMap<>();
     }
@@ -28,41 +36,75 @@ public class Account {
      */
     public void setDailyBalance(int day, double balance) {
         this.dailyBalances.put(day, balance);
+        this.prefixStale = true;
     }
 
     /**
      * Calculate Average Monthly Balance (AMB) for a date range
      * @param startDay Starting day (inclusive)
      * @param endDay Ending day (inclusive)
-     * @return Average balance for the period
+     * @return Average balance over the days in the period that have a balance
      */
     public double calculateAMB(int startDay, int endDay) {
-        double sum = 0.0;
-        int count = 0;
+        refreshPrefixSums();
+        int from = Math.max(startDay, 1);
+        int to = Math.min(endDay, prefixSums.length - 1);
+        if (to < from) {
+            return 0.0;
+        }
 
-        for (int day = startDay; day <= endDay; day++) {
-            Double balance = dailyBalances.get(day);
-            if (balance != null) {
-                sum += balance;
-                count++;
-            }
+        int count = prefixCounts[to] - prefixCounts[from - 1];
+        return count > 0 ? (prefixSums[to] - prefixSums[from - 1]) / count : 0.0;
+    }
+
+    /**
+     * Sum of the recorded balances from startDay to endDay (inclusive)
+     */
+    public double getBalanceSum(int startDay, int endDay) {
+        refreshPrefixSums();
+        int from = Math.max(startDay, 1);
+        int to = Math.min(endDay, prefixSums.length - 1);
+        return to < from ? 0.0 : prefixSums[to] - prefixSums[from - 1];
+    }
+
+    private void refreshPrefixSums() {
+        if (!prefixStale) {
+            return;
+        }
+        int lastDay = 0;
+        for (int day : dailyBalances.keySet()) {
+            lastDay = Math.max(lastDay, day);
         }
 
-        return count > 0 ? sum / count : 0.0;
+        prefixSums = new double[lastDay + 1];
+        prefixCounts = new int[lastDay + 1];
+        for (int day = 1; day <= lastDay; day++) {
+            Double balance = dailyBalances.get(day);
+            prefixSums[day] = prefixSums[day - 1] + (balance != null ? balance : 0.0);
+            prefixCounts[day] = prefixCounts[day - 1] + (balance != null ? 1 : 0);
+        }
+        prefixStale = false;
     }
 
     // Getters and Setters
     public String getAccountId() { return accountId; }
     public void setAccountId(String accountId) { this.accountId = accountId; }
 
+    public int getAccountKey() { return accountKey; }
+    public void setAccountKey(int accountKey) { this.accountKey = accountKey; }
+
     public String getAccountName() { return accountName; }
     public void setAccountName(String accountName) { this.accountName = accountName; }
 
     public int getCurrentMonth() { return currentMonth; }
     public void setCurrentMonth(int currentMonth) { this.currentMonth = currentMonth; }
 
-    public Map<Integer, Double> getDailyBalances() { return dailyBalances; }
-    public void setDailyBalances(Map<Integer, Double> dailyBalances) { this.dailyBalances = dailyBalances; }
+    // Read-only: balances change through the setters so the prefix sums stay current
+    public Map<Integer, Double> getDailyBalances() { return Collections.unmodifiableMap(dailyBalances); }
+    public void setDailyBalances(Map<Integer, Double> dailyBalances) {
+        this.dailyBalances = dailyBalances;
+        this.prefixStale = true;
+    }
 
     @Override
     public String toString() {
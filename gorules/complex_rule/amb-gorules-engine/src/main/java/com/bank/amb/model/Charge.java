@@ -6,6 +6,7 @@ package com.bank.amb.model;
 public class Charge {
 
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED; // dense key for history lookups
     private int month1;
     private int month2;
     private double shortfall1;
@@ -23,6 +24,9 @@ public class Charge {
     public String getAccountId() { return accountId; }
     public void setAccountId(String accountId) { this.accountId = accountId; }
 
+    public int getAccountKey() { return accountKey; }
+    public void setAccountKey(int accountKey) { this.accountKey = accountKey; }
+
     public int getMonth1() { return month1; }
     public void setMonth1(int month1) { this.month1 = month1; }
 
@@ -0,0 +1,142 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary encoding of history records for the log and snapshot files.
+ *
+ * Each record is a type byte followed by its fields; strings are an int
+ * byte length (-1 for null) and UTF-8 bytes.
+ */
+final class HistoryRecordCodec {
+
+    static final byte PROBABLE = 1;
+    static final byte ACTUAL = 2;
+    static final byte CHARGE = 3;
+
+    private HistoryRecordCodec() {
+    }
+
+    /**
+     * Upper bound of the encoded size, used to decide when a frame is full
+     */
+    static int maxSize(ProbableDefaulter pd) {
+        return 1 + stringSize(pd.getAccountId()) + Integer.BYTES + Double.BYTES + 1 + stringSize(pd.getReason());
+    }
+
+    static int maxSize(ActualDefaulter ad) {
+        return 1 + stringSize(ad.getAccountId()) + Integer.BYTES + 2 * Double.BYTES + stringSize(ad.getStatus());
+    }
+
+    static int maxSize(Charge charge) {
+        return 1 + stringSize(charge.getAccountId()) + 3 * Integer.BYTES + 6 * Double.BYTES
+                + stringSize(charge.getReason());
+    }
+
+    static void write(ByteBuffer buffer, ProbableDefaulter pd) {
+        buffer.put(PROBABLE);
+        putString(buffer, pd.getAccountId());
+        buffer.putInt(pd.getMonth());
+        buffer.putDouble(pd.getAmb());
+        buffer.put((byte) (pd.isSmsSent() ? 1 : 0));
+        putString(buffer, pd.getReason());
+    }
+
+    static void write(ByteBuffer buffer, ActualDefaulter ad) {
+        buffer.put(ACTUAL);
+        putString(buffer, ad.getAccountId());
+        buffer.putInt(ad.getMonth());
+        buffer.putDouble(ad.getAmb());
+        buffer.putDouble(ad.getShortfall());
+        putString(buffer, ad.getStatus());
+    }
+
+    static void write(ByteBuffer buffer, Charge charge) {
+        buffer.put(CHARGE);
+        putString(buffer, charge.getAccountId());
+        buffer.putInt(charge.getMonth1());
+        buffer.putInt(charge.getMonth2());
+        buffer.putDouble(charge.getShortfall1());
+        buffer.putDouble(charge.getShortfall2());
+        buffer.putDouble(charge.getTotalShortfall());
+        buffer.putDouble(charge.getBaseCharge());
+        buffer.putDouble(charge.getGstAmount());
+        buffer.putDouble(charge.getTotalCharge());
+        buffer.putInt(charge.getChargedInMonth());
+        putString(buffer, charge.getReason());
+    }
+
+    /**
+     * Decode every record remaining in the buffer into the three lists
+     *
+     * @throws IllegalStateException on an unknown record type
+     */
+    static void readAll(ByteBuffer buffer, List<ProbableDefaulter> probableDefaulters,
+                        List<ActualDefaulter> actualDefaulters, List<Charge> charges) {
+        while (buffer.hasRemaining()) {
+            byte type = buffer.get();
+            switch (type) {
+                case PROBABLE:
+                    probableDefaulters.add(new ProbableDefaulter(getString(buffer), buffer.getInt(),
+                            buffer.getDouble(), buffer.get() != 0, getString(buffer)));
+                    break;
+                case ACTUAL:
+                    actualDefaulters.add(new ActualDefaulter(getString(buffer), buffer.getInt(),
+                            buffer.getDouble(), buffer.getDouble(), getString(buffer)));
+                    break;
+                case CHARGE:
+                    charges.add(readCharge(buffer));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown history record type " + type);
+            }
+        }
+    }
+
+    private static Charge readCharge(ByteBuffer buffer) {
+        Charge charge = new Charge();
+        charge.setAccountId(getString(buffer));
+        charge.setMonth1(buffer.getInt());
+        charge.setMonth2(buffer.getInt());
+        charge.setShortfall1(buffer.getDouble());
+        charge.setShortfall2(buffer.getDouble());
+        charge.setTotalShortfall(buffer.getDouble());
+        charge.setBaseCharge(buffer.getDouble());
+        charge.setGstAmount(buffer.getDouble());
+        charge.setTotalCharge(buffer.getDouble());
+        charge.setChargedInMonth(buffer.getInt());
+        charge.setReason(getString(buffer));
+        return charge;
+    }
+
+    private static int stringSize(String value) {
+        // UTF-8 needs at most 3 bytes per UTF-16 char
+        return Integer.BYTES + (value == null ? 0 : value.length() * 3);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,321 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Indexed in-memory history: account ids map to dense keys (see
+ * {@link AccountDictionary}) and each record type keeps, per key, the
+ * account's few records of the active window. A lookup by key is an array
+ * access plus a scan of at most a handful of months, with no hashing and
+ * no key object allocated. The records are also kept in insertion order.
+ *
+ * Adding a record sets its account key in place; a record that already
+ * carries this dictionary's key for its id is not hashed again. The
+ * dictionary is thread-safe so it can be shared with other indexes and
+ * engines, but the repository itself is not: adds and lookups must not
+ * run concurrently.
+ *
+ * When an account and month is recorded twice, lookups return the first record, as the
+ * list scans this replaces did; the ordered lists keep every record. The
+ * upsert methods instead replace the held record, for stores whose writes
+ * are upserts.
+ * Evicted records are handed to a {@link HistoryArchive} and dropped, so
+ * memory holds just the active window.
+ */
+public class InMemoryDefaulterHistoryRepository implements DefaulterHistoryRepository {
+
+    private final List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+    private final List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+    private final List<Charge> charges = new ArrayList<>();
+
+    private final AccountDictionary accounts;
+    private final MonthIndex<ProbableDefaulter> probableByAccount = new MonthIndex<>(ProbableDefaulter::getMonth);
+    private final MonthIndex<ActualDefaulter> actualByAccount = new MonthIndex<>(ActualDefaulter::getMonth);
+    private final MonthIndex<Charge> chargeByAccount = new MonthIndex<>(Charge::getChargedInMonth);
+
+    private final HistoryArchive archive;
+
+    public InMemoryDefaulterHistoryRepository() {
+        this(new AccountDictionary(), new InMemoryHistoryArchive());
+    }
+
+    /**
+     * @param accounts dictionary to encode account ids with, possibly shared with other indexes
+     * @param archive  receives evicted records
+     */
+    public InMemoryDefaulterHistoryRepository(AccountDictionary accounts, HistoryArchive archive) {
+        this.accounts = accounts;
+        this.archive = archive;
+    }
+
+    /**
+     * Index existing history lists (the lists themselves are not modified)
+     */
+    public static InMemoryDefaulterHistoryRepository of(Collection<ProbableDefaulter> probableDefaulters,
+                                                        Collection<ActualDefaulter> actualDefaulters,
+                                                        Collection<Charge> charges) {
+        InMemoryDefaulterHistoryRepository repository = new InMemoryDefaulterHistoryRepository();
+        repository.addProbableDefaulters(probableDefaulters);
+        repository.addActualDefaulters(actualDefaulters);
+        repository.addCharges(charges);
+        return repository;
+    }
+
+    @Override
+    public void addProbableDefaulters(Collection<ProbableDefaulter> records) {
+        for (ProbableDefaulter pd : records) {
+            probableDefaulters.add(pd);
+            probableByAccount.add(keyOf(pd.getAccountId(), pd.getAccountKey(), pd::setAccountKey), pd);
+        }
+    }
+
+    @Override
+    public void addActualDefaulters(Collection<ActualDefaulter> records) {
+        for (ActualDefaulter ad : records) {
+            actualDefaulters.add(ad);
+            actualByAccount.add(keyOf(ad.getAccountId(), ad.getAccountKey(), ad::setAccountKey), ad);
+        }
+    }
+
+    @Override
+    public void addCharges(Collection<Charge> records) {
+        for (Charge charge : records) {
+            charges.add(charge);
+            chargeByAccount.add(keyOf(charge.getAccountId(), charge.getAccountKey(), charge::setAccountKey),
+                    charge);
+        }
+    }
+
+    /**
+     * Add records, replacing the one held for the same account and month
+     * (in the index and in place in the ordered list); the last record wins
+     */
+    public void upsertProbableDefaulters(Collection<ProbableDefaulter> records) {
+        upsert(records, probableDefaulters, probableByAccount,
+                pd -> keyOf(pd.getAccountId(), pd.getAccountKey(), pd::setAccountKey));
+    }
+
+    public void upsertActualDefaulters(Collection<ActualDefaulter> records) {
+        upsert(records, actualDefaulters, actualByAccount,
+                ad -> keyOf(ad.getAccountId(), ad.getAccountKey(), ad::setAccountKey));
+    }
+
+    public void upsertCharges(Collection<Charge> records) {
+        upsert(records, charges, chargeByAccount,
+                charge -> keyOf(charge.getAccountId(), charge.getAccountKey(), charge::setAccountKey));
+    }
+
+    @Override
+    public ProbableDefaulter findProbableDefaulter(int accountKey, int month) {
+        return probableByAccount.find(accountKey, month);
+    }
+
+    @Override
+    public ActualDefaulter findActualDefaulter(int accountKey, int month) {
+        return actualByAccount.find(accountKey, month);
+    }
+
+    @Override
+    public Charge findCharge(int accountKey, int chargedInMonth) {
+        return chargeByAccount.find(accountKey, chargedInMonth);
+    }
+
+    @Override
+    public void evictBefore(int oldestMonth) {
+        List<ProbableDefaulter> oldProbable = evict(probableDefaulters, probableByAccount, oldestMonth);
+        List<ActualDefaulter> oldActual = evict(actualDefaulters, actualByAccount, oldestMonth);
+        List<Charge> oldCharges = evict(charges, chargeByAccount, oldestMonth);
+        if (!oldProbable.isEmpty() || !oldActual.isEmpty() || !oldCharges.isEmpty()) {
+            archive.archive(oldProbable, oldActual, oldCharges);
+        }
+    }
+
+    @Override
+    public List<ProbableDefaulter> getProbableDefaulters() {
+        return new ArrayList<>(probableDefaulters);
+    }
+
+    @Override
+    public List<ActualDefaulter> getActualDefaulters() {
+        return new ArrayList<>(actualDefaulters);
+    }
+
+    @Override
+    public List<Charge> getCharges() {
+        return new ArrayList<>(charges);
+    }
+
+    /**
+     * Records in the active window
+     */
+    public int getActiveSize() {
+        return probableDefaulters.size() + actualDefaulters.size() + charges.size();
+    }
+
+    @Override
+    public void clear() {
+        probableDefaulters.clear();
+        actualDefaulters.clear();
+        charges.clear();
+        probableByAccount.clear();
+        actualByAccount.clear();
+        chargeByAccount.clear();
+    }
+
+    @Override
+    public AccountDictionary getAccountDictionary() {
+        return accounts;
+    }
+
+    public HistoryArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Key of a record's account, stored back on the record
+     */
+    private int keyOf(String accountId, int knownKey, IntConsumer setKey) {
+        int key = accounts.keyOf(accountId, knownKey);
+        if (key != knownKey) {
+            setKey.accept(key);
+        }
+        return key;
+    }
+
+    private <T> void upsert(Collection<T> records, List<T> ordered, MonthIndex<T> byAccount,
+                            ToIntFunction<T> keyOf) {
+        // Record held in the ordered list -> its latest replacement, applied in one pass
+        Map<T, T> replaced = new IdentityHashMap<>();
+        // Replacement -> the listed record it stands in for, so chains collapse as they form
+        Map<T, T> listed = new IdentityHashMap<>();
+        for (T record : records) {
+            T previous = byAccount.put(keyOf.applyAsInt(record), record);
+            if (previous == null) {
+                ordered.add(record);
+            } else if (previous != record) {
+                T original = listed.getOrDefault(previous, previous);
+                listed.remove(previous);
+                if (original == record) {
+                    replaced.remove(original);
+                } else {
+                    replaced.put(original, record);
+                    listed.put(record, original);
+                }
+            }
+        }
+        if (!replaced.isEmpty()) {
+            ordered.replaceAll(record -> replaced.getOrDefault(record, record));
+        }
+    }
+
+    /**
+     * Remove records before oldestMonth from the list and the index; returns them
+     */
+    private static <T> List<T> evict(List<T> active, MonthIndex<T> byAccount, int oldestMonth) {
+        List<T> evicted = new ArrayList<>();
+        List<T> kept = new ArrayList<>(active.size());
+        for (T record : active) {
+            (byAccount.month.applyAsInt(record) < oldestMonth ? evicted : kept).add(record);
+        }
+        if (!evicted.isEmpty()) {
+            active.clear();
+            active.addAll(kept);
+            byAccount.evictBefore(oldestMonth);
+        }
+        return evicted;
+    }
+
+    /**
+     * Records per account key, in insertion order; add keeps the first
+     * record of a month, put replaces it. Each account holds only its active months, so its slot is
+     * sized exactly and grown one record at a time.
+     */
+    private static final class MonthIndex<T> {
+        private final ToIntFunction<T> month;
+        private Object[][] byAccount = new Object[16][];
+
+        MonthIndex(ToIntFunction<T> month) {
+            this.month = month;
+        }
+
+        void add(int key, T record) {
+            if (key >= byAccount.length) {
+                byAccount = Arrays.copyOf(byAccount, Math.max(key + 1, byAccount.length + (byAccount.length >> 1)));
+            }
+            Object[] slot = byAccount[key];
+            if (slot == null) {
+                byAccount[key] = new Object[]{record};
+            } else if (find(key, month.applyAsInt(record)) == null) {
+                slot = Arrays.copyOf(slot, slot.length + 1);
+                slot[slot.length - 1] = record;
+                byAccount[key] = slot;
+            }
+        }
+
+        /**
+         * Store the record, replacing the one of the same month; returns the replaced record or null
+         */
+        @SuppressWarnings("unchecked")
+        T put(int key, T record) {
+            int recordMonth = month.applyAsInt(record);
+            Object[] slot = key < byAccount.length ? byAccount[key] : null;
+            if (slot != null) {
+                for (int i = 0; i < slot.length; i++) {
+                    if (month.applyAsInt((T) slot[i]) == recordMonth) {
+                        T previous = (T) slot[i];
+                        slot[i] = record;
+                        return previous;
+                    }
+                }
+            }
+            add(key, record);
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        T find(int key, int recordMonth) {
+            if (key < 0 || key >= byAccount.length || byAccount[key] == null) {
+                return null;
+            }
+            for (Object record : byAccount[key]) {
+                if (month.applyAsInt((T) record) == recordMonth) {
+                    return (T) record;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void evictBefore(int oldestMonth) {
+            for (int key = 0; key < byAccount.length; key++) {
+                Object[] slot = byAccount[key];
+                if (slot == null) {
+                    continue;
+                }
+                int kept = 0;
+                for (Object record : slot) {
+                    if (month.applyAsInt((T) record) >= oldestMonth) {
+                        slot[kept++] = record;
+                    }
+                }
+                byAccount[key] = kept == 0 ? null : kept == slot.length ? slot : Arrays.copyOf(slot, kept);
+            }
+        }
+
+        void clear() {
+            byAccount = new Object[16][];
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Defaulter and charge history in a relational database, for downstream posting.
+ *
+ * Writes are upserts keyed by (accountId, month): each batch of
+ * {@code batchSize} records is sent as one batched UPDATE, and the rows it
+ * did not find as one batched INSERT, all in a single transaction per add
+ * call. Only portable SQL is used, no vendor MERGE syntax. A driver that
+ * reports {@link Statement#SUCCESS_NO_INFO} instead of update counts gets a
+ * per-row existence check for those rows. Within one add call the last
+ * record for a key wins.
+ *
+ * Lookups are served from an in-memory index. {@link #load(int)} fills it
+ * from the months the next cycle needs by reading keyset-paginated pages
+ * of {@code pageSize} rows in (month, accountId) order, so no page
+ * re-scans the rows before it. Records added later go to the database and
+ * the index together; a key added again replaces its record in both.
+ *
+ * Assumes a single writer per database, like the engine runs.
+ */
+public class JdbcDefaulterHistoryRepository implements DefaulterHistoryRepository {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int DEFAULT_PAGE_SIZE = 10_000;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS amb_probable_defaulter ("
+                    + "account_id VARCHAR(64) NOT NULL, defaulter_month INT NOT NULL, amb DOUBLE PRECISION, "
+                    + "sms_sent BOOLEAN, reason VARCHAR(255), PRIMARY KEY (account_id, defaulter_month))",
+            "CREATE INDEX IF NOT EXISTS amb_probable_defaulter_month "
+                    + "ON amb_probable_defaulter (defaulter_month, account_id)",
+            "CREATE TABLE IF NOT EXISTS amb_actual_defaulter ("
+                    + "account_id VARCHAR(64) NOT NULL, defaulter_month INT NOT NULL, amb DOUBLE PRECISION, "
+                    + "shortfall DOUBLE PRECISION, status VARCHAR(255), PRIMARY KEY (account_id, defaulter_month))",
+            "CREATE INDEX IF NOT EXISTS amb_actual_defaulter_month "
+                    + "ON amb_actual_defaulter (defaulter_month, account_id)",
+            "CREATE TABLE IF NOT EXISTS amb_charge ("
+                    + "account_id VARCHAR(64) NOT NULL, charged_in_month INT NOT NULL, month1 INT, month2 INT, "
+                    + "shortfall1 DOUBLE PRECISION, shortfall2 DOUBLE PRECISION, total_shortfall DOUBLE PRECISION, "
+                    + "base_charge DOUBLE PRECISION, gst_amount DOUBLE PRECISION, total_charge DOUBLE PRECISION, "
+                    + "reason VARCHAR(255), PRIMARY KEY (account_id, charged_in_month))",
+            "CREATE INDEX IF NOT EXISTS amb_charge_month ON amb_charge (charged_in_month, account_id)"
+    };
+
+    private static final String UPDATE_PROBABLE = "UPDATE amb_probable_defaulter SET amb = ?, sms_sent = ?, "
+            + "reason = ? WHERE account_id = ? AND defaulter_month = ?";
+    private static final String INSERT_PROBABLE = "INSERT INTO amb_probable_defaulter "
+            + "(account_id, defaulter_month, amb, sms_sent, reason) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_PROBABLE = "SELECT account_id, defaulter_month, amb, sms_sent, reason "
+            + "FROM amb_probable_defaulter WHERE defaulter_month >= ?";
+    private static final String EXISTS_PROBABLE = "SELECT 1 FROM amb_probable_defaulter "
+            + "WHERE account_id = ? AND defaulter_month = ?";
+
+    private static final String UPDATE_ACTUAL = "UPDATE amb_actual_defaulter SET amb = ?, shortfall = ?, "
+            + "status = ? WHERE account_id = ? AND defaulter_month = ?";
+    private static final String INSERT_ACTUAL = "INSERT INTO amb_actual_defaulter "
+            + "(account_id, defaulter_month, amb, shortfall, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_ACTUAL = "SELECT account_id, defaulter_month, amb, shortfall, status "
+            + "FROM amb_actual_defaulter WHERE defaulter_month >= ?";
+    private static final String EXISTS_ACTUAL = "SELECT 1 FROM amb_actual_defaulter "
+            + "WHERE account_id = ? AND defaulter_month = ?";
+
+    private static final String UPDATE_CHARGE = "UPDATE amb_charge SET month1 = ?, month2 = ?, shortfall1 = ?, "
+            + "shortfall2 = ?, total_shortfall = ?, base_charge = ?, gst_amount = ?, total_charge = ?, reason = ? "
+            + "WHERE account_id = ? AND charged_in_month = ?";
+    private static final String INSERT_CHARGE = "INSERT INTO amb_charge (month1, month2, shortfall1, shortfall2, "
+            + "total_shortfall, base_charge, gst_amount, total_charge, reason, account_id, charged_in_month) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_CHARGE = "SELECT account_id, charged_in_month, month1, month2, shortfall1, "
+            + "shortfall2, total_shortfall, base_charge, gst_amount, total_charge, reason "
+            + "FROM amb_charge WHERE charged_in_month >= ?";
+    private static final String EXISTS_CHARGE = "SELECT 1 FROM amb_charge "
+            + "WHERE account_id = ? AND charged_in_month = ?";
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final int pageSize;
+    // The database keeps evicted rows, so the index drops them
+    private final InMemoryDefaulterHistoryRepository index =
+            new InMemoryDefaulterHistoryRepository(new AccountDictionary(), (pds, ads, charges) -> { });
+
+    public JdbcDefaulterHistoryRepository(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE, DEFAULT_PAGE_SIZE);
+    }
+
+    public JdbcDefaulterHistoryRepository(DataSource dataSource, int batchSize, int pageSize) {
+        if (batchSize <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("batchSize and pageSize must be positive");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Create the history tables and their month indexes if they do not exist
+     */
+    public void createSchema() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create defaulter history schema", e);
+        }
+    }
+
+    /**
+     * Replace the in-memory index with the records of fromMonth onwards
+     * (for a cycle in month M the engine looks back to M - 2)
+     */
+    @Override
+    public void load(int fromMonth) {
+        index.clear();
+        List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+        forEachProbableDefaulter(fromMonth, probableDefaulters::add);
+        index.addProbableDefaulters(probableDefaulters);
+
+        List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+        forEachActualDefaulter(fromMonth, actualDefaulters::add);
+        index.addActualDefaulters(actualDefaulters);
+
+        List<Charge> charges = new ArrayList<>();
+        forEachCharge(fromMonth, charges::add);
+        index.addCharges(charges);
+    }
+
+    /**
+     * Stream probable defaulters of fromMonth onwards in (month, accountId) order
+     */
+    public void forEachProbableDefaulter(int fromMonth, Consumer<ProbableDefaulter> consumer) {
+        readPages(SELECT_PROBABLE, "defaulter_month", fromMonth, rs -> new ProbableDefaulter(
+                        rs.getString(1), rs.getInt(2), rs.getDouble(3), rs.getBoolean(4), rs.getString(5)),
+                ProbableDefaulter::getAccountId, ProbableDefaulter::getMonth, consumer);
+    }
+
+    /**
+     * Stream actual defaulters of fromMonth onwards in (month, accountId) order
+     */
+    public void forEachActualDefaulter(int fromMonth, Consumer<ActualDefaulter> consumer) {
+        readPages(SELECT_ACTUAL, "defaulter_month", fromMonth, rs -> new ActualDefaulter(
+                        rs.getString(1), rs.getInt(2), rs.getDouble(3), rs.getDouble(4), rs.getString(5)),
+                ActualDefaulter::getAccountId, ActualDefaulter::getMonth, consumer);
+    }
+
+    /**
+     * Stream charges levied in fromMonth onwards in (chargedInMonth, accountId) order
+     */
+    public void forEachCharge(int fromMonth, Consumer<Charge> consumer) {
+        readPages(SELECT_CHARGE, "charged_in_month", fromMonth, rs -> {
+            Charge charge = new Charge();
+            charge.setAccountId(rs.getString(1));
+            charge.setChargedInMonth(rs.getInt(2));
+            charge.setMonth1(rs.getInt(3));
+            charge.setMonth2(rs.getInt(4));
+            charge.setShortfall1(rs.getDouble(5));
+            charge.setShortfall2(rs.getDouble(6));
+            charge.setTotalShortfall(rs.getDouble(7));
+            charge.setBaseCharge(rs.getDouble(8));
+            charge.setGstAmount(rs.getDouble(9));
+            charge.setTotalCharge(rs.getDouble(10));
+            charge.setReason(rs.getString(11));
+            return charge;
+        }, Charge::getAccountId, Charge::getChargedInMonth, consumer);
+    }
+
+    @Override
+    public void addProbableDefaulters(Collection<ProbableDefaulter> records) {
+        Collection<ProbableDefaulter> stored = upsert("probable defaulters", records, ProbableDefaulter::getAccountId, ProbableDefaulter::getMonth,
+                UPDATE_PROBABLE, INSERT_PROBABLE, EXISTS_PROBABLE, (ps, pd, insert) -> {
+                    // UPDATE binds the values first, INSERT binds the key first
+                    int key = insert ? 1 : 4;
+                    int values = insert ? 3 : 1;
+                    ps.setString(key, pd.getAccountId());
+                    ps.setInt(key + 1, pd.getMonth());
+                    ps.setDouble(values, pd.getAmb());
+                    ps.setBoolean(values + 1, pd.isSmsSent());
+                    ps.setString(values + 2, pd.getReason());
+                });
+        index.upsertProbableDefaulters(stored);
+    }
+
+    @Override
+    public void addActualDefaulters(Collection<ActualDefaulter> records) {
+        Collection<ActualDefaulter> stored = upsert("actual defaulters", records, ActualDefaulter::getAccountId, ActualDefaulter::getMonth,
+                UPDATE_ACTUAL, INSERT_ACTUAL, EXISTS_ACTUAL, (ps, ad, insert) -> {
+                    int key = insert ? 1 : 4;
+                    int values = insert ? 3 : 1;
+                    ps.setString(key, ad.getAccountId());
+                    ps.setInt(key + 1, ad.getMonth());
+                    ps.setDouble(values, ad.getAmb());
+                    ps.setDouble(values + 1, ad.getShortfall());
+                    ps.setString(values + 2, ad.getStatus());
+                });
+        index.upsertActualDefaulters(stored);
+    }
+
+    @Override
+    public void addCharges(Collection<Charge> records) {
+        // Both statements list the values before the key
+        Collection<Charge> stored = upsert("charges", records, Charge::getAccountId, Charge::getChargedInMonth,
+                UPDATE_CHARGE, INSERT_CHARGE, EXISTS_CHARGE, (ps, charge, insert) -> {
+                    ps.setInt(1, charge.getMonth1());
+                    ps.setInt(2, charge.getMonth2());
+                    ps.setDouble(3, charge.getShortfall1());
+                    ps.setDouble(4, charge.getShortfall2());
+                    ps.setDouble(5, charge.getTotalShortfall());
+                    ps.setDouble(6, charge.getBaseCharge());
+                    ps.setDouble(7, charge.getGstAmount());
+                    ps.setDouble(8, charge.getTotalCharge());
+                    ps.setString(9, charge.getReason());
+                    ps.setString(10, charge.getAccountId());
+                    ps.setInt(11, charge.getChargedInMonth());
+                });
+        index.upsertCharges(stored);
+    }
+
+    /**
+     * Evicts from the in-memory index only; the rows stay in the database
+     */
+    @Override
+    public void evictBefore(int oldestMonth) {
+        index.evictBefore(oldestMonth);
+    }
+
+    @Override
+    public ProbableDefaulter findProbableDefaulter(int accountKey, int month) {
+        return index.findProbableDefaulter(accountKey, month);
+    }
+
+    @Override
+    public ActualDefaulter findActualDefaulter(int accountKey, int month) {
+        return index.findActualDefaulter(accountKey, month);
+    }
+
+    @Override
+    public Charge findCharge(int accountKey, int chargedInMonth) {
+        return index.findCharge(accountKey, chargedInMonth);
+    }
+
+    @Override
+    public AccountDictionary getAccountDictionary() {
+        return index.getAccountDictionary();
+    }
+
+    /**
+     * Active records loaded or added through this repository (not the whole table)
+     */
+    @Override
+    public List<ProbableDefaulter> getProbableDefaulters() {
+        return index.getProbableDefaulters();
+    }
+
+    @Override
+    public List<ActualDefaulter> getActualDefaulters() {
+        return index.getActualDefaulters();
+    }
+
+    @Override
+    public List<Charge> getCharges() {
+        return index.getCharges();
+    }
+
+    /**
+     * Delete every history row, in the database as well
+     */
+    @Override
+    public void clear() {
+        try (Connection connection = dataSource.getConnection()) {
+            inTransaction(connection, () -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM amb_probable_defaulter");
+                    statement.executeUpdate("DELETE FROM amb_actual_defaulter");
+                    statement.executeUpdate("DELETE FROM amb_charge");
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to clear defaulter history", e);
+        }
+        index.clear();
+    }
+
+    /**
+     * Write the records in one transaction; returns them with repeated keys
+     * collapsed to their last record, as they are now stored
+     */
+    private <T> Collection<T> upsert(String what, Collection<T> records, Function<T, String> accountId,
+                                     ToIntFunction<T> month, String updateSql, String insertSql,
+                                     String existsSql, Binder<T> binder) {
+        if (records.isEmpty()) {
+            return records;
+        }
+        // A key repeated within the call would make two inserts; keep its last record
+        Map<List<Object>, T> byKey = new LinkedHashMap<>();
+        for (T record : records) {
+            byKey.put(List.of(accountId.apply(record), month.applyAsInt(record)), record);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            inTransaction(connection, () -> {
+                try (PreparedStatement update = connection.prepareStatement(updateSql);
+                     PreparedStatement insert = connection.prepareStatement(insertSql);
+                     PreparedStatement exists = connection.prepareStatement(existsSql)) {
+                    List<T> batch = new ArrayList<>(batchSize);
+                    for (T record : byKey.values()) {
+                        batch.add(record);
+                        if (batch.size() == batchSize) {
+                            writeBatch(batch, update, insert, exists, accountId, month, binder);
+                            batch.clear();
+                        }
+                    }
+                    writeBatch(batch, update, insert, exists, accountId, month, binder);
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to store " + what, e);
+        }
+        return byKey.values();
+    }
+
+    private static <T> void writeBatch(List<T> batch, PreparedStatement update, PreparedStatement insert,
+                                       PreparedStatement exists, Function<T, String> accountId,
+                                       ToIntFunction<T> month, Binder<T> binder) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (T record : batch) {
+            binder.bind(update, record, false);
+            update.addBatch();
+        }
+        int[] updated = update.executeBatch();
+
+        boolean inserts = false;
+        for (int i = 0; i < updated.length; i++) {
+            // SUCCESS_NO_INFO says the statement ran, not whether it matched a row
+            boolean missing = updated[i] == Statement.SUCCESS_NO_INFO
+                    ? !rowExists(exists, accountId.apply(batch.get(i)), month.applyAsInt(batch.get(i)))
+                    : updated[i] == 0;
+            if (missing) {
+                binder.bind(insert, batch.get(i), true);
+                insert.addBatch();
+                inserts = true;
+            }
+        }
+        if (inserts) {
+            insert.executeBatch();
+        }
+    }
+
+    private static boolean rowExists(PreparedStatement exists, String accountId, int month) throws SQLException {
+        exists.setString(1, accountId);
+        exists.setInt(2, month);
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Keyset pagination: each page continues after the last (month, accountId) seen
+     */
+    private <T> void readPages(String selectSql, String monthColumn, int fromMonth, RowMapper<T> mapper,
+                               Function<T, String> accountId, ToIntFunction<T> month, Consumer<T> consumer) {
+        String order = " ORDER BY " + monthColumn + ", account_id FETCH FIRST " + pageSize + " ROWS ONLY";
+        String firstPage = selectSql + order;
+        String nextPage = selectSql + " AND (" + monthColumn + " > ? OR (" + monthColumn + " = ? AND account_id > ?))"
+                + order;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement first = connection.prepareStatement(firstPage);
+             PreparedStatement next = connection.prepareStatement(nextPage)) {
+            first.setInt(1, fromMonth);
+            PreparedStatement page = first;
+            while (true) {
+                page.setFetchSize(pageSize);
+                T last = null;
+                int rows = 0;
+                try (ResultSet rs = page.executeQuery()) {
+                    while (rs.next()) {
+                        last = mapper.map(rs);
+                        consumer.accept(last);
+                        rows++;
+                    }
+                }
+                if (rows < pageSize) {
+                    return;
+                }
+                next.setInt(1, fromMonth);
+                next.setInt(2, month.applyAsInt(last));
+                next.setInt(3, month.applyAsInt(last));
+                next.setString(4, accountId.apply(last));
+                page = next;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read defaulter history", e);
+        }
+    }
+
+    private static void inTransaction(Connection connection, SqlWork work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        /**
+         * Bind a record to the UPDATE (insert = false) or INSERT statement
+         */
+        void bind(PreparedStatement statement, T record, boolean insert) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+}
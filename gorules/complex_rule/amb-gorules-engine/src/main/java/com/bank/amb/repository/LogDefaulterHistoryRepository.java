@@ -0,0 +1,680 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable history: an append-only binary log in front of the in-memory index.
+ *
+ * Every add call encodes its records into CRC-checked frames and writes
+ * them to the current log segment in large buffered FileChannel writes,
+ * followed by a single force, before the index is updated. Segments roll
+ * over at {@code segmentBytes}. After {@code snapshotEveryRecords} appended
+ * records (or on {@link #snapshot()}) the active window is written to one
+ * snapshot file and the segments it covers are deleted.
+ *
+ * Evicted records are appended to an archive file in the same frame format
+ * (see {@link #readArchive(HistoryArchive)}), followed by a snapshot, so
+ * neither memory nor snapshots grow with the length of the history. The
+ * snapshot header records the archive length it belongs to; archive bytes
+ * past it were written by an eviction whose snapshot never landed, and are
+ * cut off on open because those records are still in the replayed window.
+ *
+ * On open the snapshot and the remaining segments are replayed through
+ * memory-mapped reads. An invalid frame that runs to the end of the last
+ * segment, as one cut short by a crash does, is dropped; corruption
+ * anywhere else fails the open. A failed add cuts the segment back to where
+ * it started, so the log holds exactly the records of successful adds.
+ *
+ * Not thread-safe, like {@link InMemoryDefaulterHistoryRepository}.
+ */
+public class LogDefaulterHistoryRepository implements DefaulterHistoryRepository, AutoCloseable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    public static final long DEFAULT_SNAPSHOT_EVERY_RECORDS = 1_000_000;
+
+    static final String SNAPSHOT_FILE = "snapshot.bin";
+    static final String ARCHIVE_FILE = "archive.log";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int MAGIC = 0x414D424C; // "AMBL"
+    private static final int FORMAT_VERSION = 2; // 2: archive length in the header
+    // magic, version, segment number (for a snapshot: the last segment it covers),
+    // archive length (for a snapshot: the archive bytes written before it, otherwise 0)
+    private static final int FILE_HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+    // payload length, CRC32 of the payload
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final int WRITE_BUFFER_BYTES = 4 << 20;
+    private static final long MAP_WINDOW_BYTES = 64L << 20;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long snapshotEveryRecords;
+    private final InMemoryDefaulterHistoryRepository index =
+            new InMemoryDefaulterHistoryRepository(new AccountDictionary(), this::appendToArchive);
+
+    private final ByteBuffer frame = ByteBuffer.allocate(MAX_FRAME_BYTES);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel segment;
+    private long segmentNumber;
+    private long recordsSinceSnapshot;
+    // Valid length of the archive file, 0 while there is none
+    private long archiveBytes;
+    private boolean archivedSinceSnapshot;
+    private boolean closed;
+
+    private LogDefaulterHistoryRepository(Path directory, long segmentBytes, long snapshotEveryRecords) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+    }
+
+    public static LogDefaulterHistoryRepository open(Path directory) {
+        return open(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_SNAPSHOT_EVERY_RECORDS);
+    }
+
+    /**
+     * Open the history in a directory, creating it if needed, and rebuild the index
+     * from the latest snapshot plus every log segment written after it.
+     */
+    public static LogDefaulterHistoryRepository open(Path directory, long segmentBytes, long snapshotEveryRecords) {
+        if (segmentBytes <= 0 || snapshotEveryRecords <= 0) {
+            throw new IllegalArgumentException("segmentBytes and snapshotEveryRecords must be positive");
+        }
+        LogDefaulterHistoryRepository repository =
+                new LogDefaulterHistoryRepository(directory, segmentBytes, snapshotEveryRecords);
+        try {
+            Files.createDirectories(directory);
+            long covered = 0;
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                covered = repository.replay(snapshot, false);
+            }
+            repository.trimArchive();
+
+            List<Long> numbers = listSegments(directory);
+            long last = covered;
+            for (int i = 0; i < numbers.size(); i++) {
+                long number = numbers.get(i);
+                if (number <= covered) {
+                    // Left behind by a crash between writing a snapshot and deleting its segments
+                    Files.delete(segmentPath(directory, number));
+                    continue;
+                }
+                repository.replay(segmentPath(directory, number), i == numbers.size() - 1);
+                last = number;
+            }
+
+            repository.segmentNumber = last + 1;
+            repository.segment = repository.createSegment(repository.segmentNumber);
+            return repository;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open defaulter history in " + directory, e);
+        }
+    }
+
+    @Override
+    public void addProbableDefaulters(Collection<ProbableDefaulter> records) {
+        checkOpen();
+        long start = segmentPosition();
+        try {
+            for (ProbableDefaulter pd : records) {
+                reserve(segment, HistoryRecordCodec.maxSize(pd));
+                HistoryRecordCodec.write(frame, pd);
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            throw discardPartialWrite(start, "probable defaulters", e);
+        }
+        recordsSinceSnapshot += records.size();
+        index.addProbableDefaulters(records);
+        rollIfFull();
+        snapshotIfDue();
+    }
+
+    @Override
+    public void addActualDefaulters(Collection<ActualDefaulter> records) {
+        checkOpen();
+        long start = segmentPosition();
+        try {
+            for (ActualDefaulter ad : records) {
+                reserve(segment, HistoryRecordCodec.maxSize(ad));
+                HistoryRecordCodec.write(frame, ad);
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            throw discardPartialWrite(start, "actual defaulters", e);
+        }
+        recordsSinceSnapshot += records.size();
+        index.addActualDefaulters(records);
+        rollIfFull();
+        snapshotIfDue();
+    }
+
+    @Override
+    public void addCharges(Collection<Charge> records) {
+        checkOpen();
+        long start = segmentPosition();
+        try {
+            for (Charge charge : records) {
+                reserve(segment, HistoryRecordCodec.maxSize(charge));
+                HistoryRecordCodec.write(frame, charge);
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            throw discardPartialWrite(start, "charges", e);
+        }
+        recordsSinceSnapshot += records.size();
+        index.addCharges(records);
+        rollIfFull();
+        snapshotIfDue();
+    }
+
+    /**
+     * Appends the evicted records to the archive file, then snapshots the
+     * remaining window so the log no longer replays them
+     */
+    @Override
+    public void evictBefore(int oldestMonth) {
+        checkOpen();
+        index.evictBefore(oldestMonth);
+        if (archivedSinceSnapshot) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Hand every archived record, oldest eviction first, to the given archive
+     */
+    public void readArchive(HistoryArchive into) {
+        checkOpen();
+        List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+        List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+        if (archiveBytes > 0) {
+            Path file = directory.resolve(ARCHIVE_FILE);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                readHeader(channel, file);
+                long validEnd = readFrames(channel, archiveBytes, probableDefaulters, actualDefaulters, charges);
+                if (validEnd < archiveBytes) {
+                    throw new IOException("Corrupt frame at offset " + validEnd + " in " + file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read defaulter history archive in " + directory, e);
+            }
+        }
+        into.archive(probableDefaulters, actualDefaulters, charges);
+    }
+
+    @Override
+    public ProbableDefaulter findProbableDefaulter(int accountKey, int month) {
+        return index.findProbableDefaulter(accountKey, month);
+    }
+
+    @Override
+    public ActualDefaulter findActualDefaulter(int accountKey, int month) {
+        return index.findActualDefaulter(accountKey, month);
+    }
+
+    @Override
+    public Charge findCharge(int accountKey, int chargedInMonth) {
+        return index.findCharge(accountKey, chargedInMonth);
+    }
+
+    @Override
+    public AccountDictionary getAccountDictionary() {
+        return index.getAccountDictionary();
+    }
+
+    @Override
+    public List<ProbableDefaulter> getProbableDefaulters() {
+        return index.getProbableDefaulters();
+    }
+
+    @Override
+    public List<ActualDefaulter> getActualDefaulters() {
+        return index.getActualDefaulters();
+    }
+
+    @Override
+    public List<Charge> getCharges() {
+        return index.getCharges();
+    }
+
+    /**
+     * Forget the whole history, on disk as well
+     */
+    @Override
+    public void clear() {
+        checkOpen();
+        try {
+            segment.close();
+            for (long number : listSegments(directory)) {
+                Files.delete(segmentPath(directory, number));
+            }
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+            Files.deleteIfExists(directory.resolve(ARCHIVE_FILE));
+            index.clear();
+            recordsSinceSnapshot = 0;
+            archiveBytes = 0;
+            segmentNumber = 1;
+            segment = createSegment(segmentNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear defaulter history in " + directory, e);
+        }
+    }
+
+    /**
+     * Write the active window to a new snapshot and delete the log segments it replaces
+     */
+    public void snapshot() {
+        checkOpen();
+        try {
+            long covered = segmentNumber;
+            rollSegment();
+
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeHeader(out, covered, archiveBytes);
+                for (ProbableDefaulter pd : index.getProbableDefaulters()) {
+                    reserve(out, HistoryRecordCodec.maxSize(pd));
+                    HistoryRecordCodec.write(frame, pd);
+                }
+                for (ActualDefaulter ad : index.getActualDefaulters()) {
+                    reserve(out, HistoryRecordCodec.maxSize(ad));
+                    HistoryRecordCodec.write(frame, ad);
+                }
+                for (Charge charge : index.getCharges()) {
+                    reserve(out, HistoryRecordCodec.maxSize(charge));
+                    HistoryRecordCodec.write(frame, charge);
+                }
+                closeFrame(out);
+                flush(out);
+                out.force(true);
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (long number : listSegments(directory)) {
+                if (number <= covered) {
+                    Files.delete(segmentPath(directory, number));
+                }
+            }
+            recordsSinceSnapshot = 0;
+            archivedSinceSnapshot = false;
+        } catch (IOException | RuntimeException e) {
+            clearBuffers();
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("Failed to snapshot defaulter history in " + directory, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Records appended to the log since the last snapshot
+     */
+    public long getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            segment.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close defaulter history in " + directory, e);
+        }
+    }
+
+    private void commit() throws IOException {
+        if (frame.position() == 0 && writeBuffer.position() == 0) {
+            return;
+        }
+        closeFrame(segment);
+        flush(segment);
+        segment.force(false);
+    }
+
+    private long segmentPosition() {
+        try {
+            return segment.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read log position in " + directory, e);
+        }
+    }
+
+    /**
+     * Undo a failed add: drop whatever is still buffered and cut the segment
+     * back to where the add started, so the records are neither replayed later
+     * nor prefixed to the next add's frames
+     */
+    private RuntimeException discardPartialWrite(long start, String what, Exception cause) {
+        clearBuffers();
+        try {
+            segment.truncate(start);
+            segment.position(start);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        if (cause instanceof IOException) {
+            return new UncheckedIOException("Failed to log " + what + " in " + directory, (IOException) cause);
+        }
+        return (RuntimeException) cause;
+    }
+
+    private void clearBuffers() {
+        frame.clear();
+        writeBuffer.clear();
+    }
+
+    private void rollIfFull() {
+        try {
+            if (segment.size() >= segmentBytes) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll log segment in " + directory, e);
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (recordsSinceSnapshot >= snapshotEveryRecords) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Make room for a record of up to size bytes in the current frame
+     */
+    private void reserve(FileChannel out, int size) throws IOException {
+        if (size > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("History record of " + size + " bytes exceeds the frame size");
+        }
+        if (frame.remaining() < size) {
+            closeFrame(out);
+        }
+    }
+
+    private void closeFrame(FileChannel out) throws IOException {
+        if (frame.position() == 0) {
+            return;
+        }
+        frame.flip();
+        crc.reset();
+        crc.update(frame.array(), 0, frame.limit());
+        if (writeBuffer.remaining() < FRAME_HEADER_BYTES + frame.limit()) {
+            flush(out);
+        }
+        writeBuffer.putInt(frame.limit());
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.put(frame);
+        frame.clear();
+    }
+
+    private void flush(FileChannel out) throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            out.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        segment.close();
+        segmentNumber++;
+        segment = createSegment(segmentNumber);
+    }
+
+    private FileChannel createSegment(long number) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(directory, number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        writeHeader(channel, number, 0);
+        channel.force(true);
+        return channel;
+    }
+
+    private void writeHeader(FileChannel out, long number, long archiveLength) throws IOException {
+        writeBuffer.putInt(MAGIC);
+        writeBuffer.putInt(FORMAT_VERSION);
+        writeBuffer.putLong(number);
+        writeBuffer.putLong(archiveLength);
+        flush(out);
+    }
+
+    /**
+     * Index callback: append evicted records to the archive file and force it
+     */
+    private void appendToArchive(List<ProbableDefaulter> probableDefaulters,
+                                 List<ActualDefaulter> actualDefaulters,
+                                 List<Charge> charges) {
+        try (FileChannel out = FileChannel.open(directory.resolve(ARCHIVE_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            if (archiveBytes == 0) {
+                out.truncate(0);
+                writeHeader(out, 0, 0);
+            } else {
+                out.position(archiveBytes);
+            }
+            for (ProbableDefaulter pd : probableDefaulters) {
+                reserve(out, HistoryRecordCodec.maxSize(pd));
+                HistoryRecordCodec.write(frame, pd);
+            }
+            for (ActualDefaulter ad : actualDefaulters) {
+                reserve(out, HistoryRecordCodec.maxSize(ad));
+                HistoryRecordCodec.write(frame, ad);
+            }
+            for (Charge charge : charges) {
+                reserve(out, HistoryRecordCodec.maxSize(charge));
+                HistoryRecordCodec.write(frame, charge);
+            }
+            closeFrame(out);
+            flush(out);
+            out.force(false);
+            archiveBytes = out.position();
+            archivedSinceSnapshot = true;
+        } catch (IOException | RuntimeException e) {
+            // archiveBytes still marks the end of the last complete append
+            clearBuffers();
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("Failed to archive defaulter history in " + directory, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Cut the archive back to the length the snapshot recorded
+     */
+    private void trimArchive() throws IOException {
+        Path file = directory.resolve(ARCHIVE_FILE);
+        if (!Files.exists(file)) {
+            if (archiveBytes > 0) {
+                throw new IOException("Archive " + file + " is missing, snapshot expects " + archiveBytes + " bytes");
+            }
+            return;
+        }
+        if (archiveBytes == 0) {
+            Files.delete(file);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() < archiveBytes) {
+                throw new IOException("Archive holds " + channel.size() + " bytes, snapshot expects " + archiveBytes);
+            }
+            channel.truncate(archiveBytes);
+        }
+    }
+
+    /**
+     * Check the magic and version of a log file; returns its header
+     */
+    private static ByteBuffer readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Read the whole header
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new IOException("Not a defaulter history file (or unsupported version): " + file);
+        }
+        return header;
+    }
+
+    /**
+     * Add every frame in a snapshot or segment file to the index; returns the number in its header.
+     * Replaying the snapshot also restores the archive length, replaying a
+     * segment counts its records towards the next snapshot.
+     */
+    private long replay(Path file, boolean lastSegment) throws IOException {
+        List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+        List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+        boolean snapshot = file.getFileName().toString().equals(SNAPSHOT_FILE);
+        long number;
+        long validEnd;
+        long size;
+        boolean tornTail;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size < FILE_HEADER_BYTES) {
+                if (lastSegment) {
+                    // Crashed while creating the segment
+                    Files.delete(file);
+                    return 0;
+                }
+                throw new IOException("Truncated header in " + file);
+            }
+            ByteBuffer header = readHeader(channel, file);
+            number = header.getLong(2 * Integer.BYTES);
+            if (snapshot) {
+                archiveBytes = header.getLong(2 * Integer.BYTES + Long.BYTES);
+            }
+            validEnd = readFrames(channel, size, probableDefaulters, actualDefaulters, charges);
+            tornTail = validEnd < size && lastSegment && reachesEnd(channel, validEnd, size);
+        }
+
+        if (validEnd < size) {
+            if (!tornTail) {
+                throw new IOException("Corrupt frame at offset " + validEnd + " in " + file);
+            }
+            // Torn write at the tail of the log: the add call never returned, drop it
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        }
+
+        index.addProbableDefaulters(probableDefaulters);
+        index.addActualDefaulters(actualDefaulters);
+        index.addCharges(charges);
+        if (!snapshot) {
+            recordsSinceSnapshot += probableDefaulters.size() + actualDefaulters.size() + charges.size();
+        }
+        return number;
+    }
+
+    /**
+     * Whether the invalid frame at position runs to the end of the file, as a
+     * write cut short by a crash does; a bad frame followed by more data is corruption
+     */
+    private static boolean reachesEnd(FileChannel channel, long position, long size) throws IOException {
+        if (position + FRAME_HEADER_BYTES > size) {
+            return true;
+        }
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (length.hasRemaining() && channel.read(length, position + length.position()) > 0) {
+            // Read the whole length field
+        }
+        int frameBytes = length.getInt(0);
+        return frameBytes > 0 && frameBytes <= MAX_FRAME_BYTES && position + FRAME_HEADER_BYTES + frameBytes >= size;
+    }
+
+    /**
+     * Decode the frames between the header and end through memory-mapped windows;
+     * returns the offset after the last valid frame
+     */
+    private long readFrames(FileChannel channel, long end, List<ProbableDefaulter> probableDefaulters,
+                            List<ActualDefaulter> actualDefaulters, List<Charge> charges) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(end, MAP_WINDOW_BYTES));
+        long windowStart = 0;
+        long position = FILE_HEADER_BYTES;
+        while (position + FRAME_HEADER_BYTES <= end) {
+            if (position + FRAME_HEADER_BYTES + MAX_FRAME_BYTES > windowStart + window.capacity()
+                    && windowStart + window.capacity() < end) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(end - windowStart, MAP_WINDOW_BYTES));
+            }
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int checksum = window.getInt(offset + Integer.BYTES);
+            if (length <= 0 || length > MAX_FRAME_BYTES || position + FRAME_HEADER_BYTES + length > end) {
+                break;
+            }
+            ByteBuffer payload = window.duplicate();
+            payload.limit(offset + FRAME_HEADER_BYTES + length).position(offset + FRAME_HEADER_BYTES);
+            payload = payload.slice();
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            HistoryRecordCodec.readAll(payload, probableDefaulters, actualDefaulters, charges);
+            position += FRAME_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Defaulter history in " + directory + " is closed");
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.bank.amb.service;
 
 import com.bank.amb.engine.AMBRulesEngine;
 import com.bank.amb.model.*;
+import com.bank.amb.repository.DefaulterHistoryRepository;
+import com.bank.amb.repository.InMemoryDefaulterHistoryRepository;
+import com.bank.amb.repository.InMemoryHistoryArchive;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,18 +15,49 @@ import java.util.List;
  */
 public class AMBService {
 
+    // The rules look back to currentMonth - 2, so three months stay active
+    public static final int DEFAULT_WINDOW_MONTHS = 3;
+
     private final AMBRulesEngine rulesEngine;
 
-    // In-memory storage (in production, use database)
-    private List<ProbableDefaulter> probableDefaultersDB;
-    private List<ActualDefaulter> actualDefaultersDB;
-    private List<Charge> chargesDB;
+    // Indexed history shared with the engine (in-memory unless another repository is given)
+    private final DefaulterHistoryRepository history;
+
+    // Months of history the engine can see; older records are evicted before each run
+    private final int windowMonths;
+
+    // Evicted records kept for the report, null when the history archives them elsewhere
+    private final InMemoryHistoryArchive reportArchive;
+
+    // Whether the stored window has been read into the history (once, before the first run)
+    private boolean windowLoaded;
 
     public AMBService() {
+        this(new InMemoryHistoryArchive());
+    }
+
+    private AMBService(InMemoryHistoryArchive reportArchive) {
+        this(new InMemoryDefaulterHistoryRepository(new AccountDictionary(), reportArchive),
+                DEFAULT_WINDOW_MONTHS, reportArchive);
+    }
+
+    public AMBService(DefaulterHistoryRepository history) {
+        this(history, DEFAULT_WINDOW_MONTHS);
+    }
+
+    public AMBService(DefaulterHistoryRepository history, int windowMonths) {
+        this(history, windowMonths, null);
+    }
+
+    private AMBService(DefaulterHistoryRepository history, int windowMonths, InMemoryHistoryArchive reportArchive) {
+        if (windowMonths < DEFAULT_WINDOW_MONTHS) {
+            throw new IllegalArgumentException("windowMonths must be at least " + DEFAULT_WINDOW_MONTHS
+                    + " (the rules look back two months), got " + windowMonths);
+        }
         this.rulesEngine = new AMBRulesEngine();
-        this.probableDefaultersDB = new ArrayList<>();
-        this.actualDefaultersDB = new ArrayList<>();
-        this.chargesDB = new ArrayList<>();
+        this.history = history;
+        this.windowMonths = windowMonths;
+        this.reportArchive = reportArchive;
     }
 
     /**
@@ -36,17 +70,12 @@ public class AMBService {
         System.out.println("╚═══════════════════════════════════════════════════════════╝\n");
 
         ExecutionContext context = new ExecutionContext(25, currentMonth, minBalance);
+        prepareWindow(currentMonth);
 
-        AMBRulesEngine.RuleExecutionResult result = rulesEngine.executeRules(
-                accounts,
-                probableDefaultersDB,
-                actualDefaultersDB,
-                chargesDB,
-                context
-        );
+        AMBRulesEngine.RuleExecutionResult result = rulesEngine.executeRules(accounts, history, context);
 
         // Store results
-        probableDefaultersDB.addAll(result.getProbableDefaulters());
+        history.addProbableDefaulters(result.getProbableDefaulters());
     }
 
     /**
@@ -59,39 +88,55 @@ public class AMBService {
         System.out.println("╚═══════════════════════════════════════════════════════════╝\n");
 
         ExecutionContext context = new ExecutionContext(3, currentMonth, minBalance);
+        prepareWindow(currentMonth);
 
-        AMBRulesEngine.RuleExecutionResult result = rulesEngine.executeRules(
-                accounts,
-                probableDefaultersDB,
-                actualDefaultersDB,
-                chargesDB,
-                context
-        );
+        AMBRulesEngine.RuleExecutionResult result = rulesEngine.executeRules(accounts, history, context);
 
         // Store results
-        actualDefaultersDB.addAll(result.getActualDefaulters());
-        chargesDB.addAll(result.getCharges());
+        history.addActualDefaulters(result.getActualDefaulters());
+        history.addCharges(result.getCharges());
+    }
+
+    /**
+     * Bring the history to the window ending at currentMonth. The first run
+     * loads the window from the history's store, so a restarted service sees
+     * the records earlier runs stored; later runs only evict what fell out.
+     */
+    private void prepareWindow(int currentMonth) {
+        int oldestMonth = currentMonth - windowMonths + 1;
+        if (!windowLoaded) {
+            history.load(oldestMonth);
+            windowLoaded = true;
+        }
+        history.evictBefore(oldestMonth);
+    }
+
+    public int getWindowMonths() {
+        return windowMonths;
     }
 
     /**
-     * Get all probable defaulters
+     * Get all probable defaulters (of the active window only when the history was passed in)
      */
     public List<ProbableDefaulter> getProbableDefaulters() {
-        return new ArrayList<>(probableDefaultersDB);
+        return reportArchive == null ? history.getProbableDefaulters()
+                : withArchived(reportArchive.getProbableDefaulters(), history.getProbableDefaulters());
     }
 
     /**
-     * Get all actual defaulters
+     * Get all actual defaulters (of the active window only when the history was passed in)
      */
     public List<ActualDefaulter> getActualDefaulters() {
-        return new ArrayList<>(actualDefaultersDB);
+        return reportArchive == null ? history.getActualDefaulters()
+                : withArchived(reportArchive.getActualDefaulters(), history.getActualDefaulters());
     }
 
     /**
-     * Get all charges
+     * Get all charges (of the active window only when the history was passed in)
      */
     public List<Charge> getCharges() {
-        return new ArrayList<>(chargesDB);
+        return reportArchive == null ? history.getCharges()
+                : withArchived(reportArchive.getCharges(), history.getCharges());
     }
 
     /**
@@ -103,13 +148,17 @@ public class AMBService {
         System.out.println("║                    COMPLETE REPORT                        ║");
         System.out.println("╚═══════════════════════════════════════════════════════════╝");
 
+        List<ProbableDefaulter> probableDefaulters = getProbableDefaulters();
+        List<ActualDefaulter> actualDefaulters = getActualDefaulters();
+        List<Charge> charges = getCharges();
+
         // Probable Defaulters
-        System.out.println("\n📋 PROBABLE DEFAULTERS (" + probableDefaultersDB.size() + "):");
+        System.out.println("\n📋 PROBABLE DEFAULTERS (" + probableDefaulters.size() + "):");
         System.out.println("─".repeat(70));
-        if (probableDefaultersDB.isEmpty()) {
+        if (probableDefaulters.isEmpty()) {
             System.out.println("  No probable defaulters found.");
         } else {
-            for (ProbableDefaulter pd : probableDefaultersDB) {
+            for (ProbableDefaulter pd : probableDefaulters) {
                 System.out.printf("  • Account: %-15s | Month: %2d | AMB: ₹%-10.2f | SMS: %s%n",
                         pd.getAccountId(), pd.getMonth(), pd.getAmb(),
                         pd.isSmsSent() ? "✓" : "✗");
@@ -117,25 +166,25 @@ public class AMBService {
         }
 
         // Actual Defaulters
-        System.out.println("\n⚠️  ACTUAL DEFAULTERS (" + actualDefaultersDB.size() + "):");
+        System.out.println("\n⚠️  ACTUAL DEFAULTERS (" + actualDefaulters.size() + "):");
         System.out.println("─".repeat(70));
-        if (actualDefaultersDB.isEmpty()) {
+        if (actualDefaulters.isEmpty()) {
             System.out.println("  No actual defaulters found.");
         } else {
-            for (ActualDefaulter ad : actualDefaultersDB) {
+            for (ActualDefaulter ad : actualDefaulters) {
                 System.out.printf("  • Account: %-15s | Month: %2d | AMB: ₹%-10.2f | Shortfall: ₹%-10.2f%n",
                         ad.getAccountId(), ad.getMonth(), ad.getAmb(), ad.getShortfall());
             }
         }
 
         // Charges
-        System.out.println("\n💰 CHARGES APPLIED (" + chargesDB.size() + "):");
+        System.out.println("\n💰 CHARGES APPLIED (" + charges.size() + "):");
         System.out.println("─".repeat(70));
-        if (chargesDB.isEmpty()) {
+        if (charges.isEmpty()) {
             System.out.println("  No charges applied.");
         } else {
             double totalCharges = 0.0;
-            for (Charge charge : chargesDB) {
+            for (Charge charge : charges) {
                 System.out.printf("  • Account: %-15s | Months: %d+%d | Charge: ₹%-10.2f%n",
                         charge.getAccountId(), charge.getMonth1(), charge.getMonth2(),
                         charge.getTotalCharge());
@@ -152,8 +201,16 @@ public class AMBService {
      * Clear all data (for testing)
      */
     public void clearAllData() {
-        probableDefaultersDB.clear();
-        actualDefaultersDB.clear();
-        chargesDB.clear();
+        history.clear();
+        if (reportArchive != null) {
+            reportArchive.clear();
+        }
+    }
+
+    private static <T> List<T> withArchived(List<T> archived, List<T> active) {
+        List<T> all = new ArrayList<>(archived.size() + active.size());
+        all.addAll(archived);
+        all.addAll(active);
+        return all;
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the per-account defaulter status bitmap
+ */
+class DefaulterStatusBitmapTest {
+
+    @Test
+    @DisplayName("Prior-month predicates match the record-based repository")
+    void testMatchesRepository() {
+        InMemoryDefaulterHistoryRepository history = new InMemoryDefaulterHistoryRepository();
+        history.addProbableDefaulters(List.of(
+                new ProbableDefaulter("ACC0", 1, 8000.0, true, "Below minimum"),
+                new ProbableDefaulter("ACC1", 2, 9000.0, true, "Below minimum")));
+        history.addActualDefaulters(List.of(
+                new ActualDefaulter("ACC0", 1, 8000.0, 2000.25, "Defaulter"),
+                new ActualDefaulter("ACC0", 2, 7000.0, 3000.0, "Defaulter"),
+                new ActualDefaulter("ACC1", 2, 9000.0, 1000.0, "Defaulter")));
+        Charge charge = new Charge();
+        charge.setAccountId("ACC0");
+        charge.setChargedInMonth(3);
+        history.addCharges(List.of(charge));
+
+        DefaulterStatusBitmap bitmap = DefaulterStatusBitmap.of(history, 3);
+        AccountDictionary accounts = history.getAccountDictionary();
+
+        for (int i = 0; i < 3; i++) {
+            String id = "ACC" + i;
+            int key = accounts.lookup(id);
+            for (int month = 0; month <= 4; month++) {
+                assertEquals(history.isProbableDefaulter(id, month), bitmap.isProbableDefaulter(key, month));
+                assertEquals(history.isActualDefaulter(id, month), bitmap.isActualDefaulter(key, month));
+                assertEquals(history.isCharged(id, month), bitmap.isCharged(key, month));
+                assertEquals(history.getShortfall(id, month), bitmap.getShortfall(key, month), 0.001);
+            }
+        }
+        int acc0 = accounts.lookup("ACC0");
+        assertTrue(bitmap.hasConsecutiveDefaults(acc0, 3));
+        assertFalse(bitmap.hasConsecutiveDefaults(accounts.lookup("ACC1"), 3));
+        assertTrue(bitmap.isChargedBetween(acc0, 2, 3));
+        assertFalse(bitmap.isChargedBetween(acc0, 1, 2));
+        assertEquals(3, bitmap.getLatestMonth());
+    }
+
+    @Test
+    @DisplayName("Records after the current month are left out of the window")
+    void testWindowEndsAtCurrentMonth() {
+        InMemoryDefaulterHistoryRepository history = new InMemoryDefaulterHistoryRepository();
+        history.addActualDefaulters(List.of(
+                new ActualDefaulter("ACC0", 1, 8000.0, 2000.0, "Defaulter"),
+                new ActualDefaulter("ACC0", 4, 7000.0, 3000.0, "Defaulter")));
+
+        DefaulterStatusBitmap bitmap = DefaulterStatusBitmap.of(history, 2);
+        assertEquals(2, bitmap.getLatestMonth());
+        assertTrue(bitmap.isActualDefaulter(0, 1));
+        assertFalse(bitmap.isActualDefaulter(0, 4));
+    }
+
+    @Test
+    @DisplayName("Months older than the window are dropped as later months arrive")
+    void testSlidingWindow() {
+        DefaulterStatusBitmap bitmap = new DefaulterStatusBitmap(1);
+        bitmap.markActualDefaulter(0, 1, 500.0);
+        bitmap.markProbableDefaulter(5, 2);
+
+        assertEquals(8, bitmap.getCapacity());
+        assertTrue(bitmap.isActualDefaulter(0, 1));
+        assertTrue(bitmap.isProbableDefaulter(5, 2));
+        assertFalse(bitmap.isProbableDefaulter(4, 2));
+
+        bitmap.markProbableDefaulter(0, 1 + DefaulterStatusBitmap.WINDOW_MONTHS - 1);
+        assertTrue(bitmap.isActualDefaulter(0, 1));
+        assertEquals(500.0, bitmap.getShortfall(0, 1), 0.001);
+
+        bitmap.markProbableDefaulter(0, 1 + DefaulterStatusBitmap.WINDOW_MONTHS);
+        assertFalse(bitmap.isActualDefaulter(0, 1));
+        assertEquals(0.0, bitmap.getShortfall(0, 1), 0.001);
+        assertTrue(bitmap.isProbableDefaulter(5, 2));
+
+        // Too old to be kept
+        bitmap.markCharged(0, 1);
+        assertFalse(bitmap.isCharged(0, 1));
+    }
+
+    @Test
+    @DisplayName("Shortfalls follow the window and the first record of a month wins")
+    void testShortfalls() {
+        DefaulterStatusBitmap bitmap = new DefaulterStatusBitmap(1);
+        bitmap.markActualDefaulter(0, 1, 100.0);
+        bitmap.markActualDefaulter(0, 2, 200.0);
+        bitmap.markActualDefaulter(0, 2, 250.0);
+        bitmap.markActualDefaulter(0, 3, 300.0);
+        assertEquals(100.0, bitmap.getShortfall(0, 1), 0.001);
+        assertEquals(200.0, bitmap.getShortfall(0, 2), 0.001);
+        assertTrue(bitmap.hasConsecutiveDefaults(0, 3));
+        assertTrue(bitmap.hasConsecutiveDefaults(0, 4));
+
+        // Month 4 takes month 1's slot once month 1 has left the window
+        bitmap.markActualDefaulter(0, 4, 400.0);
+        assertEquals(0.0, bitmap.getShortfall(0, 1), 0.001);
+        assertEquals(400.0, bitmap.getShortfall(0, 4), 0.001);
+        assertEquals(300.0, bitmap.getShortfall(0, 3), 0.001);
+    }
+
+    @Test
+    @DisplayName("Neighbouring accounts in one word keep their own flags and shortfalls")
+    void testManyAccounts() {
+        int accounts = 10_000;
+        DefaulterStatusBitmap bitmap = new DefaulterStatusBitmap(accounts);
+        for (int key = 0; key < accounts; key++) {
+            if (key % 3 == 0) {
+                bitmap.markActualDefaulter(key, 5, key);
+            }
+            if (key % 2 == 0) {
+                bitmap.markProbableDefaulter(key, 6);
+            }
+        }
+        bitmap.markCharged(7, 6);
+
+        for (int key = 0; key < accounts; key++) {
+            assertEquals(key % 3 == 0, bitmap.isActualDefaulter(key, 5));
+            assertEquals(key % 3 == 0 ? key : 0.0, bitmap.getShortfall(key, 5), 0.001);
+            assertEquals(key % 2 == 0, bitmap.isProbableDefaulter(key, 6));
+            assertEquals(key == 7, bitmap.isCharged(key, 6));
+        }
+        assertEquals(accounts, bitmap.getCapacity());
+        assertTrue(bitmap.getMemoryBytes() < accounts * 16L);
+    }
+}
@@ -0,0 +1,168 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the (accountId, month) indexed defaulter history
+ */
+class InMemoryDefaulterHistoryRepositoryTest {
+
+    @Test
+    @DisplayName("Lookups are keyed by account and month")
+    void testLookupByAccountAndMonth() {
+        InMemoryDefaulterHistoryRepository history = new InMemoryDefaulterHistoryRepository();
+        history.addProbableDefaulters(List.of(new ProbableDefaulter("ACC001", 2, 8000.0, true, "Below minimum")));
+        history.addActualDefaulters(List.of(
+                new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Defaulter"),
+                new ActualDefaulter("ACC002", 1, 9000.0, 1000.0, "Defaulter")));
+        history.addCharges(List.of(charge("ACC001", 3)));
+
+        assertTrue(history.isProbableDefaulter("ACC001", 2));
+        assertFalse(history.isProbableDefaulter("ACC001", 1));
+        assertFalse(history.isProbableDefaulter("ACC002", 2));
+
+        assertTrue(history.isActualDefaulter("ACC002", 1));
+        assertFalse(history.isActualDefaulter("ACC002", 2));
+        assertEquals(2000.0, history.getShortfall("ACC001", 1), 0.001);
+        assertEquals(0.0, history.getShortfall("ACC003", 1), 0.001);
+
+        assertTrue(history.isCharged("ACC001", 3));
+        assertNull(history.findCharge("ACC001", 4));
+    }
+
+    @Test
+    @DisplayName("First record wins on a repeated key, every record is kept")
+    void testFirstRecordWins() {
+        InMemoryDefaulterHistoryRepository history = new InMemoryDefaulterHistoryRepository();
+        history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Defaulter")));
+        history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 7000.0, 3000.0, "Defaulter")));
+
+        assertEquals(2000.0, history.getShortfall("ACC001", 1), 0.001);
+        assertEquals(2, history.getActualDefaulters().size());
+
+        history.clear();
+        assertFalse(history.isActualDefaulter("ACC001", 1));
+        assertTrue(history.getActualDefaulters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Upserting a held record again, or a chain back to it, keeps one record")
+    void testRepeatedUpsert() {
+        InMemoryDefaulterHistoryRepository history = new InMemoryDefaulterHistoryRepository();
+        ActualDefaulter first = new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Defaulter");
+        ActualDefaulter second = new ActualDefaulter("ACC001", 1, 7000.0, 3000.0, "Defaulter");
+        ActualDefaulter third = new ActualDefaulter("ACC001", 1, 6000.0, 4000.0, "Defaulter");
+        history.upsertActualDefaulters(List.of(first, first));
+        history.upsertActualDefaulters(List.of(first));
+        assertEquals(List.of(first), history.getActualDefaulters());
+
+        history.upsertActualDefaulters(List.of(second, first));
+        assertEquals(List.of(first), history.getActualDefaulters());
+        assertSame(first, history.findActualDefaulter("ACC001", 1));
+
+        history.upsertActualDefaulters(List.of(second, third));
+        assertEquals(List.of(third), history.getActualDefaulters());
+        assertEquals(4000.0, history.getShortfall("ACC001", 1), 0.001);
+    }
+
+    @Test
+    @DisplayName("Indexing existing lists leaves them untouched")
+    void testOfDoesNotModifyInputs() {
+        List<ProbableDefaulter> pds = new ArrayList<>();
+        pds.add(new ProbableDefaulter("ACC001", 1, 8000.0, true, "Below minimum"));
+        List<ActualDefaulter> ads = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+
+        InMemoryDefaulterHistoryRepository history = InMemoryDefaulterHistoryRepository.of(pds, ads, charges);
+        history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Defaulter")));
+        history.getProbableDefaulters().clear();
+
+        assertEquals(1, pds.size());
+        assertTrue(ads.isEmpty());
+        assertTrue(history.isProbableDefaulter("ACC001", 1));
+        assertEquals(1, history.getProbableDefaulters().size());
+    }
+
+    @Test
+    @DisplayName("Evicted months leave the repository for its archive")
+    void testEvictBefore() {
+        InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+        InMemoryDefaulterHistoryRepository history =
+                new InMemoryDefaulterHistoryRepository(new AccountDictionary(), archive);
+        for (int month = 1; month <= 4; month++) {
+            history.addProbableDefaulters(List.of(new ProbableDefaulter("ACC001", month, 8000.0, true, "Below minimum")));
+        }
+        history.addCharges(List.of(charge("ACC001", 3)));
+
+        history.evictBefore(3);
+        assertFalse(history.isProbableDefaulter("ACC001", 2));
+        assertTrue(history.isProbableDefaulter("ACC001", 3));
+        assertNotNull(history.findCharge("ACC001", 3));
+        assertEquals(3, history.getActiveSize());
+        assertEquals(2, history.getProbableDefaulters().size());
+        assertEquals(3, history.getProbableDefaulters().get(0).getMonth());
+        assertEquals(2, archive.getProbableDefaulters().size());
+        assertEquals(1, archive.getProbableDefaulters().get(0).getMonth());
+
+        history.evictBefore(4);
+        assertNull(history.findCharge("ACC001", 3));
+        assertTrue(history.getCharges().isEmpty());
+        assertEquals(1, archive.getCharges().size());
+        assertEquals(1, history.getActiveSize());
+
+        // Nothing left to evict: the archive is not called with empty lists
+        history.evictBefore(4);
+        assertEquals(3, archive.getProbableDefaulters().size());
+    }
+
+    @Test
+    @DisplayName("A shared dictionary gives every index the same dense account keys")
+    void testSharedAccountDictionary() {
+        AccountDictionary accounts = new AccountDictionary();
+        InMemoryDefaulterHistoryRepository history =
+                new InMemoryDefaulterHistoryRepository(accounts, new InMemoryHistoryArchive());
+        ActualDefaulter first = new ActualDefaulter("ACC002", 1, 8000.0, 2000.0, "Defaulter");
+        history.addActualDefaulters(List.of(
+                first,
+                new ActualDefaulter("ACC001", 1, 7000.0, 3000.0, "Defaulter"),
+                new ActualDefaulter("ACC002", 2, 6000.0, 4000.0, "Defaulter")));
+
+        assertSame(accounts, history.getAccountDictionary());
+        assertEquals(2, accounts.size());
+        assertEquals("ACC002", accounts.decode(0));
+
+        // Adding keys the records in place; lookups by key skip the hashing
+        assertEquals(0, first.getAccountKey());
+        assertSame(first, history.findActualDefaulter(0, 1));
+        assertEquals(4000.0, history.getShortfall(0, 2), 0.001);
+        assertNull(history.findActualDefaulter(AccountDictionary.UNASSIGNED, 1));
+
+        // A second index on the same dictionary reuses the keys
+        InMemoryDefaulterHistoryRepository other =
+                new InMemoryDefaulterHistoryRepository(accounts, new InMemoryHistoryArchive());
+        ActualDefaulter rekeyed = new ActualDefaulter("ACC001", 3, 5000.0, 5000.0, "Defaulter");
+        other.addActualDefaulters(List.of(rekeyed));
+        assertEquals(accounts.lookup("ACC001"), rekeyed.getAccountKey());
+        assertEquals(2, accounts.size());
+        assertNull(history.findActualDefaulter("ACC003", 1));
+        assertEquals(AccountDictionary.UNASSIGNED, accounts.lookup("ACC003"));
+    }
+
+    private Charge charge(String accountId, int chargedInMonth) {
+        Charge charge = new Charge();
+        charge.setAccountId(accountId);
+        charge.setChargedInMonth(chargedInMonth);
+        charge.setTotalCharge(1180.0);
+        return charge;
+    }
+}
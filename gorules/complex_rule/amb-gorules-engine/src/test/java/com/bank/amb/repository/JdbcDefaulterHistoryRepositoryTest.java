@@ -0,0 +1,189 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the JDBC defaulter history against an embedded H2 database
+ */
+class JdbcDefaulterHistoryRepositoryTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:amb-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new JdbcDefaulterHistoryRepository(dataSource).createSchema();
+    }
+
+    @Test
+    @DisplayName("Batched writes upsert by account and month")
+    void testBatchedUpsert() {
+        JdbcDefaulterHistoryRepository history = new JdbcDefaulterHistoryRepository(dataSource, 7, 100);
+        history.addProbableDefaulters(probableDefaulters(1, 50, "Below minimum"));
+        history.addProbableDefaulters(probableDefaulters(1, 20, "Updated"));
+        history.addActualDefaulters(List.of(
+                new ActualDefaulter("ACC1", 1, 8000.0, 2000.0, "Confirmed"),
+                new ActualDefaulter("ACC1", 1, 7000.0, 3000.0, "Confirmed again")));
+
+        // The index replaces re-added keys like the database does
+        assertEquals(50, history.getProbableDefaulters().size());
+        assertEquals("Updated", history.findProbableDefaulter("ACC19", 1).getReason());
+        assertEquals("Updated", history.getProbableDefaulters().get(19).getReason());
+        assertEquals(1, history.getActualDefaulters().size());
+        assertEquals(3000.0, history.getShortfall("ACC1", 1), 0.001);
+
+        JdbcDefaulterHistoryRepository reloaded = new JdbcDefaulterHistoryRepository(dataSource, 7, 100);
+        reloaded.load(1);
+        assertEquals(50, reloaded.getProbableDefaulters().size());
+        assertEquals("Updated", reloaded.findProbableDefaulter("ACC19", 1).getReason());
+        assertEquals("Below minimum", reloaded.findProbableDefaulter("ACC20", 1).getReason());
+        assertEquals(1, reloaded.getActualDefaulters().size());
+        assertEquals(3000.0, reloaded.getShortfall("ACC1", 1), 0.001);
+    }
+
+    @Test
+    @DisplayName("Retrying a write with the same records stores them once")
+    void testIdempotentRetry() {
+        JdbcDefaulterHistoryRepository history = new JdbcDefaulterHistoryRepository(dataSource);
+        ActualDefaulter ad = new ActualDefaulter("ACC1", 1, 8000.0, 2000.0, "Confirmed");
+        history.addActualDefaulters(List.of(ad, ad));
+        history.addActualDefaulters(List.of(ad));
+
+        assertEquals(List.of(ad), history.getActualDefaulters());
+        JdbcDefaulterHistoryRepository reloaded = new JdbcDefaulterHistoryRepository(dataSource);
+        reloaded.load(1);
+        assertEquals(1, reloaded.getActualDefaulters().size());
+    }
+
+    @Test
+    @DisplayName("Rows reported as SUCCESS_NO_INFO are checked before inserting")
+    void testUpsertWithoutUpdateCounts() {
+        new JdbcDefaulterHistoryRepository(dataSource)
+                .addProbableDefaulters(probableDefaulters(1, 10, "Below minimum"));
+
+        JdbcDefaulterHistoryRepository history =
+                new JdbcDefaulterHistoryRepository(noUpdateCounts(dataSource), 4, 100);
+        history.addProbableDefaulters(probableDefaulters(1, 15, "Updated"));
+
+        JdbcDefaulterHistoryRepository reloaded = new JdbcDefaulterHistoryRepository(dataSource);
+        reloaded.load(1);
+        assertEquals(15, reloaded.getProbableDefaulters().size());
+        assertEquals("Updated", reloaded.findProbableDefaulter("ACC3", 1).getReason());
+        assertEquals("Updated", reloaded.findProbableDefaulter("ACC14", 1).getReason());
+    }
+
+    @Test
+    @DisplayName("Keyset pages stream the requested months in (month, account) order")
+    void testKeysetLoad() {
+        JdbcDefaulterHistoryRepository history = new JdbcDefaulterHistoryRepository(dataSource, 100, 10);
+        for (int month = 1; month <= 3; month++) {
+            history.addProbableDefaulters(probableDefaulters(month, 25, "Below minimum"));
+        }
+        Charge charge = new Charge();
+        charge.setAccountId("ACC3");
+        charge.setChargedInMonth(3);
+        charge.setMonth1(1);
+        charge.setMonth2(2);
+        charge.setTotalCharge(1180.0);
+        history.addCharges(List.of(charge));
+
+        List<ProbableDefaulter> streamed = new ArrayList<>();
+        history.forEachProbableDefaulter(2, streamed::add);
+        assertEquals(50, streamed.size());
+        for (int i = 1; i < streamed.size(); i++) {
+            ProbableDefaulter previous = streamed.get(i - 1);
+            ProbableDefaulter current = streamed.get(i);
+            assertTrue(previous.getMonth() < current.getMonth()
+                    || (previous.getMonth() == current.getMonth()
+                    && previous.getAccountId().compareTo(current.getAccountId()) < 0));
+        }
+
+        JdbcDefaulterHistoryRepository reloaded = new JdbcDefaulterHistoryRepository(dataSource, 100, 10);
+        reloaded.load(2);
+        assertFalse(reloaded.isProbableDefaulter("ACC0", 1));
+        assertTrue(reloaded.isProbableDefaulter("ACC24", 3));
+        assertEquals(1180.0, reloaded.findCharge("ACC3", 3).getTotalCharge(), 0.001);
+        assertEquals(2, reloaded.findCharge("ACC3", 3).getMonth2());
+    }
+
+    @Test
+    @DisplayName("Clear deletes the stored history")
+    void testClear() {
+        JdbcDefaulterHistoryRepository history = new JdbcDefaulterHistoryRepository(dataSource);
+        history.addProbableDefaulters(probableDefaulters(1, 5, "Below minimum"));
+        history.clear();
+        assertTrue(history.getProbableDefaulters().isEmpty());
+
+        history.load(0);
+        assertTrue(history.getProbableDefaulters().isEmpty());
+    }
+
+    /**
+     * Data source whose batched UPDATEs report SUCCESS_NO_INFO, as some drivers do
+     */
+    private static DataSource noUpdateCounts(DataSource target) {
+        return proxy(DataSource.class, target, (method, args, result) ->
+                method.getName().equals("getConnection") ? noUpdateCounts((Connection) result) : result);
+    }
+
+    private static Connection noUpdateCounts(Connection target) {
+        return proxy(Connection.class, target, (method, args, result) -> {
+            if (method.getName().equals("prepareStatement") && ((String) args[0]).startsWith("UPDATE")) {
+                return proxy(PreparedStatement.class, result, (statementMethod, statementArgs, counts) -> {
+                    if (statementMethod.getName().equals("executeBatch")) {
+                        Arrays.fill((int[]) counts, Statement.SUCCESS_NO_INFO);
+                    }
+                    return counts;
+                });
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultMapper {
+        Object map(Method method, Object[] args, Object result);
+    }
+
+    /**
+     * Delegate every call to target, passing the result through mapper
+     */
+    private static <T> T proxy(Class<T> type, Object target, ResultMapper mapper) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            try {
+                return mapper.map(method, args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    private List<ProbableDefaulter> probableDefaulters(int month, int count, String reason) {
+        List<ProbableDefaulter> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new ProbableDefaulter("ACC" + i, month, 5000.0 + i, true, reason));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,249 @@
+package com.bank.amb.repository;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the log-backed defaulter history
+ */
+class LogDefaulterHistoryRepositoryTest {
+
+    @Test
+    @DisplayName("History written before a restart is replayed on open")
+    void testReplayAfterRestart(@TempDir Path directory) {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addProbableDefaulters(List.of(new ProbableDefaulter("ACC001", 1, 8000.0, true, "New - SMS sent")));
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 8000.0, 2000.5, "Confirmed")));
+            history.addCharges(List.of(charge("ACC001", 3, 135.7)));
+        }
+
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            ProbableDefaulter pd = history.findProbableDefaulter("ACC001", 1);
+            assertNotNull(pd);
+            assertTrue(pd.isSmsSent());
+            assertEquals("New - SMS sent", pd.getReason());
+            assertEquals(2000.5, history.getShortfall("ACC001", 1), 0.0);
+            assertEquals(135.7, history.findCharge("ACC001", 3).getTotalCharge(), 0.0);
+            assertNull(history.findCharge("ACC001", 3).getReason());
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshots replace rolled segments and keep record order")
+    void testSnapshotAndSegments(@TempDir Path directory) throws IOException {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory, 4_096, 500)) {
+            for (int month = 1; month <= 6; month++) {
+                history.addProbableDefaulters(probableDefaulters(month, 120));
+            }
+            assertEquals(120, history.getRecordsSinceSnapshot());
+        }
+        assertTrue(Files.exists(directory.resolve(LogDefaulterHistoryRepository.SNAPSHOT_FILE)));
+
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory, 4_096, 500)) {
+            List<ProbableDefaulter> all = history.getProbableDefaulters();
+            assertEquals(720, all.size());
+            assertEquals("ACC0", all.get(0).getAccountId());
+            assertEquals(6, all.get(719).getMonth());
+            assertTrue(history.isProbableDefaulter("ACC119", 4));
+
+            history.snapshot();
+            assertEquals(0, history.getRecordsSinceSnapshot());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+            // The snapshot plus the empty segment started after it
+            assertEquals(2, names.size(), names.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("A torn frame at the end of the log is dropped")
+    void testTornTail(@TempDir Path directory) throws IOException {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Confirmed")));
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC002", 1, 9000.0, 1000.0, "Confirmed")));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> Files.isRegularFile(p)).sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertTrue(history.isActualDefaulter("ACC001", 1));
+            assertFalse(history.isActualDefaulter("ACC002", 1));
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC003", 1, 9000.0, 1000.0, "Confirmed")));
+        }
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertEquals(2, history.getActualDefaulters().size());
+        }
+
+        // Corruption before the last segment is not silently skipped
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}), channel.size() - 4);
+        }
+        assertThrows(RuntimeException.class, () -> LogDefaulterHistoryRepository.open(directory));
+    }
+
+    @Test
+    @DisplayName("A bad frame followed by more frames fails the open even in the last segment")
+    void testCorruptionInsideLastSegment(@TempDir Path directory) throws IOException {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC001", 1, 8000.0, 2000.0, "Confirmed")));
+            history.addActualDefaulters(List.of(new ActualDefaulter("ACC002", 1, 9000.0, 1000.0, "Confirmed")));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        long size = Files.size(segment);
+        // Flip a payload byte of the first frame (after the 24-byte file and
+        // 8-byte frame headers); the second frame follows it
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(1);
+            long offset = 24 + 8 + 2;
+            channel.read(bytes, offset);
+            bytes.put(0, (byte) (bytes.get(0) ^ 0x7F)).rewind();
+            channel.write(bytes, offset);
+        }
+
+        assertThrows(RuntimeException.class, () -> LogDefaulterHistoryRepository.open(directory));
+        assertEquals(size, Files.size(segment));
+    }
+
+    @Test
+    @DisplayName("A failed add leaves nothing behind for the next add or a replay")
+    void testFailedAddIsDiscarded(@TempDir Path directory) {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addProbableDefaulters(probableDefaulters(1, 1));
+            ProbableDefaulter tooLarge = new ProbableDefaulter("ACC9", 1, 5000.0, true, "x".repeat(2 << 20));
+            assertThrows(IllegalArgumentException.class, () -> history.addProbableDefaulters(
+                    List.of(new ProbableDefaulter("ACC8", 1, 5000.0, true, "Below minimum"), tooLarge)));
+            history.addProbableDefaulters(List.of(new ProbableDefaulter("ACC7", 1, 5000.0, true, "Below minimum")));
+            assertFalse(history.isProbableDefaulter("ACC8", 1));
+            assertEquals(2, history.getRecordsSinceSnapshot());
+        }
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertEquals(2, history.getProbableDefaulters().size());
+            assertTrue(history.isProbableDefaulter("ACC7", 1));
+            assertFalse(history.isProbableDefaulter("ACC8", 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Records replayed from segments still count towards the next snapshot")
+    void testRecordsSinceSnapshotSurviveReopen(@TempDir Path directory) {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory, 4_096, 500)) {
+            history.addProbableDefaulters(probableDefaulters(1, 300));
+        }
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory, 4_096, 500)) {
+            assertEquals(300, history.getRecordsSinceSnapshot());
+            history.addProbableDefaulters(probableDefaulters(2, 300));
+            assertEquals(0, history.getRecordsSinceSnapshot());
+        }
+    }
+
+    @Test
+    @DisplayName("Evicted records move to the archive file and stay out of snapshots")
+    void testEvictToArchive(@TempDir Path directory) {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            for (int month = 1; month <= 4; month++) {
+                history.addProbableDefaulters(probableDefaulters(month, 10));
+            }
+            history.evictBefore(3);
+            assertEquals(20, history.getProbableDefaulters().size());
+            assertEquals(0, history.getRecordsSinceSnapshot());
+            assertFalse(history.isProbableDefaulter("ACC0", 2));
+
+            history.addProbableDefaulters(probableDefaulters(5, 10));
+            history.evictBefore(4);
+        }
+
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertEquals(20, history.getProbableDefaulters().size());
+            assertFalse(history.isProbableDefaulter("ACC0", 3));
+            assertTrue(history.isProbableDefaulter("ACC0", 4));
+
+            InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+            history.readArchive(archive);
+            assertEquals(30, archive.getProbableDefaulters().size());
+            assertEquals(1, archive.getProbableDefaulters().get(0).getMonth());
+            assertEquals(3, archive.getProbableDefaulters().get(29).getMonth());
+        }
+    }
+
+    @Test
+    @DisplayName("Archive bytes written without their snapshot are cut off and re-archived")
+    void testArchiveWithoutSnapshot(@TempDir Path directory) throws IOException {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addProbableDefaulters(probableDefaulters(1, 5));
+            history.addProbableDefaulters(probableDefaulters(2, 5));
+            history.evictBefore(2);
+        }
+        Path archiveFile = directory.resolve(LogDefaulterHistoryRepository.ARCHIVE_FILE);
+        long archived = Files.size(archiveFile);
+        // An eviction that crashed before its snapshot
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {9, 9, 9, 9, 9, 9, 9, 9, 9}), archived);
+        }
+
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertEquals(archived, Files.size(archiveFile));
+            history.evictBefore(3);
+            InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+            history.readArchive(archive);
+            assertEquals(10, archive.getProbableDefaulters().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Clear removes the history on disk")
+    void testClear(@TempDir Path directory) {
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            history.addProbableDefaulters(probableDefaulters(1, 10));
+            history.snapshot();
+            history.addProbableDefaulters(probableDefaulters(2, 10));
+            history.clear();
+            history.addProbableDefaulters(probableDefaulters(3, 1));
+        }
+        try (LogDefaulterHistoryRepository history = LogDefaulterHistoryRepository.open(directory)) {
+            assertEquals(1, history.getProbableDefaulters().size());
+            assertTrue(history.isProbableDefaulter("ACC0", 3));
+        }
+    }
+
+    private List<ProbableDefaulter> probableDefaulters(int month, int count) {
+        List<ProbableDefaulter> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new ProbableDefaulter("ACC" + i, month, 5000.0 + i, i % 2 == 0, "Below minimum"));
+        }
+        return records;
+    }
+
+    private Charge charge(String accountId, int chargedInMonth, double totalCharge) {
+        Charge charge = new Charge();
+        charge.setAccountId(accountId);
+        charge.setChargedInMonth(chargedInMonth);
+        charge.setTotalCharge(totalCharge);
+        return charge;
+    }
+}
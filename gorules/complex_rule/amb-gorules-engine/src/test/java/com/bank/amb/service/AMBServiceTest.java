@@ -0,0 +1,44 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.ProbableDefaulter;
+import com.bank.amb.repository.JdbcDefaulterHistoryRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the service's handling of stored history
+ */
+class AMBServiceTest {
+
+    @Test
+    @DisplayName("A restarted service loads the stored window before its first run")
+    void testRestartLoadsStoredWindow() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:amb-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcDefaulterHistoryRepository before = new JdbcDefaulterHistoryRepository(dataSource);
+        before.createSchema();
+        for (int month = 1; month <= 3; month++) {
+            before.addActualDefaulters(List.of(new ActualDefaulter("ACC001", month, 8000.0, 2000.0, "Defaulter")));
+        }
+        before.addProbableDefaulters(List.of(new ProbableDefaulter("ACC002", 4, 9000.0, true, "Below minimum")));
+
+        // Same database, fresh repository and service: nothing is in memory yet
+        JdbcDefaulterHistoryRepository restarted = new JdbcDefaulterHistoryRepository(dataSource);
+        assertTrue(restarted.getActualDefaulters().isEmpty());
+        AMBService service = new AMBService(restarted);
+        service.processDay3(List.of(), 5, 10000.0);
+
+        // Months 3 to 5 are the window; month 1 and 2 stay in the database only
+        assertEquals(1, service.getActualDefaulters().size());
+        assertTrue(restarted.isActualDefaulter("ACC001", 3));
+        assertFalse(restarted.isActualDefaulter("ACC001", 2));
+        assertTrue(restarted.isProbableDefaulter("ACC002", 4));
+    }
+}
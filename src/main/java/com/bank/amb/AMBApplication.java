@@ -2,7 +2,9 @@ package com.bank.amb;
 
 import com.bank.amb.model.*;
 import com.bank.amb.service.AMBRuleEngineProgrammatic;
-import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import com.bank.amb.service.ConsoleDecisionEventSink;
+import com.bank.amb.service.DefaulterHistory;
+import com.bank.amb.service.InMemoryHistoryArchive;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -18,15 +20,18 @@ public class AMBApplication {
         System.out.println("==============================================\n");
 
         // Initialize Rule Engine
+        long startupStart = System.nanoTime();
         AMBRuleEngineProgrammatic ruleEngine = new AMBRuleEngineProgrammatic();
+        // Render rule decisions on the console (off by default)
+        ruleEngine.getDecisionEvents().addSink(new ConsoleDecisionEventSink());
+        long startupMillis = (System.nanoTime() - startupStart) / 1_000_000;
 
         // Create test accounts
         List<Account> accounts = createTestAccounts();
 
-        // Storage for results
-        List<ProbableDefaulter> allProbableDefaulters = new ArrayList<>();
-        List<ActualDefaulter> allActualDefaulters = new ArrayList<>();
-        List<Charge> allCharges = new ArrayList<>();
+        // Storage for results: the engine sees the last three months, older records are archived
+        InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+        DefaulterHistory history = new DefaulterHistory(DefaulterHistory.DEFAULT_WINDOW_MONTHS, archive);
 
         // ========================================
         // MONTH 3, DAY 26 - Probable Defaulter Check
@@ -39,15 +44,13 @@ public class AMBApplication {
         context1.setCurrentMonth(3);
         context1.setCheckDay(26);
 
-        RuleExecutionResult result1 = ruleEngine.executeRules(
+        long firstRunStart = System.nanoTime();
+        ruleEngine.executeRules(
                 accounts,
-                allProbableDefaulters,
-                allActualDefaulters,
-                allCharges,
+                history,
                 context1
         );
-
-        allProbableDefaulters.addAll(result1.getProbableDefaulters());
+        long firstRunMillis = (System.nanoTime() - firstRunStart) / 1_000_000;
 
         // ========================================
         // MONTH 4, DAY 3 - Actual Defaulter Check
@@ -60,16 +63,12 @@ public class AMBApplication {
         context2.setCurrentMonth(4);
         context2.setCheckDay(3);
 
-        RuleExecutionResult result2 = ruleEngine.executeRules(
+        ruleEngine.executeRules(
                 accounts,
-                allProbableDefaulters,
-                allActualDefaulters,
-                allCharges,
+                history,
                 context2
         );
 
-        allActualDefaulters.addAll(result2.getActualDefaulters());
-
         // ========================================
         // MONTH 4, DAY 26 - Probable Defaulter Check
         // ========================================
@@ -81,16 +80,12 @@ public class AMBApplication {
         context3.setCurrentMonth(4);
         context3.setCheckDay(26);
 
-        RuleExecutionResult result3 = ruleEngine.executeRules(
+        ruleEngine.executeRules(
                 accounts,
-                allProbableDefaulters,
-                allActualDefaulters,
-                allCharges,
+                history,
                 context3
         );
 
-        allProbableDefaulters.addAll(result3.getProbableDefaulters());
-
         // ========================================
         // MONTH 5, DAY 3 - Actual Check & Charging
         // ========================================
@@ -102,21 +97,25 @@ public class AMBApplication {
         context4.setCurrentMonth(5);
         context4.setCheckDay(3);
 
-        RuleExecutionResult result4 = ruleEngine.executeRules(
+        ruleEngine.executeRules(
                 accounts,
-                allProbableDefaulters,
-                allActualDefaulters,
-                allCharges,
+                history,
                 context4
         );
 
-        allActualDefaulters.addAll(result4.getActualDefaulters());
-        allCharges.addAll(result4.getCharges());
-
         // ========================================
         // Final Summary
         // ========================================
-        printFinalSummary(allProbableDefaulters, allActualDefaulters, allCharges);
+        printFinalSummary(
+                concat(archive.getProbableDefaulters(), history.getProbableDefaulters()),
+                concat(archive.getActualDefaulters(), history.getActualDefaulters()),
+                concat(archive.getCharges(), history.getCharges()));
+
+        System.out.println("⏱  Engine Startup: " + startupMillis + " ms");
+        System.out.println("⏱  First Run Latency: " + firstRunMillis + " ms\n");
+
+        // Drains the remaining decision events
+        ruleEngine.shutdown();
     }
 
     private static List<Account> createTestAccounts() {
@@ -158,6 +157,12 @@ public class AMBApplication {
         return accounts;
     }
 
+    private static <T> List<T> concat(List<T> archived, List<T> active) {
+        List<T> all = new ArrayList<>(archived);
+        all.addAll(active);
+        return all;
+    }
+
     private static void printFinalSummary(
             List<ProbableDefaulter> probableDefaulters,
             List<ActualDefaulter> actualDefaulters,
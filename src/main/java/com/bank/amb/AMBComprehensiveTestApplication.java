@@ -3,6 +3,8 @@ package com.bank.amb;
 import com.bank.amb.model.*;
 import com.bank.amb.service.AMBRuleEngineProgrammatic;
 import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import com.bank.amb.service.ConsoleDecisionEventSink;
+import com.bank.amb.service.DefaulterHistory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +22,8 @@ public class AMBComprehensiveTestApplication {
         // Initialize Rule Engine
         System.out.println("🔧 Initializing Drools Rule Engine...\n");
         AMBRuleEngineProgrammatic ruleEngine = new AMBRuleEngineProgrammatic();
+        // Render rule decisions on the console (off by default)
+        ruleEngine.getDecisionEvents().addSink(new ConsoleDecisionEventSink());
 
         // Run all test scenarios
         System.out.println("\n🧪 Running All Test Scenarios...\n");
@@ -29,6 +33,7 @@ public class AMBComprehensiveTestApplication {
         runScenario3_ConstantLowBalance(ruleEngine);
         runScenario4_RecoveryAfterDefault(ruleEngine);
         runScenario5_EdgeCase_BelowCap(ruleEngine);
+        ruleEngine.shutdown();
 
         printFooter();
     }
@@ -44,6 +49,8 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 4 months
         for (int month = 1; month <= 4; month++) {
@@ -55,7 +62,7 @@ public class AMBComprehensiveTestApplication {
                     generateConstantBalance(15000));
             accounts.add(acc);
 
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 1", probableList, actualList, chargeList);
@@ -76,27 +83,29 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Month 1: Good balance
         System.out.println("\n--- Month 1 (Good Balance) ---");
         List<Account> accounts1 = new ArrayList<>();
         accounts1.add(createAccount("S2_SINGLE_001", "Single Month Defaulter",
                 generateConstantBalance(15000)));
-        runMonth(engine, accounts1, probableList, actualList, chargeList, 1);
+        runMonth(engine, accounts1, history, probableList, actualList, chargeList, 1);
 
         // Month 2: Low balance
         System.out.println("\n--- Month 2 (Low Balance ₹500) ---");
         List<Account> accounts2 = new ArrayList<>();
         accounts2.add(createAccount("S2_SINGLE_001", "Single Month Defaulter",
                 generateConstantBalance(500)));
-        runMonth(engine, accounts2, probableList, actualList, chargeList, 2);
+        runMonth(engine, accounts2, history, probableList, actualList, chargeList, 2);
 
         // Month 3: Good balance again
         System.out.println("\n--- Month 3 (Recovered) ---");
         List<Account> accounts3 = new ArrayList<>();
         accounts3.add(createAccount("S2_SINGLE_001", "Single Month Defaulter",
                 generateConstantBalance(15000)));
-        runMonth(engine, accounts3, probableList, actualList, chargeList, 3);
+        runMonth(engine, accounts3, history, probableList, actualList, chargeList, 3);
 
         printScenarioSummary("SCENARIO 2", probableList, actualList, chargeList);
         System.out.println("✅ Expected: Charges = 0 (only 1 month default)");
@@ -116,6 +125,8 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 6 months + one more check on Month 7 Day 3
         for (int month = 1; month <= 6; month++) {
@@ -125,7 +136,7 @@ public class AMBComprehensiveTestApplication {
             accounts.add(createAccount("S3_CHRONIC_001", "Chronic Defaulter",
                     generateConstantBalance(500)));
 
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         // Month 7: Just need Day 3 check to trigger 3rd charge for Months 5+6
@@ -138,9 +149,7 @@ public class AMBComprehensiveTestApplication {
         ctx7.setCurrentMonth(7);
         ctx7.setCheckDay(3);
 
-        RuleExecutionResult result7 = engine.executeRules(
-                accounts7, probableList, actualList, chargeList, ctx7
-        );
+        RuleExecutionResult result7 = engine.executeRules(accounts7, history, ctx7);
         actualList.addAll(result7.getActualDefaulters());
         chargeList.addAll(result7.getCharges());
 
@@ -168,32 +177,34 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Month 1-2: Low balance
         System.out.println("\n--- Month 1 (Low Balance ₹500) ---");
         List<Account> accounts1 = new ArrayList<>();
         accounts1.add(createAccount("S4_RECOVERY_001", "Recovery Customer",
                 generateConstantBalance(500)));
-        runMonth(engine, accounts1, probableList, actualList, chargeList, 1);
+        runMonth(engine, accounts1, history, probableList, actualList, chargeList, 1);
 
         System.out.println("\n--- Month 2 (Low Balance ₹500) ---");
         List<Account> accounts2 = new ArrayList<>();
         accounts2.add(createAccount("S4_RECOVERY_001", "Recovery Customer",
                 generateConstantBalance(500)));
-        runMonth(engine, accounts2, probableList, actualList, chargeList, 2);
+        runMonth(engine, accounts2, history, probableList, actualList, chargeList, 2);
 
         // Month 3 onwards: Good balance
         System.out.println("\n--- Month 3 (Recovered to ₹15,000) ---");
         List<Account> accounts3 = new ArrayList<>();
         accounts3.add(createAccount("S4_RECOVERY_001", "Recovery Customer",
                 generateConstantBalance(15000)));
-        runMonth(engine, accounts3, probableList, actualList, chargeList, 3);
+        runMonth(engine, accounts3, history, probableList, actualList, chargeList, 3);
 
         System.out.println("\n--- Month 4 (Still Good) ---");
         List<Account> accounts4 = new ArrayList<>();
         accounts4.add(createAccount("S4_RECOVERY_001", "Recovery Customer",
                 generateConstantBalance(15000)));
-        runMonth(engine, accounts4, probableList, actualList, chargeList, 4);
+        runMonth(engine, accounts4, history, probableList, actualList, chargeList, 4);
 
         printScenarioSummary("SCENARIO 4", probableList, actualList, chargeList);
         System.out.println("✅ Expected: 1 charge (Month 1+2 only)");
@@ -213,6 +224,8 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 3 months to get 1 charge
         for (int month = 1; month <= 3; month++) {
@@ -222,7 +235,7 @@ public class AMBComprehensiveTestApplication {
             accounts.add(createAccount("S5_SMALL_001", "Small Shortfall Customer",
                     generateConstantBalance(7000)));
 
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 5", probableList, actualList, chargeList);
@@ -244,6 +257,7 @@ public class AMBComprehensiveTestApplication {
 
     private static void runMonth(AMBRuleEngineProgrammatic engine,
                                  List<Account> accounts,
+                                 DefaulterHistory history,
                                  List<ProbableDefaulter> probableList,
                                  List<ActualDefaulter> actualList,
                                  List<Charge> chargeList,
@@ -254,9 +268,7 @@ public class AMBComprehensiveTestApplication {
         ctx1.setCurrentMonth(month);
         ctx1.setCheckDay(25);
 
-        RuleExecutionResult result1 = engine.executeRules(
-                accounts, probableList, actualList, chargeList, ctx1
-        );
+        RuleExecutionResult result1 = engine.executeRules(accounts, history, ctx1);
         probableList.addAll(result1.getProbableDefaulters());
 
         // 3rd check of next month
@@ -264,9 +276,7 @@ public class AMBComprehensiveTestApplication {
         ctx2.setCurrentMonth(month + 1);
         ctx2.setCheckDay(3);
 
-        RuleExecutionResult result2 = engine.executeRules(
-                accounts, probableList, actualList, chargeList, ctx2
-        );
+        RuleExecutionResult result2 = engine.executeRules(accounts, history, ctx2);
         actualList.addAll(result2.getActualDefaulters());
         chargeList.addAll(result2.getCharges());
     }
@@ -3,6 +3,7 @@ package com.bank.amb;
 import com.bank.amb.model.*;
 import com.bank.amb.service.AMBRuleEngineProgrammatic;
 import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import com.bank.amb.service.ConsoleDecisionEventSink;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +20,8 @@ public class AMBDiagnosticTest {
 
         // Initialize Rule Engine
         AMBRuleEngineProgrammatic ruleEngine = new AMBRuleEngineProgrammatic();
+        // Render rule decisions on the console (off by default)
+        ruleEngine.getDecisionEvents().addSink(new ConsoleDecisionEventSink());
 
         // Create a simple test account with low balance
         Account testAccount = new Account();
@@ -157,6 +160,7 @@ public class AMBDiagnosticTest {
             System.out.println("   3. Drools session not initialized properly");
         }
         System.out.println();
+        ruleEngine.shutdown();
     }
 
     private static void debugRuleConditions(Account account, ExecutionContext context) {
@@ -0,0 +1,111 @@
+package com.bank.amb;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.model.ExecutionContext;
+import com.bank.amb.store.AmbBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BENCHMARK - per-account AMB checks vs the bulk column-wise kernel
+ *
+ * Usage: AMBKernelBenchmark [accounts] [blockSize]   (default 10,000,000 and 1,024)
+ *
+ * One block of distinct accounts is generated and evaluated repeatedly
+ * until the requested number of accounts has been covered, so the
+ * benchmark needs no more heap than one block.
+ */
+public class AMBKernelBenchmark {
+
+    public static void main(String[] args) {
+        long totalAccounts = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int blockSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_024;
+        int rounds = (int) ((totalAccounts + blockSize - 1) / blockSize);
+
+        ExecutionContext context = new ExecutionContext(1, 25);
+        double minBalance = context.getMinBalance();
+
+        Random random = new Random(42);
+        List<Account> accounts = new ArrayList<>(blockSize);
+        AmbBlock block = new AmbBlock(blockSize);
+        for (int i = 0; i < blockSize; i++) {
+            double[] balances = new double[30];
+            for (int day = 0; day < 30; day++) {
+                balances[day] = Math.round(random.nextDouble() * 2_000_000) / 100.0;
+            }
+            Account account = new Account("ACC" + i, "Account " + i, balances);
+            accounts.add(account);
+            block.add(account);
+        }
+
+        // Validate the kernel against Account.calculateAMB before timing anything
+        block.evaluate(context);
+        for (int i = 0; i < blockSize; i++) {
+            Account account = accounts.get(i);
+            if (block.isBelowMin25(i) != (account.calculateAMB(1, 25) < minBalance)
+                    || block.isBelowMinMonth(i) != (account.calculateAMB(1, 30) < minBalance)) {
+                throw new IllegalStateException("Bulk kernel disagrees with Account.calculateAMB for "
+                        + account.getAccountId());
+            }
+        }
+        System.out.println("✓ Bulk kernel matches Account.calculateAMB on " + blockSize + " accounts");
+
+        // Warm up both paths so the JIT has compiled them
+        for (int i = 0; i < 200; i++) {
+            scalar(accounts, minBalance);
+            bulk(block, context);
+        }
+
+        long start = System.nanoTime();
+        long scalarBelow = 0;
+        for (int round = 0; round < rounds; round++) {
+            scalarBelow += scalar(accounts, minBalance);
+        }
+        long scalarNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long bulkBelow = 0;
+        for (int round = 0; round < rounds; round++) {
+            bulkBelow += bulk(block, context);
+        }
+        long bulkNanos = System.nanoTime() - start;
+
+        if (scalarBelow != bulkBelow) {
+            throw new IllegalStateException("Below-minimum counts differ: " + scalarBelow + " vs " + bulkBelow);
+        }
+
+        long evaluated = (long) rounds * blockSize;
+        System.out.println("\n========================================");
+        System.out.println("AMB Kernel Benchmark (" + String.format("%,d", evaluated) + " accounts, blocks of "
+                + blockSize + ")");
+        System.out.println("========================================");
+        System.out.println("Below-minimum flags: " + String.format("%,d", bulkBelow));
+        System.out.println("Per-account calculateAMB: " + String.format("%,d ms (%.2f ns/account)",
+                scalarNanos / 1_000_000, scalarNanos / (double) evaluated));
+        System.out.println("Bulk column-wise kernel:  " + String.format("%,d ms (%.2f ns/account)",
+                bulkNanos / 1_000_000, bulkNanos / (double) evaluated));
+        System.out.println("Speed-up: " + String.format("%.1fx", scalarNanos / (double) bulkNanos));
+        System.out.println("========================================\n");
+    }
+
+    private static int scalar(List<Account> accounts, double minBalance) {
+        int below = 0;
+        for (Account account : accounts) {
+            below += account.calculateAMB(1, 25) < minBalance ? 1 : 0;
+            below += account.calculateAMB(1, 30) < minBalance ? 1 : 0;
+        }
+        return below;
+    }
+
+    private static int bulk(AmbBlock block, ExecutionContext context) {
+        block.evaluate(context);
+        int below = 0;
+        for (int i = 0; i < block.size(); i++) {
+            below += block.isBelowMin25(i) ? 1 : 0;
+            below += block.isBelowMinMonth(i) ? 1 : 0;
+        }
+        return below;
+    }
+}
@@ -3,19 +3,24 @@ package com.bank.amb.model;
 import java.util.Arrays;
 
 public class Account {
+    public static final int DEFAULT_DAYS_IN_MONTH = 30;
+
     private String accountId;
     private String accountName;
-    private double[] dailyBalances; // 30 days
+    private long[] dailyBalancesPaise; // one entry per day of the month, see Money
+    // balancePrefixPaise[d] = sum of days 1..d, rebuilt whenever balances are set
+    private long[] balancePrefixPaise;
     private int currentMonth;
+    private int daysInMonth = DEFAULT_DAYS_IN_MONTH;
 
     public Account() {
-        this.dailyBalances = new double[30];
+        setDailyBalances(new double[30]);
     }
 
     public Account(String accountId, String accountName, double[] dailyBalances) {
         this.accountId = accountId;
         this.accountName = accountName;
-        this.dailyBalances = dailyBalances;
+        setDailyBalances(dailyBalances);
     }
 
     /**
@@ -24,30 +29,79 @@ public class Account {
      *
      * For Day 1-25 check (on Day 26):
      *   - Sum days 1-25
-     *   - Assume days 26-30 are zero
-     *   - Divide total by 30
+     *   - Assume the remaining days of the month are zero
+     *   - Divide total by the days in the month
+     *
+     * For full-month check (on Day 3 of next month):
+     *   - Sum every day of the month
+     *   - Divide by the days in the month (30 unless set, see setDaysInMonth)
      *
-     * For Day 1-30 check (on Day 3 of next month):
-     *   - Sum all 30 days
-     *   - Divide by 30
+     * The window sum is an exact difference of two paise prefix sums, so this is O(1).
      */
     public double calculateAMB(int startDay, int endDay) {
-        if (dailyBalances == null || dailyBalances.length < 30) {
+        if (dailyBalancesPaise == null || dailyBalancesPaise.length < daysInMonth) {
             return 0.0;
         }
 
-        double sum = 0;
-        // Sum the days from startDay to endDay (inclusive)
-        for (int i = startDay - 1; i < endDay && i < dailyBalances.length; i++) {
-            sum += dailyBalances[i];
+        // Days beyond endDay up to month end count as zero balance
+        // (business rule for calculating AMB on day 26), so always divide by the month length
+        return getBalanceSumPaise(startDay, endDay) / ((double) daysInMonth * Money.PAISE_PER_RUPEE);
+    }
+
+    /**
+     * {@link #calculateAMB} in paise, rounded to the nearest paisa
+     */
+    public long calculateAMBPaise(int startDay, int endDay) {
+        if (dailyBalancesPaise == null || dailyBalancesPaise.length < daysInMonth) {
+            return 0;
+        }
+        return Money.divideRounded(getBalanceSumPaise(startDay, endDay), daysInMonth);
+    }
+
+    /**
+     * Exact sum in paise of the balances from startDay to endDay (inclusive,
+     * 1-based) in O(1). Days outside the recorded balances count as zero.
+     */
+    public long getBalanceSumPaise(int startDay, int endDay) {
+        if (balancePrefixPaise == null) {
+            return 0;
+        }
+        int from = Math.max(startDay, 1);
+        int to = Math.min(endDay, balancePrefixPaise.length - 1);
+        if (to < from) {
+            return 0;
+        }
+        return balancePrefixPaise[to] - balancePrefixPaise[from - 1];
+    }
+
+    public double getBalanceSum(int startDay, int endDay) {
+        return Money.toRupees(getBalanceSumPaise(startDay, endDay));
+    }
+
+    /**
+     * Average balance over an arbitrary window, e.g. days 1-15 or 16-30,
+     * divided by the window's own length rather than by 30.
+     */
+    public double getAverageBalance(int startDay, int endDay) {
+        if (endDay < startDay) {
+            return 0.0;
         }
+        return getBalanceSumPaise(startDay, endDay) / ((endDay - startDay + 1) * (double) Money.PAISE_PER_RUPEE);
+    }
 
-        // For days beyond endDay up to day 30, assume balance is 0
-        // This is the business rule for calculating AMB on day 26
-        int remainingDays = 30 - endDay;
+    /**
+     * Set the balance of one day (1-based), keeping the window sums current.
+     */
+    public void setDailyBalance(int day, double balance) {
+        setDailyBalancePaise(day, Money.toPaise(balance));
+    }
 
-        // Always divide by 30 for monthly average
-        return (sum + (remainingDays * 0)) / 30.0;
+    public void setDailyBalancePaise(int day, long balancePaise) {
+        long delta = balancePaise - dailyBalancesPaise[day - 1];
+        dailyBalancesPaise[day - 1] = balancePaise;
+        for (int d = day; d < balancePrefixPaise.length; d++) {
+            balancePrefixPaise[d] += delta;
+        }
     }
 
     // Getters and Setters
@@ -67,12 +121,54 @@ public class Account {
         this.accountName = accountName;
     }
 
+    /**
+     * Daily balances in rupees. Returns a copy; change balances through
+     * the setters so the window sums stay current.
+     */
     public double[] getDailyBalances() {
-        return dailyBalances;
+        if (dailyBalancesPaise == null) {
+            return null;
+        }
+        double[] rupees = new double[dailyBalancesPaise.length];
+        for (int i = 0; i < rupees.length; i++) {
+            rupees[i] = Money.toRupees(dailyBalancesPaise[i]);
+        }
+        return rupees;
     }
 
     public void setDailyBalances(double[] dailyBalances) {
-        this.dailyBalances = dailyBalances;
+        if (dailyBalances == null) {
+            setDailyBalancesPaise(null);
+            return;
+        }
+        long[] paise = new long[dailyBalances.length];
+        for (int i = 0; i < paise.length; i++) {
+            paise[i] = Money.toPaise(dailyBalances[i]);
+        }
+        setDailyBalancesPaise(paise);
+    }
+
+    /**
+     * Daily balances in paise (a copy)
+     */
+    public long[] getDailyBalancesPaise() {
+        return dailyBalancesPaise == null ? null : dailyBalancesPaise.clone();
+    }
+
+    public void setDailyBalancesPaise(long[] dailyBalancesPaise) {
+        this.dailyBalancesPaise = dailyBalancesPaise;
+        this.balancePrefixPaise = prefixSums(dailyBalancesPaise);
+    }
+
+    private static long[] prefixSums(long[] balances) {
+        if (balances == null) {
+            return null;
+        }
+        long[] sums = new long[balances.length + 1];
+        for (int i = 0; i < balances.length; i++) {
+            sums[i + 1] = sums[i] + balances[i];
+        }
+        return sums;
     }
 
     public int getCurrentMonth() {
@@ -83,13 +179,29 @@ public class Account {
         this.currentMonth = currentMonth;
     }
 
+    public int getDaysInMonth() {
+        return daysInMonth;
+    }
+
+    /**
+     * Calendar length of the month (28-31), e.g. YearMonth.lengthOfMonth().
+     * The balances must cover at least this many days.
+     */
+    public void setDaysInMonth(int daysInMonth) {
+        if (daysInMonth < 28 || daysInMonth > 31) {
+            throw new IllegalArgumentException("daysInMonth must be 28-31, got " + daysInMonth);
+        }
+        this.daysInMonth = daysInMonth;
+    }
+
     @Override
     public String toString() {
         return "Account{" +
                 "accountId='" + accountId + '\'' +
                 ", accountName='" + accountName + '\'' +
                 ", currentMonth=" + currentMonth +
-                ", dailyBalances=" + Arrays.toString(dailyBalances) +
+                ", daysInMonth=" + daysInMonth +
+                ", dailyBalancesPaise=" + Arrays.toString(dailyBalancesPaise) +
                 '}';
     }
 }
\ No newline at end of file
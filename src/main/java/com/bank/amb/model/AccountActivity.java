@@ -0,0 +1,139 @@
+package com.bank.amb.model;
+
+import java.time.YearMonth;
+
+/**
+ * One account's month given as an opening balance plus dated transactions,
+ * folded straight into the AMB window sums without a per-day balance array.
+ *
+ * A transaction posted on day d changes the end-of-day balance of days d
+ * to the end of the month, so it adds amount x (25 - d + 1) to the day 1-25
+ * sum (when d <= 25) and amount x (daysInMonth - d + 1) to the full-month
+ * sum. Each posting is O(1) and the order of postings does not matter, so
+ * an account with a handful of transactions costs a handful of updates
+ * instead of a month of balances.
+ */
+public class AccountActivity {
+
+    private final String accountId;
+    private final String accountName;
+    private final int month;
+    private final int daysInMonth;
+    private final long openingBalancePaise;
+    private long closingBalancePaise;
+    private long partialSumPaise; // days 1-25
+    private long monthSumPaise;   // whole month
+    private int transactions;
+
+    public AccountActivity(String accountId, String accountName, int month, int daysInMonth,
+                           double openingBalance) {
+        this(accountId, accountName, month, daysInMonth, Money.toPaise(openingBalance));
+    }
+
+    private AccountActivity(String accountId, String accountName, int month, int daysInMonth,
+                            long openingBalancePaise) {
+        if (daysInMonth < 28 || daysInMonth > 31) {
+            throw new IllegalArgumentException("daysInMonth must be 28-31, got " + daysInMonth);
+        }
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.month = month;
+        this.daysInMonth = daysInMonth;
+        this.openingBalancePaise = openingBalancePaise;
+        this.closingBalancePaise = openingBalancePaise;
+        this.partialSumPaise = openingBalancePaise * AmbAccumulator.PARTIAL_DAY;
+        this.monthSumPaise = openingBalancePaise * daysInMonth;
+    }
+
+    public static AccountActivity ofPaise(String accountId, String accountName, int month, int daysInMonth,
+                                          long openingBalancePaise) {
+        return new AccountActivity(accountId, accountName, month, daysInMonth, openingBalancePaise);
+    }
+
+    /**
+     * Activity sized to a calendar month; month is the engine's month number
+     */
+    public static AccountActivity forMonth(String accountId, String accountName, int month,
+                                           YearMonth calendarMonth, double openingBalance) {
+        return new AccountActivity(accountId, accountName, month, calendarMonth.lengthOfMonth(), openingBalance);
+    }
+
+    /**
+     * Post a credit (positive) or debit (negative) on a day of the month
+     */
+    public void post(int day, double amount) {
+        postPaise(day, Money.toPaise(amount));
+    }
+
+    public void postPaise(int day, long amountPaise) {
+        if (day < 1 || day > daysInMonth) {
+            throw new IllegalArgumentException("Transaction day " + day + " for " + accountId
+                    + " outside 1.." + daysInMonth);
+        }
+        if (day <= AmbAccumulator.PARTIAL_DAY) {
+            partialSumPaise += amountPaise * (AmbAccumulator.PARTIAL_DAY - day + 1);
+        }
+        monthSumPaise += amountPaise * (daysInMonth - day + 1);
+        closingBalancePaise += amountPaise;
+        transactions++;
+    }
+
+    /**
+     * The same sums as an accumulator that has seen every day of the month,
+     * e.g. for {@code AMBRuleEngineProgrammatic.executeRulesAccumulated}
+     */
+    public AmbAccumulator toAccumulator() {
+        return AmbAccumulator.restore(accountId, accountName, month, daysInMonth, daysInMonth,
+                partialSumPaise, monthSumPaise - partialSumPaise);
+    }
+
+    public long getPartialSumPaise() {
+        return partialSumPaise;
+    }
+
+    public long getMonthSumPaise() {
+        return monthSumPaise;
+    }
+
+    public long getOpeningBalancePaise() {
+        return openingBalancePaise;
+    }
+
+    /**
+     * Balance after every posting, i.e. next month's opening balance
+     */
+    public long getClosingBalancePaise() {
+        return closingBalancePaise;
+    }
+
+    public int getTransactionCount() {
+        return transactions;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDaysInMonth() {
+        return daysInMonth;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountActivity{" +
+                "accountId='" + accountId + '\'' +
+                ", month=" + month +
+                ", openingBalance=" + Money.format(openingBalancePaise) +
+                ", transactions=" + transactions +
+                ", closingBalance=" + Money.format(closingBalancePaise) +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.amb.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps external account ids to dense int keys (0, 1, 2, ... in order of
+ * first sight) and back.
+ *
+ * Ids are hashed once when they are encoded; from then on facts carry the
+ * int, joins compare ints and per-account data can live in arrays indexed
+ * by key. {@link #decode(int)} returns the very String that was encoded,
+ * so resolving a key for output never creates a new String.
+ *
+ * Thread-safe: lookups are lock-free and only assigning a new key locks.
+ */
+public final class AccountDictionary {
+
+    /** Key of a fact whose account has not been encoded */
+    public static final int UNASSIGNED = -1;
+
+    private final ConcurrentHashMap<String, Integer> keys;
+    private volatile String[] ids;
+    // Published after ids[key] is written, so a reader that sees the size sees the id
+    private volatile int size;
+
+    public AccountDictionary() {
+        this(1_024);
+    }
+
+    public AccountDictionary(int expectedAccounts) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("expectedAccounts must not be negative, got " + expectedAccounts);
+        }
+        this.keys = new ConcurrentHashMap<>(expectedAccounts);
+        this.ids = new String[Math.max(expectedAccounts, 16)];
+    }
+
+    /**
+     * Key of the account, assigning the next free key on first sight
+     */
+    public int encode(String accountId) {
+        Integer key = keys.get(Objects.requireNonNull(accountId, "accountId"));
+        return key != null ? key : assign(accountId);
+    }
+
+    /**
+     * Key of the account, or {@link #UNASSIGNED} if it was never encoded
+     */
+    public int lookup(String accountId) {
+        Integer key = keys.get(Objects.requireNonNull(accountId, "accountId"));
+        return key != null ? key : UNASSIGNED;
+    }
+
+    /**
+     * Key for a fact that may already carry one. A key that decodes to the
+     * same id is kept without hashing the id again; anything else (unassigned,
+     * or a key from another dictionary) is encoded.
+     */
+    public int keyOf(String accountId, int knownKey) {
+        if (knownKey >= 0 && knownKey < size) {
+            String known = ids[knownKey];
+            if (known == accountId || known.equals(accountId)) {
+                return knownKey;
+            }
+        }
+        return encode(accountId);
+    }
+
+    /**
+     * The account id the key was assigned to
+     */
+    public String decode(int key) {
+        if (key < 0 || key >= size) {
+            throw new IllegalArgumentException("Unknown account key " + key + " (" + size + " accounts encoded)");
+        }
+        return ids[key];
+    }
+
+    /**
+     * Accounts encoded so far; every key is below this
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int assign(String accountId) {
+        Integer existing = keys.get(accountId);
+        if (existing != null) {
+            return existing;
+        }
+        int key = size;
+        if (key == ids.length) {
+            ids = Arrays.copyOf(ids, key + (key >> 1));
+        }
+        ids[key] = accountId;
+        size = key + 1;
+        keys.put(accountId, key);
+        return key;
+    }
+}
@@ -0,0 +1,236 @@
+package com.bank.amb.model;
+
+import com.bank.amb.store.AmbBlock;
+import com.bank.amb.store.BalanceCursor;
+
+/**
+ * Precomputed AMB figures for one account and month.
+ *
+ * Inserted by the engine in place of the Account fact so rule patterns
+ * constrain on plain fields (shareable, indexable alpha constraints)
+ * instead of calling Account.calculateAMB inside every pattern.
+ */
+public class AccountMetrics {
+    private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED;     // dense key the rules join on
+    private String accountName;
+    private int month;
+    private long amb25Paise;        // AMB for days 1-25 (checked on day 25)
+    private long amb30Paise;        // AMB for the full month, whatever its length (checked on day 3)
+    private long deficit25Paise;    // minBalance - amb25, negative when maintained
+    private long deficit30Paise;    // minBalance - amb30, negative when maintained
+    private boolean belowMin25;
+    private boolean belowMin30;
+
+    public AccountMetrics() {
+    }
+
+    /**
+     * Compute the metrics for an account in the context's month.
+     * This is the only place the daily balances are scanned per cycle.
+     */
+    public static AccountMetrics of(Account account, ExecutionContext context) {
+        int days = account.getDaysInMonth();
+        return of(account.getAccountId(), account.getAccountName(),
+                account.getBalanceSumPaise(1, 25), account.getBalanceSumPaise(1, days), days, context);
+    }
+
+    /**
+     * Metrics from an accumulator's running sums, without any balance scan.
+     * The accumulator must hold the context's month.
+     */
+    public static AccountMetrics of(AmbAccumulator account, ExecutionContext context) {
+        checkMonth("accumulator", account.getAccountId(), account.getMonth(), context);
+        return of(account.getAccountId(), account.getAccountName(),
+                account.getPartialSumPaise(), account.getMonthSumPaise(), account.getDaysInMonth(), context);
+    }
+
+    /**
+     * Compute the metrics for the account a balance-store cursor is positioned on
+     */
+    public static AccountMetrics of(BalanceCursor account, ExecutionContext context) {
+        return of(account.getAccountId(), account.getAccountName(),
+                account.getBalanceSumPaise(1, 25), account.getBalanceSumPaise(1, 30),
+                Account.DEFAULT_DAYS_IN_MONTH, context);
+    }
+
+    /**
+     * Metrics from an opening balance and folded transactions, without daily
+     * balances. The activity must be of the context's month.
+     */
+    public static AccountMetrics of(AccountActivity account, ExecutionContext context) {
+        checkMonth("activity", account.getAccountId(), account.getMonth(), context);
+        return of(account.getAccountId(), account.getAccountName(),
+                account.getPartialSumPaise(), account.getMonthSumPaise(), account.getDaysInMonth(), context);
+    }
+
+    /**
+     * Metrics for one account of an evaluated block, from its bulk window sums
+     */
+    public static AccountMetrics of(AmbBlock block, int index, ExecutionContext context) {
+        return of(block.getAccountId(index), block.getAccountName(index),
+                block.getSum25Paise(index), block.getSumMonthPaise(index), block.getDaysInMonth(), context);
+    }
+
+    /**
+     * Sums of another month would be evaluated as the context's; refuse them
+     */
+    private static void checkMonth(String source, String accountId, int month, ExecutionContext context) {
+        if (month != context.getCurrentMonth()) {
+            throw new IllegalArgumentException("Month " + month + " " + source + " of account " + accountId
+                    + " cannot be evaluated in month " + context.getCurrentMonth());
+        }
+    }
+
+    /**
+     * AMB is the window sum over the days in the month. The below-minimum test
+     * compares the exact sums (sum < days x minBalance), so rounding the AMB to
+     * whole paise can never flip a decision.
+     */
+    private static AccountMetrics of(String accountId, String accountName, long sum25Paise, long sum30Paise,
+                                     int daysInMonth, ExecutionContext context) {
+        AccountMetrics metrics = new AccountMetrics();
+        metrics.setAccountId(accountId);
+        metrics.setAccountName(accountName);
+        metrics.setMonth(context.getCurrentMonth());
+
+        long minBalancePaise = context.getMinBalancePaise();
+        long amb25Paise = Money.divideRounded(sum25Paise, daysInMonth);
+        long amb30Paise = Money.divideRounded(sum30Paise, daysInMonth);
+        metrics.setAmb25Paise(amb25Paise);
+        metrics.setAmb30Paise(amb30Paise);
+        metrics.setDeficit25Paise(minBalancePaise - amb25Paise);
+        metrics.setDeficit30Paise(minBalancePaise - amb30Paise);
+        metrics.setBelowMin25(sum25Paise < daysInMonth * minBalancePaise);
+        metrics.setBelowMin30(sum30Paise < daysInMonth * minBalancePaise);
+        return metrics;
+    }
+
+    // Getters and Setters
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public int getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(int accountKey) {
+        this.accountKey = accountKey;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public double getAmb25() {
+        return Money.toRupees(amb25Paise);
+    }
+
+    public void setAmb25(double amb25) {
+        this.amb25Paise = Money.toPaise(amb25);
+    }
+
+    public long getAmb25Paise() {
+        return amb25Paise;
+    }
+
+    public void setAmb25Paise(long amb25Paise) {
+        this.amb25Paise = amb25Paise;
+    }
+
+    public double getAmb30() {
+        return Money.toRupees(amb30Paise);
+    }
+
+    public void setAmb30(double amb30) {
+        this.amb30Paise = Money.toPaise(amb30);
+    }
+
+    public long getAmb30Paise() {
+        return amb30Paise;
+    }
+
+    public void setAmb30Paise(long amb30Paise) {
+        this.amb30Paise = amb30Paise;
+    }
+
+    public double getDeficit25() {
+        return Money.toRupees(deficit25Paise);
+    }
+
+    public void setDeficit25(double deficit25) {
+        this.deficit25Paise = Money.toPaise(deficit25);
+    }
+
+    public long getDeficit25Paise() {
+        return deficit25Paise;
+    }
+
+    public void setDeficit25Paise(long deficit25Paise) {
+        this.deficit25Paise = deficit25Paise;
+    }
+
+    public double getDeficit30() {
+        return Money.toRupees(deficit30Paise);
+    }
+
+    public void setDeficit30(double deficit30) {
+        this.deficit30Paise = Money.toPaise(deficit30);
+    }
+
+    public long getDeficit30Paise() {
+        return deficit30Paise;
+    }
+
+    public void setDeficit30Paise(long deficit30Paise) {
+        this.deficit30Paise = deficit30Paise;
+    }
+
+    public boolean isBelowMin25() {
+        return belowMin25;
+    }
+
+    public void setBelowMin25(boolean belowMin25) {
+        this.belowMin25 = belowMin25;
+    }
+
+    public boolean isBelowMin30() {
+        return belowMin30;
+    }
+
+    public void setBelowMin30(boolean belowMin30) {
+        this.belowMin30 = belowMin30;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountMetrics{" +
+                "accountId='" + accountId + '\'' +
+                ", accountName='" + accountName + '\'' +
+                ", month=" + month +
+                ", amb25=" + Money.format(amb25Paise) +
+                ", amb30=" + Money.format(amb30Paise) +
+                ", deficit25=" + Money.format(deficit25Paise) +
+                ", deficit30=" + Money.format(deficit30Paise) +
+                ", belowMin25=" + belowMin25 +
+                ", belowMin30=" + belowMin30 +
+                '}';
+    }
+}
@@ -1,10 +1,15 @@
 package com.bank.amb.model;
 
+/**
+ * Money fields are held in paise (see {@link Money}); the double accessors
+ * convert to and from rupees.
+ */
 public class ActualDefaulter {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED;     // dense key the rules join on
     private int month;
-    private double amb;
-    private double shortfall;
+    private long ambPaise;
+    private long shortfallPaise;
     private String status;
 
     public ActualDefaulter() {
@@ -13,8 +18,8 @@ public class ActualDefaulter {
     public ActualDefaulter(String accountId, int month, double amb, double shortfall, String status) {
         this.accountId = accountId;
         this.month = month;
-        this.amb = amb;
-        this.shortfall = shortfall;
+        this.ambPaise = Money.toPaise(amb);
+        this.shortfallPaise = Money.toPaise(shortfall);
         this.status = status;
     }
 
@@ -27,6 +32,14 @@ public class ActualDefaulter {
         this.accountId = accountId;
     }
 
+    public int getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(int accountKey) {
+        this.accountKey = accountKey;
+    }
+
     public int getMonth() {
         return month;
     }
@@ -36,19 +49,35 @@ public class ActualDefaulter {
     }
 
     public double getAmb() {
-        return amb;
+        return Money.toRupees(ambPaise);
     }
 
     public void setAmb(double amb) {
-        this.amb = amb;
+        this.ambPaise = Money.toPaise(amb);
+    }
+
+    public long getAmbPaise() {
+        return ambPaise;
+    }
+
+    public void setAmbPaise(long ambPaise) {
+        this.ambPaise = ambPaise;
     }
 
     public double getShortfall() {
-        return shortfall;
+        return Money.toRupees(shortfallPaise);
     }
 
     public void setShortfall(double shortfall) {
-        this.shortfall = shortfall;
+        this.shortfallPaise = Money.toPaise(shortfall);
+    }
+
+    public long getShortfallPaise() {
+        return shortfallPaise;
+    }
+
+    public void setShortfallPaise(long shortfallPaise) {
+        this.shortfallPaise = shortfallPaise;
     }
 
     public String getStatus() {
@@ -64,8 +93,8 @@ public class ActualDefaulter {
         return "ActualDefaulter{" +
                 "accountId='" + accountId + '\'' +
                 ", month=" + month +
-                ", amb=" + amb +
-                ", shortfall=" + shortfall +
+                ", amb=" + Money.format(ambPaise) +
+                ", shortfall=" + Money.format(shortfallPaise) +
                 ", status='" + status + '\'' +
                 '}';
     }
@@ -0,0 +1,149 @@
+package com.bank.amb.model;
+
+import java.time.YearMonth;
+
+/**
+ * Running AMB sums for one account and month, fed one end-of-day balance
+ * at a time instead of being rebuilt from a full month of balances.
+ *
+ * The sum of days 1-25 is frozen once day 25 has been recorded; later days
+ * only add to the tail sum. The day-3 full-month AMB is therefore that
+ * stored partial plus days 26 to the end of the month, and the state to
+ * persist between the two checks is just the two sums and the last day
+ * (see {@link #restore}).
+ *
+ * AMB divides by the real length of the month (28-31 days). Days that have
+ * not been recorded, including gaps, count as zero balance, as they do in
+ * {@link Account#calculateAMB}.
+ */
+public class AmbAccumulator {
+
+    public static final int PARTIAL_DAY = 25;
+
+    private final String accountId;
+    private final String accountName;
+    private final int month;
+    private final int daysInMonth;
+    private long partialSumPaise; // days 1-25
+    private long tailSumPaise;    // days 26 to the end of the month
+    private int lastDay;          // last day recorded, 0 before the first
+
+    public AmbAccumulator(String accountId, String accountName, int month, int daysInMonth) {
+        if (daysInMonth < 28 || daysInMonth > 31) {
+            throw new IllegalArgumentException("daysInMonth must be 28-31, got " + daysInMonth);
+        }
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.month = month;
+        this.daysInMonth = daysInMonth;
+    }
+
+    /**
+     * Accumulator sized to a calendar month; month is the engine's month number
+     */
+    public static AmbAccumulator forMonth(String accountId, String accountName, int month, YearMonth calendarMonth) {
+        return new AmbAccumulator(accountId, accountName, month, calendarMonth.lengthOfMonth());
+    }
+
+    /**
+     * Rebuild an accumulator from persisted state, e.g. the day-25 partial
+     * sum saved at the day-25 check, before recording days 26 onwards.
+     */
+    public static AmbAccumulator restore(String accountId, String accountName, int month, int daysInMonth,
+                                         int lastDay, long partialSumPaise, long tailSumPaise) {
+        AmbAccumulator accumulator = new AmbAccumulator(accountId, accountName, month, daysInMonth);
+        if (lastDay < 0 || lastDay > daysInMonth || (lastDay <= PARTIAL_DAY && tailSumPaise != 0)) {
+            throw new IllegalArgumentException("Inconsistent accumulator state for " + accountId
+                    + ": lastDay=" + lastDay + ", tailSumPaise=" + tailSumPaise);
+        }
+        accumulator.lastDay = lastDay;
+        accumulator.partialSumPaise = partialSumPaise;
+        accumulator.tailSumPaise = tailSumPaise;
+        return accumulator;
+    }
+
+    public void recordBalance(int day, double balance) {
+        recordBalancePaise(day, Money.toPaise(balance));
+    }
+
+    /**
+     * Add one day's end-of-day balance. Days must arrive in increasing order.
+     */
+    public void recordBalancePaise(int day, long balancePaise) {
+        if (day <= lastDay || day > daysInMonth) {
+            throw new IllegalArgumentException("Day " + day + " for " + accountId
+                    + " must be after day " + lastDay + " and within " + daysInMonth + " days");
+        }
+        if (day <= PARTIAL_DAY) {
+            partialSumPaise += balancePaise;
+        } else {
+            tailSumPaise += balancePaise;
+        }
+        lastDay = day;
+    }
+
+    /**
+     * Sum of days 1-25; final once day 25 (or any later day) has been recorded
+     */
+    public long getPartialSumPaise() {
+        return partialSumPaise;
+    }
+
+    public long getTailSumPaise() {
+        return tailSumPaise;
+    }
+
+    public long getMonthSumPaise() {
+        return partialSumPaise + tailSumPaise;
+    }
+
+    /**
+     * Day-25 AMB: days 1-25 over the length of the month, rounded to the nearest paisa
+     */
+    public long calculatePartialAMBPaise() {
+        return Money.divideRounded(partialSumPaise, daysInMonth);
+    }
+
+    /**
+     * Full-month AMB, rounded to the nearest paisa
+     */
+    public long calculateAMBPaise() {
+        return Money.divideRounded(getMonthSumPaise(), daysInMonth);
+    }
+
+    public boolean isComplete() {
+        return lastDay == daysInMonth;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDaysInMonth() {
+        return daysInMonth;
+    }
+
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    @Override
+    public String toString() {
+        return "AmbAccumulator{" +
+                "accountId='" + accountId + '\'' +
+                ", month=" + month +
+                ", daysInMonth=" + daysInMonth +
+                ", lastDay=" + lastDay +
+                ", partialSum=" + Money.format(partialSumPaise) +
+                ", tailSum=" + Money.format(tailSumPaise) +
+                '}';
+    }
+}
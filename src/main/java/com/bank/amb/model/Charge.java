@@ -1,15 +1,20 @@
 package com.bank.amb.model;
 
+/**
+ * Money fields are held in paise (see {@link Money}); the double accessors
+ * convert to and from rupees.
+ */
 public class Charge {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED;     // dense key the rules join on
     private int month1;
     private int month2;
-    private double shortfall1;
-    private double shortfall2;
-    private double totalShortfall;
-    private double baseCharge;
-    private double gstAmount;
-    private double totalCharge;
+    private long shortfall1Paise;
+    private long shortfall2Paise;
+    private long totalShortfallPaise;
+    private long baseChargePaise;
+    private long gstAmountPaise;
+    private long totalChargePaise;
     private String reason;
     private int chargedInMonth;
 
@@ -20,9 +25,9 @@ public class Charge {
         this.accountId = accountId;
         this.month1 = month1;
         this.month2 = month2;
-        this.shortfall1 = shortfall1;
-        this.shortfall2 = shortfall2;
-        this.totalShortfall = shortfall1 + shortfall2;
+        this.shortfall1Paise = Money.toPaise(shortfall1);
+        this.shortfall2Paise = Money.toPaise(shortfall2);
+        this.totalShortfallPaise = shortfall1Paise + shortfall2Paise;
     }
 
     // Getters and Setters
@@ -34,6 +39,14 @@ public class Charge {
         this.accountId = accountId;
     }
 
+    public int getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(int accountKey) {
+        this.accountKey = accountKey;
+    }
+
     public int getMonth1() {
         return month1;
     }
@@ -51,51 +64,99 @@ public class Charge {
     }
 
     public double getShortfall1() {
-        return shortfall1;
+        return Money.toRupees(shortfall1Paise);
     }
 
     public void setShortfall1(double shortfall1) {
-        this.shortfall1 = shortfall1;
+        this.shortfall1Paise = Money.toPaise(shortfall1);
+    }
+
+    public long getShortfall1Paise() {
+        return shortfall1Paise;
+    }
+
+    public void setShortfall1Paise(long shortfall1Paise) {
+        this.shortfall1Paise = shortfall1Paise;
     }
 
     public double getShortfall2() {
-        return shortfall2;
+        return Money.toRupees(shortfall2Paise);
     }
 
     public void setShortfall2(double shortfall2) {
-        this.shortfall2 = shortfall2;
+        this.shortfall2Paise = Money.toPaise(shortfall2);
+    }
+
+    public long getShortfall2Paise() {
+        return shortfall2Paise;
+    }
+
+    public void setShortfall2Paise(long shortfall2Paise) {
+        this.shortfall2Paise = shortfall2Paise;
     }
 
     public double getTotalShortfall() {
-        return totalShortfall;
+        return Money.toRupees(totalShortfallPaise);
     }
 
     public void setTotalShortfall(double totalShortfall) {
-        this.totalShortfall = totalShortfall;
+        this.totalShortfallPaise = Money.toPaise(totalShortfall);
+    }
+
+    public long getTotalShortfallPaise() {
+        return totalShortfallPaise;
+    }
+
+    public void setTotalShortfallPaise(long totalShortfallPaise) {
+        this.totalShortfallPaise = totalShortfallPaise;
     }
 
     public double getBaseCharge() {
-        return baseCharge;
+        return Money.toRupees(baseChargePaise);
     }
 
     public void setBaseCharge(double baseCharge) {
-        this.baseCharge = baseCharge;
+        this.baseChargePaise = Money.toPaise(baseCharge);
+    }
+
+    public long getBaseChargePaise() {
+        return baseChargePaise;
+    }
+
+    public void setBaseChargePaise(long baseChargePaise) {
+        this.baseChargePaise = baseChargePaise;
     }
 
     public double getGstAmount() {
-        return gstAmount;
+        return Money.toRupees(gstAmountPaise);
     }
 
     public void setGstAmount(double gstAmount) {
-        this.gstAmount = gstAmount;
+        this.gstAmountPaise = Money.toPaise(gstAmount);
+    }
+
+    public long getGstAmountPaise() {
+        return gstAmountPaise;
+    }
+
+    public void setGstAmountPaise(long gstAmountPaise) {
+        this.gstAmountPaise = gstAmountPaise;
     }
 
     public double getTotalCharge() {
-        return totalCharge;
+        return Money.toRupees(totalChargePaise);
     }
 
     public void setTotalCharge(double totalCharge) {
-        this.totalCharge = totalCharge;
+        this.totalChargePaise = Money.toPaise(totalCharge);
+    }
+
+    public long getTotalChargePaise() {
+        return totalChargePaise;
+    }
+
+    public void setTotalChargePaise(long totalChargePaise) {
+        this.totalChargePaise = totalChargePaise;
     }
 
     public String getReason() {
@@ -120,12 +181,12 @@ public class Charge {
                 "accountId='" + accountId + '\'' +
                 ", month1=" + month1 +
                 ", month2=" + month2 +
-                ", shortfall1=" + shortfall1 +
-                ", shortfall2=" + shortfall2 +
-                ", totalShortfall=" + totalShortfall +
-                ", baseCharge=" + baseCharge +
-                ", gstAmount=" + gstAmount +
-                ", totalCharge=" + totalCharge +
+                ", shortfall1=" + Money.format(shortfall1Paise) +
+                ", shortfall2=" + Money.format(shortfall2Paise) +
+                ", totalShortfall=" + Money.format(totalShortfallPaise) +
+                ", baseCharge=" + Money.format(baseChargePaise) +
+                ", gstAmount=" + Money.format(gstAmountPaise) +
+                ", totalCharge=" + Money.format(totalChargePaise) +
                 ", reason='" + reason + '\'' +
                 ", chargedInMonth=" + chargedInMonth +
                 '}';
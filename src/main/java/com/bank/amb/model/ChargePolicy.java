@@ -0,0 +1,23 @@
+package com.bank.amb.model;
+
+/**
+ * AMB non-maintenance charge formula, per defaulted month, in paise:
+ * 6% of the shortfall capped at ₹500, plus 18% GST on that base charge.
+ */
+public final class ChargePolicy {
+
+    public static final long BASE_RATE_BASIS_POINTS = 600;
+    public static final long BASE_CAP_PAISE = 500 * Money.PAISE_PER_RUPEE;
+    public static final long GST_RATE_BASIS_POINTS = 1_800;
+
+    private ChargePolicy() {
+    }
+
+    public static long baseChargePaise(long shortfallPaise) {
+        return Math.min(Money.percentOf(shortfallPaise, BASE_RATE_BASIS_POINTS), BASE_CAP_PAISE);
+    }
+
+    public static long gstPaise(long baseChargePaise) {
+        return Money.percentOf(baseChargePaise, GST_RATE_BASIS_POINTS);
+    }
+}
@@ -0,0 +1,133 @@
+package com.bank.amb.model;
+
+/**
+ * Compact, immutable record of one rule decision, emitted by the rule
+ * consequences instead of formatted console output.
+ *
+ * Amounts are held in paise (see {@link Money}); amount fields that do not
+ * apply to a decision type are 0.
+ */
+public final class DecisionEvent {
+
+    public enum Type {
+        PROBABLE_DEFAULTER,
+        BALANCE_MAINTAINED,
+        ACTUAL_DEFAULTER,
+        CHARGE
+    }
+
+    private final Type type;
+    private final String ruleId;
+    private final String accountId;
+    private final String accountName;
+    private final int month;
+    private final long ambPaise;
+    private final long requiredBalancePaise;
+    private final long shortfallPaise;
+    private final boolean smsSent;
+    private final int month1;
+    private final int month2;
+    private final long shortfall1Paise;
+    private final long shortfall2Paise;
+    private final long baseChargePaise;
+    private final long gstAmountPaise;
+    private final long totalChargePaise;
+    private final long timestampMillis;
+
+    private DecisionEvent(Type type, String ruleId, String accountId, String accountName, int month,
+                          long ambPaise, long requiredBalancePaise, long shortfallPaise, boolean smsSent,
+                          int month1, int month2, long shortfall1Paise, long shortfall2Paise,
+                          long baseChargePaise, long gstAmountPaise, long totalChargePaise) {
+        this.type = type;
+        this.ruleId = ruleId;
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.month = month;
+        this.ambPaise = ambPaise;
+        this.requiredBalancePaise = requiredBalancePaise;
+        this.shortfallPaise = shortfallPaise;
+        this.smsSent = smsSent;
+        this.month1 = month1;
+        this.month2 = month2;
+        this.shortfall1Paise = shortfall1Paise;
+        this.shortfall2Paise = shortfall2Paise;
+        this.baseChargePaise = baseChargePaise;
+        this.gstAmountPaise = gstAmountPaise;
+        this.totalChargePaise = totalChargePaise;
+        this.timestampMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Day-25 AMB below the minimum; month is the month being checked
+     */
+    public static DecisionEvent probableDefaulter(String ruleId, String accountId, String accountName, int month,
+                                                  long ambPaise, long requiredBalancePaise, long deficitPaise,
+                                                  boolean smsSent) {
+        return new DecisionEvent(Type.PROBABLE_DEFAULTER, ruleId, accountId, accountName, month,
+                ambPaise, requiredBalancePaise, deficitPaise, smsSent, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static DecisionEvent balanceMaintained(String ruleId, String accountId, String accountName, int month) {
+        return new DecisionEvent(Type.BALANCE_MAINTAINED, ruleId, accountId, accountName, month,
+                0, 0, 0, false, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Full-month AMB below the minimum; month is the defaulted month
+     */
+    public static DecisionEvent actualDefaulter(String ruleId, String accountName, ActualDefaulter defaulter,
+                                                long requiredBalancePaise) {
+        return new DecisionEvent(Type.ACTUAL_DEFAULTER, ruleId, defaulter.getAccountId(), accountName,
+                defaulter.getMonth(), defaulter.getAmbPaise(), requiredBalancePaise, defaulter.getShortfallPaise(), false,
+                0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Charge levied for two consecutive defaults; month is the month charged in
+     */
+    public static DecisionEvent charge(String ruleId, String accountName, Charge charge) {
+        return new DecisionEvent(Type.CHARGE, ruleId, charge.getAccountId(), accountName,
+                charge.getChargedInMonth(), 0, 0, charge.getTotalShortfallPaise(), false,
+                charge.getMonth1(), charge.getMonth2(), charge.getShortfall1Paise(), charge.getShortfall2Paise(),
+                charge.getBaseChargePaise(), charge.getGstAmountPaise(), charge.getTotalChargePaise());
+    }
+
+    public Type getType() { return type; }
+    public String getRuleId() { return ruleId; }
+    public String getAccountId() { return accountId; }
+    public String getAccountName() { return accountName; }
+    public int getMonth() { return month; }
+    public double getAmb() { return Money.toRupees(ambPaise); }
+    public long getAmbPaise() { return ambPaise; }
+    public double getRequiredBalance() { return Money.toRupees(requiredBalancePaise); }
+    public long getRequiredBalancePaise() { return requiredBalancePaise; }
+    public double getShortfall() { return Money.toRupees(shortfallPaise); }
+    public long getShortfallPaise() { return shortfallPaise; }
+    public boolean isSmsSent() { return smsSent; }
+    public int getMonth1() { return month1; }
+    public int getMonth2() { return month2; }
+    public double getShortfall1() { return Money.toRupees(shortfall1Paise); }
+    public long getShortfall1Paise() { return shortfall1Paise; }
+    public double getShortfall2() { return Money.toRupees(shortfall2Paise); }
+    public long getShortfall2Paise() { return shortfall2Paise; }
+    public double getBaseCharge() { return Money.toRupees(baseChargePaise); }
+    public long getBaseChargePaise() { return baseChargePaise; }
+    public double getGstAmount() { return Money.toRupees(gstAmountPaise); }
+    public long getGstAmountPaise() { return gstAmountPaise; }
+    public double getTotalCharge() { return Money.toRupees(totalChargePaise); }
+    public long getTotalChargePaise() { return totalChargePaise; }
+    public long getTimestampMillis() { return timestampMillis; }
+
+    @Override
+    public String toString() {
+        return "DecisionEvent{" +
+                "type=" + type +
+                ", ruleId='" + ruleId + '\'' +
+                ", accountId='" + accountId + '\'' +
+                ", month=" + month +
+                ", amb=" + Money.format(ambPaise) +
+                ", shortfall=" + Money.format(shortfallPaise) +
+                ", totalCharge=" + Money.format(totalChargePaise) +
+                '}';
+    }
+}
@@ -3,7 +3,7 @@ package com.bank.amb.model;
 public class ExecutionContext {
     private int currentMonth;
     private int checkDay; // 26 or 3
-    private double minBalance = 10000.0;
+    private long minBalancePaise = 10_000 * Money.PAISE_PER_RUPEE;
 
     public ExecutionContext() {
     }
@@ -30,12 +30,36 @@ public class ExecutionContext {
         this.checkDay = checkDay;
     }
 
+    /**
+     * Month the day-25 / day-3 rules look back at. Exposed as a property so
+     * rule joins use an equality on a bound value (hash-indexable) rather
+     * than the computed expression currentMonth - 1.
+     */
+    public int getPrevMonth() {
+        return currentMonth - 1;
+    }
+
+    /**
+     * Second look-back month for the charge rule, see {@link #getPrevMonth()}.
+     */
+    public int getTwoMonthsBack() {
+        return currentMonth - 2;
+    }
+
     public double getMinBalance() {
-        return minBalance;
+        return Money.toRupees(minBalancePaise);
     }
 
     public void setMinBalance(double minBalance) {
-        this.minBalance = minBalance;
+        this.minBalancePaise = Money.toPaise(minBalance);
+    }
+
+    public long getMinBalancePaise() {
+        return minBalancePaise;
+    }
+
+    public void setMinBalancePaise(long minBalancePaise) {
+        this.minBalancePaise = minBalancePaise;
     }
 
     @Override
@@ -43,7 +67,7 @@ public class ExecutionContext {
         return "ExecutionContext{" +
                 "currentMonth=" + currentMonth +
                 ", checkDay=" + checkDay +
-                ", minBalance=" + minBalance +
+                ", minBalance=" + Money.format(minBalancePaise) +
                 '}';
     }
 }
\ No newline at end of file
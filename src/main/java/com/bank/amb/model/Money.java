@@ -0,0 +1,53 @@
+package com.bank.amb.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on long paise (1 rupee = 100 paise).
+ *
+ * Balances, AMB, shortfalls and charges are held as paise so sums are
+ * exact and the charge formula is integer-only. Conversions to and from
+ * double rupees happen only at the edges (constructors, reports).
+ * Every method takes and returns primitives, so hot loops never box.
+ */
+public final class Money {
+
+    public static final long PAISE_PER_RUPEE = 100;
+    public static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Nearest paisa to a rupee amount
+     */
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * PAISE_PER_RUPEE);
+    }
+
+    public static double toRupees(long paise) {
+        return paise / (double) PAISE_PER_RUPEE;
+    }
+
+    /**
+     * dividend / divisor rounded half away from zero (divisor must be positive)
+     */
+    public static long divideRounded(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0 ? (dividend + half) / divisor : -((-dividend + half) / divisor);
+    }
+
+    /**
+     * Share of an amount given in basis points (600 = 6%), rounded to the nearest paisa
+     */
+    public static long percentOf(long paise, long basisPoints) {
+        return divideRounded(paise * basisPoints, BASIS_POINTS);
+    }
+
+    /**
+     * Exact rupee string with two decimals, e.g. 123456 -> "1234.56"
+     */
+    public static String format(long paise) {
+        return BigDecimal.valueOf(paise, 2).toPlainString();
+    }
+}
@@ -1,9 +1,14 @@
 package com.bank.amb.model;
 
+/**
+ * Money fields are held in paise (see {@link Money}); the double accessors
+ * convert to and from rupees.
+ */
 public class ProbableDefaulter {
     private String accountId;
+    private int accountKey = AccountDictionary.UNASSIGNED;     // dense key the rules join on
     private int month;
-    private double amb;
+    private long ambPaise;
     private boolean smsSent;
     private String reason;
 
@@ -13,7 +18,7 @@ public class ProbableDefaulter {
     public ProbableDefaulter(String accountId, int month, double amb, boolean smsSent, String reason) {
         this.accountId = accountId;
         this.month = month;
-        this.amb = amb;
+        this.ambPaise = Money.toPaise(amb);
         this.smsSent = smsSent;
         this.reason = reason;
     }
@@ -27,6 +32,14 @@ public class ProbableDefaulter {
         this.accountId = accountId;
     }
 
+    public int getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(int accountKey) {
+        this.accountKey = accountKey;
+    }
+
     public int getMonth() {
         return month;
     }
@@ -36,11 +49,19 @@ public class ProbableDefaulter {
     }
 
     public double getAmb() {
-        return amb;
+        return Money.toRupees(ambPaise);
     }
 
     public void setAmb(double amb) {
-        this.amb = amb;
+        this.ambPaise = Money.toPaise(amb);
+    }
+
+    public long getAmbPaise() {
+        return ambPaise;
+    }
+
+    public void setAmbPaise(long ambPaise) {
+        this.ambPaise = ambPaise;
     }
 
     public boolean isSmsSent() {
@@ -64,7 +85,7 @@ public class ProbableDefaulter {
         return "ProbableDefaulter{" +
                 "accountId='" + accountId + '\'' +
                 ", month=" + month +
-                ", amb=" + amb +
+                ", amb=" + Money.format(ambPaise) +
                 ", smsSent=" + smsSent +
                 ", reason='" + reason + '\'' +
                 '}';
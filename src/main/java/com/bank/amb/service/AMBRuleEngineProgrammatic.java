@@ -1,285 +1,166 @@
 package com.bank.amb.service;
 
 import com.bank.amb.model.*;
+import com.bank.amb.store.BalanceStore;
+import org.kie.api.KieBase;
 import org.kie.api.KieServices;
-import org.kie.api.builder.KieBuilder;
-import org.kie.api.builder.KieFileSystem;
-import org.kie.api.builder.Message;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
 import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 /**
- * AMB Rule Engine - Programmatic Configuration (No XML needed)
- * This version creates rules programmatically to avoid kmodule.xml issues
+ * AMB Rule Engine - Programmatic Configuration
+ * Rules in src/main/resources/rules are compiled into the Drools executable
+ * model by kie-maven-plugin at build time and loaded from the classpath here.
+ *
+ * Alternatively the rules can be loaded from a DRL file or directory (see
+ * {@link #RULES_PATH_PROPERTY}). The files are then watched and recompiled in
+ * the background, and the new KieBase is swapped in atomically: batches
+ * already running finish on the rules they started with. With a cache
+ * directory (see {@link #RULES_CACHE_DIR_PROPERTY}) the compiled rules are
+ * kept on disk, so short-lived jobs on unchanged DRL skip compilation.
+ *
+ * Rule consequences publish {@link com.bank.amb.model.DecisionEvent}s instead
+ * of printing; add sinks through {@link #getDecisionEvents()} or the
+ * {@link #DECISIONS_FILE_PROPERTY} / {@link #DECISIONS_CONSOLE_PROPERTY} properties.
+ *
+ * Every fact is given the {@link AccountDictionary} key of its account as it
+ * enters a session, and the rules join on that int instead of the id String.
+ * History facts passed to a run are keyed in place: their accountKey is
+ * overwritten unless it already decodes to their accountId. Facts without a
+ * key never join.
+ *
+ * The engine keeps one dictionary for its lifetime so keys stay stable across
+ * runs, rules versions and incremental sessions. It only grows: every account
+ * id any run has seen stays encoded (one map entry and one array slot each),
+ * including the ids streamed through {@link #executeRulesStreaming}. Start a
+ * new engine to release ids of accounts that are gone for good.
  */
 public class AMBRuleEngineProgrammatic {
 
+    // KieBase declared in META-INF/kmodule.xml, compiled from rules/*.drl at build time
+    public static final String KIE_BASE_NAME = "ambRules";
+
+    // System property naming a DRL file or directory to load (and watch) instead of the classpath rules
+    public static final String RULES_PATH_PROPERTY = "amb.rules.path";
+
+    // System property naming a directory for compiled DRL rules shared across JVM starts
+    public static final String RULES_CACHE_DIR_PROPERTY = "amb.rules.cache.dir";
+
+    // System property naming a JSON Lines file that receives every decision event
+    public static final String DECISIONS_FILE_PROPERTY = "amb.decisions.file";
+
+    // System property that, when "true", renders decision events on the console (off by default)
+    public static final String DECISIONS_CONSOLE_PROPERTY = "amb.decisions.console";
+
+    // Accounts per fireAllRules in executeRulesStreaming
+    public static final int DEFAULT_STREAMING_CHUNK_SIZE = 1_000;
+
+    // Agenda groups declared in bank-amb-rules.drl, one per check day
+    public static final String DAY25_AGENDA_GROUP = "day25";
+    public static final String DAY3_AGENDA_GROUP = "day3";
+
     private KieServices kieServices;
     private KieContainer kieContainer;
-
-    // Inline DRL Rules as String - FIXED checkDay
-    private static final String DRL_RULES =
-            "package com.bank.amb.rules;\n" +
-                    "\n" +
-                    "import com.bank.amb.model.Account;\n" +
-                    "import com.bank.amb.model.ProbableDefaulter;\n" +
-                    "import com.bank.amb.model.ActualDefaulter;\n" +
-                    "import com.bank.amb.model.Charge;\n" +
-                    "import com.bank.amb.model.ExecutionContext;\n" +
-                    "\n" +
-                    "global java.util.List probableDefaultersList;\n" +
-                    "global java.util.List actualDefaultersList;\n" +
-                    "global java.util.List chargesList;\n" +
-                    "\n" +
-                    "// RULE 1A: Probable Defaulter - Was Actual Defaulter Last Month (NO SMS)\n" +
-                    "rule \"R1A_ProbableDefaulter_WasActualPrevMonth_NoSMS\"\n" +
-                    "    salience 110\n" +
-                    "    when\n" +
-                    "        $context : ExecutionContext( checkDay == 25 )\n" +
-                    "        $account : Account(\n" +
-                    "            $accountId : accountId,\n" +
-                    "            $accountName : accountName,\n" +
-                    "            $currentMonth : currentMonth,\n" +
-                    "            $amb : calculateAMB(1, 25),\n" +
-                    "            calculateAMB(1, 25) < $context.minBalance\n" +
-                    "        )\n" +
-                    "        ActualDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 1)\n" +
-                    "        )\n" +
-                    "        not ProbableDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == $currentMonth\n" +
-                    "        )\n" +
-                    "    then\n" +
-                    "        ProbableDefaulter pd = new ProbableDefaulter();\n" +
-                    "        pd.setAccountId($accountId);\n" +
-                    "        pd.setMonth($currentMonth);\n" +
-                    "        pd.setAmb($amb);\n" +
-                    "        pd.setSmsSent(false);\n" +
-                    "        pd.setReason(\"Was actual defaulter in Month \" + ($currentMonth - 1) + \" - NO SMS\");\n" +
-                    "\n" +
-                    "        insert(pd);\n" +
-                    "        probableDefaultersList.add(pd);\n" +
-                    "\n" +
-                    "        System.out.println(\"═══════════════════════════════════════════════════════════\");\n" +
-                    "        System.out.println(\"[RULE 1A] PROBABLE DEFAULTER IDENTIFIED\");\n" +
-                    "        System.out.println(\"  Account ID: \" + $accountId);\n" +
-                    "        System.out.println(\"  Account Name: \" + $accountName);\n" +
-                    "        System.out.println(\"  Month: \" + $currentMonth);\n" +
-                    "        System.out.println(\"  AMB (Day 1-25): ₹\" + String.format(\"%.2f\", $amb));\n" +
-                    "        System.out.println(\"  SMS Status: NOT SENT (was actual defaulter in Month \" + ($currentMonth - 1) + \")\");\n" +
-                    "        System.out.println(\"  Reason: Continuing defaulter - SMS already sent earlier\");\n" +
-                    "        System.out.println(\"═══════════════════════════════════════════════════════════\");\n" +
-                    "end\n" +
-                    "\n" +
-                    "// RULE 1B: Probable Defaulter - New (SEND SMS)\n" +
-                    "rule \"R1B_ProbableDefaulter_New_SendSMS\"\n" +
-                    "    salience 100\n" +
-                    "    when\n" +
-                    "        $context : ExecutionContext( checkDay == 25 )\n" +
-                    "        $account : Account(\n" +
-                    "            $accountId : accountId,\n" +
-                    "            $accountName : accountName,\n" +
-                    "            $currentMonth : currentMonth,\n" +
-                    "            $amb : calculateAMB(1, 25),\n" +
-                    "            calculateAMB(1, 25) < $context.minBalance\n" +
-                    "        )\n" +
-                    "        not ActualDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 1)\n" +
-                    "        )\n" +
-                    "        not ProbableDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == $currentMonth\n" +
-                    "        )\n" +
-                    "    then\n" +
-                    "        ProbableDefaulter pd = new ProbableDefaulter();\n" +
-                    "        pd.setAccountId($accountId);\n" +
-                    "        pd.setMonth($currentMonth);\n" +
-                    "        pd.setAmb($amb);\n" +
-                    "        pd.setSmsSent(true);\n" +
-                    "        pd.setReason(\"New probable defaulter - SMS sent\");\n" +
-                    "\n" +
-                    "        insert(pd);\n" +
-                    "        probableDefaultersList.add(pd);\n" +
-                    "\n" +
-                    "        System.out.println(\"═══════════════════════════════════════════════════════════\");\n" +
-                    "        System.out.println(\"[RULE 1B] NEW PROBABLE DEFAULTER IDENTIFIED\");\n" +
-                    "        System.out.println(\"  Account ID: \" + $accountId);\n" +
-                    "        System.out.println(\"  Account Name: \" + $accountName);\n" +
-                    "        System.out.println(\"  Month: \" + $currentMonth);\n" +
-                    "        System.out.println(\"  AMB (Day 1-25): ₹\" + String.format(\"%.2f\", $amb));\n" +
-                    "        System.out.println(\"  Required Balance: ₹\" + String.format(\"%.2f\", $context.getMinBalance()));\n" +
-                    "        System.out.println(\"  Deficit: ₹\" + String.format(\"%.2f\", ($context.getMinBalance() - $amb)));\n" +
-                    "        System.out.println(\"  ✉️  SMS: SENT\");\n" +
-                    "        System.out.println(\"  Message: Your average monthly balance is below minimum\");\n" +
-                    "        System.out.println(\"           required. Please maintain sufficient balance or\");\n" +
-                    "        System.out.println(\"           charges will be deducted.\");\n" +
-                    "        System.out.println(\"═══════════════════════════════════════════════════════════\");\n" +
-                    "end\n" +
-                    "\n" +
-                    "// RULE 2: Actual Defaulter Check\n" +
-                    "rule \"R2_ActualDefaulter\"\n" +
-                    "    salience 80\n" +
-                    "    when\n" +
-                    "        $context : ExecutionContext( checkDay == 3 )\n" +
-                    "        $account : Account(\n" +
-                    "            $accountId : accountId,\n" +
-                    "            $accountName : accountName,\n" +
-                    "            $currentMonth : currentMonth,\n" +
-                    "            $amb : calculateAMB(1, 30),\n" +
-                    "            calculateAMB(1, 30) < $context.minBalance\n" +
-                    "        )\n" +
-                    "        $pd : ProbableDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 1)\n" +
-                    "        )\n" +
-                    "        not ActualDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 1)\n" +
-                    "        )\n" +
-                    "    then\n" +
-                    "        ActualDefaulter ad = new ActualDefaulter();\n" +
-                    "        ad.setAccountId($accountId);\n" +
-                    "        ad.setMonth($currentMonth - 1);\n" +
-                    "        ad.setAmb($amb);\n" +
-                    "        ad.setShortfall($context.getMinBalance() - $amb);\n" +
-                    "        ad.setStatus(\"Confirmed actual defaulter for Month \" + ($currentMonth - 1));\n" +
-                    "\n" +
-                    "        insert(ad);\n" +
-                    "        actualDefaultersList.add(ad);\n" +
-                    "\n" +
-                    "        System.out.println(\"╔═══════════════════════════════════════════════════════════╗\");\n" +
-                    "        System.out.println(\"║ [RULE 2] ACTUAL DEFAULTER CONFIRMED                      ║\");\n" +
-                    "        System.out.println(\"╚═══════════════════════════════════════════════════════════╝\");\n" +
-                    "        System.out.println(\"  Account ID: \" + $accountId);\n" +
-                    "        System.out.println(\"  Account Name: \" + $accountName);\n" +
-                    "        System.out.println(\"  Defaulted Month: \" + ad.getMonth());\n" +
-                    "        System.out.println(\"  Full Month AMB: ₹\" + String.format(\"%.2f\", $amb));\n" +
-                    "        System.out.println(\"  Required Balance: ₹\" + String.format(\"%.2f\", $context.getMinBalance()));\n" +
-                    "        System.out.println(\"  Shortfall: ₹\" + String.format(\"%.2f\", ad.getShortfall()));\n" +
-                    "        System.out.println(\"  Status: \" + ad.getStatus());\n" +
-                    "        System.out.println(\"╚═══════════════════════════════════════════════════════════╝\");\n" +
-                    "end\n" +
-                    "\n" +
-                    "// RULE 3: Charge Calculation (Separate charges per month, then sum)\n" +
-                    "rule \"R3_ChargeCalculation\"\n" +
-                    "    salience 70\n" +
-                    "    when\n" +
-                    "        $context : ExecutionContext( checkDay == 3 )\n" +
-                    "        $account : Account(\n" +
-                    "            $accountId : accountId,\n" +
-                    "            $accountName : accountName,\n" +
-                    "            $currentMonth : currentMonth\n" +
-                    "        )\n" +
-                    "        $ad1 : ActualDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 2),\n" +
-                    "            $shortfall1 : shortfall\n" +
-                    "        )\n" +
-                    "        $ad2 : ActualDefaulter(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            month == ($currentMonth - 1),\n" +
-                    "            $shortfall2 : shortfall\n" +
-                    "        )\n" +
-                    "        not Charge(\n" +
-                    "            accountId == $accountId,\n" +
-                    "            chargedInMonth == ($currentMonth - 1) || chargedInMonth == ($currentMonth - 2)\n" +
-                    "        )\n" +
-                    "    then\n" +
-                    "        // Calculate charge for Month 1\n" +
-                    "        double baseCharge1 = Math.min($shortfall1 * 0.06, 500.0);\n" +
-                    "        double gst1 = baseCharge1 * 0.18;\n" +
-                    "        double totalCharge1 = baseCharge1 + gst1;\n" +
-                    "\n" +
-                    "        // Calculate charge for Month 2\n" +
-                    "        double baseCharge2 = Math.min($shortfall2 * 0.06, 500.0);\n" +
-                    "        double gst2 = baseCharge2 * 0.18;\n" +
-                    "        double totalCharge2 = baseCharge2 + gst2;\n" +
-                    "\n" +
-                    "        // Total\n" +
-                    "        double totalShortfall = $shortfall1 + $shortfall2;\n" +
-                    "        double totalBaseCharge = baseCharge1 + baseCharge2;\n" +
-                    "        double totalGST = gst1 + gst2;\n" +
-                    "        double grandTotal = totalCharge1 + totalCharge2;\n" +
-                    "\n" +
-                    "        Charge charge = new Charge();\n" +
-                    "        charge.setAccountId($accountId);\n" +
-                    "        charge.setMonth1($currentMonth - 2);\n" +
-                    "        charge.setMonth2($currentMonth - 1);\n" +
-                    "        charge.setShortfall1($shortfall1);\n" +
-                    "        charge.setShortfall2($shortfall2);\n" +
-                    "        charge.setTotalShortfall(totalShortfall);\n" +
-                    "        charge.setBaseCharge(totalBaseCharge);\n" +
-                    "        charge.setGstAmount(totalGST);\n" +
-                    "        charge.setTotalCharge(grandTotal);\n" +
-                    "        charge.setChargedInMonth($currentMonth);\n" +
-                    "        charge.setReason(\"Charged for 2-month consecutive defaults\");\n" +
-                    "\n" +
-                    "        insert(charge);\n" +
-                    "        chargesList.add(charge);\n" +
-                    "\n" +
-                    "        System.out.println(\"\\n\");\n" +
-                    "        System.out.println(\"╔═══════════════════════════════════════════════════════════╗\");\n" +
-                    "        System.out.println(\"║                  💰 CHARGE APPLIED 💰                     ║\");\n" +
-                    "        System.out.println(\"╚═══════════════════════════════════════════════════════════╝\");\n" +
-                    "        System.out.println(\"║ Account Details:                                          ║\");\n" +
-                    "        System.out.println(\"║   Account ID: \" + String.format(\"%-44s\", $accountId) + \"║\");\n" +
-                    "        System.out.println(\"║   Account Name: \" + String.format(\"%-42s\", $accountName) + \"║\");\n" +
-                    "        System.out.println(\"║   Charged On: Month \" + String.format(\"%-40d\", $currentMonth) + \"║\");\n" +
-                    "        System.out.println(\"╠═══════════════════════════════════════════════════════════╣\");\n" +
-                    "        System.out.println(\"║ Month \" + String.format(\"%-2d\", charge.getMonth1()) + \" Charges:                                        ║\");\n" +
-                    "        System.out.println(\"║   Shortfall: ₹\" + String.format(\"%,-10.2f\", $shortfall1) + \"                              ║\");\n" +
-                    "        System.out.println(\"║   Base Charge (6%%): ₹\" + String.format(\"%,-10.2f\", baseCharge1) + \" (capped at ₹500)  ║\");\n" +
-                    "        System.out.println(\"║   GST (18%%): ₹\" + String.format(\"%,-10.2f\", gst1) + \"                              ║\");\n" +
-                    "        System.out.println(\"║   Subtotal: ₹\" + String.format(\"%,-10.2f\", totalCharge1) + \"                               ║\");\n" +
-                    "        System.out.println(\"╠═══════════════════════════════════════════════════════════╣\");\n" +
-                    "        System.out.println(\"║ Month \" + String.format(\"%-2d\", charge.getMonth2()) + \" Charges:                                        ║\");\n" +
-                    "        System.out.println(\"║   Shortfall: ₹\" + String.format(\"%,-10.2f\", $shortfall2) + \"                              ║\");\n" +
-                    "        System.out.println(\"║   Base Charge (6%%): ₹\" + String.format(\"%,-10.2f\", baseCharge2) + \" (capped at ₹500)  ║\");\n" +
-                    "        System.out.println(\"║   GST (18%%): ₹\" + String.format(\"%,-10.2f\", gst2) + \"                              ║\");\n" +
-                    "        System.out.println(\"║   Subtotal: ₹\" + String.format(\"%,-10.2f\", totalCharge2) + \"                               ║\");\n" +
-                    "        System.out.println(\"╠═══════════════════════════════════════════════════════════╣\");\n" +
-                    "        System.out.println(\"║ TOTAL CHARGE: ₹\" + String.format(\"%,-10.2f\", grandTotal) + \"                             ║\");\n" +
-                    "        System.out.println(\"╚═══════════════════════════════════════════════════════════╝\");\n" +
-                    "        System.out.println(\"\\n\");\n" +
-                    "end\n";
+    private final AtomicReference<RuleGeneration> generation = new AtomicReference<>();
+    private final int maxPooledSessions;
+    private Path rulesPath;
+    private final KieBaseCache kieBaseCache;
+    private final DecisionEventPublisher decisionEvents;
+    // Account ids seen by this engine; keys stay valid across runs and rules versions, never shrinks
+    private final AccountDictionary accountDictionary = new AccountDictionary();
+    private RuleFileWatcher ruleFileWatcher;
+    // Digest of the rule files the active version was compiled from, guarded by this
+    private String rulesDigest;
+    private ForkJoinPool forkJoinPool;
+    private long startupMillis;
 
     public AMBRuleEngineProgrammatic() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxPooledSessions upper bound on concurrently borrowed KieSessions,
+     *                          also the parallelism of {@link #executeRulesParallel}
+     */
+    public AMBRuleEngineProgrammatic(int maxPooledSessions) {
+        this(configuredRulesPath(), maxPooledSessions);
+    }
+
+    /**
+     * @param rulesPath         DRL file or directory to load and watch for changes,
+     *                          or null for the executable model on the classpath
+     * @param maxPooledSessions upper bound on concurrently borrowed KieSessions
+     *                          (per rules version), also the parallelism of {@link #executeRulesParallel}
+     */
+    public AMBRuleEngineProgrammatic(Path rulesPath, int maxPooledSessions) {
+        this(rulesPath, configuredCache(), maxPooledSessions);
+    }
+
+    /**
+     * @param rulesPath         DRL file or directory to load and watch for changes,
+     *                          or null for the executable model on the classpath
+     * @param kieBaseCache      on-disk cache of compiled DRL, or null to always compile
+     * @param maxPooledSessions upper bound on concurrently borrowed KieSessions
+     *                          (per rules version), also the parallelism of {@link #executeRulesParallel}
+     */
+    public AMBRuleEngineProgrammatic(Path rulesPath, KieBaseCache kieBaseCache, int maxPooledSessions) {
+        this.maxPooledSessions = maxPooledSessions;
+        this.kieBaseCache = kieBaseCache;
+        this.decisionEvents = configuredDecisionEvents();
         try {
-            System.out.println("Initializing Drools (Programmatic Mode)...");
-            kieServices = KieServices.Factory.get();
-
-            // Create KieFileSystem and add rules programmatically
-            KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
-            kieFileSystem.write("src/main/resources/rules/bank-amb-rules.drl", DRL_RULES);
-
-            // Build the KieModule
-            KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem);
-            kieBuilder.buildAll();
-
-            // Check for errors
-            if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
-                System.err.println("Error building rules:");
-                kieBuilder.getResults().getMessages(Message.Level.ERROR).forEach(msg -> {
-                    System.err.println("  " + msg.getText());
-                });
-                throw new RuntimeException("Rule compilation failed");
+            long start = System.nanoTime();
+            KieBase kieBase;
+            String source;
+            if (rulesPath == null) {
+                System.out.println("Initializing Drools (Executable Model)...");
+                kieServices = KieServices.Factory.get();
+
+                // Load the executable model packaged with the jar (no DRL parsing at runtime)
+                kieContainer = kieServices.getKieClasspathContainer();
+                kieBase = kieContainer.getKieBase(KIE_BASE_NAME);
+                source = "classpath:" + KIE_BASE_NAME;
+            } else {
+                System.out.println("Initializing Drools (DRL from " + rulesPath + ")...");
+                this.rulesPath = rulesPath;
+                rulesDigest = KieBaseCache.cacheKey(rulesPath);
+                kieBase = compileRules(rulesPath);
+                source = rulesPath.toString();
             }
 
-            // Create KieContainer
-            kieContainer = kieServices.newKieContainer(
-                    kieServices.getRepository().getDefaultReleaseId()
-            );
+            // Share one KieBase across a bounded pool of reusable sessions
+            generation.set(new RuleGeneration(1, source, kieBase, maxPooledSessions));
+            forkJoinPool = new ForkJoinPool(maxPooledSessions);
 
-            System.out.println("✓ Drools initialized successfully (Programmatic)!");
+            // Recompile off the hot path whenever the rule files change,
+            // through the cache so the next start finds the reloaded rules
+            if (rulesPath != null) {
+                ruleFileWatcher = new RuleFileWatcher(rulesPath, this::reload);
+            }
+
+            startupMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("✓ Drools initialized successfully (" + source + ") in " + startupMillis + " ms!");
             System.out.println();
 
         } catch (Exception e) {
+            decisionEvents.close();
             System.err.println("ERROR: Failed to initialize Drools!");
             e.printStackTrace();
             throw new RuntimeException("Failed to initialize Drools", e);
@@ -293,15 +174,520 @@ public class AMBRuleEngineProgrammatic {
             List<Charge> existingCharges,
             ExecutionContext context) {
 
-        KieSession kieSession = null;
+        RuleGeneration rules = leaseGeneration();
+        try {
+            RuleExecutionResult result = executeInPooledSession(
+                    rules,
+                    accounts,
+                    existingProbableDefaulters,
+                    existingActualDefaulters,
+                    existingCharges,
+                    context
+            );
+            printSummary("Rules Execution Summary", rules, result);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("ERROR during rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Rule execution failed", e);
+        } finally {
+            rules.returnLease();
+        }
+    }
+
+    /**
+     * {@link #executeRules} over a windowed history: the history is first
+     * advanced to the context month, evicting records the rules can no
+     * longer match, and the run's defaulters and charges are recorded in it
+     * afterwards.
+     */
+    public RuleExecutionResult executeRules(
+            List<Account> accounts,
+            DefaulterHistory history,
+            ExecutionContext context) {
+
+        history.advanceTo(context.getCurrentMonth());
+        RuleExecutionResult result = executeRules(
+                accounts,
+                history.getProbableDefaulters(),
+                history.getActualDefaulters(),
+                history.getCharges(),
+                context
+        );
+        history.record(result);
+        return result;
+    }
+
+    /**
+     * {@link #executeRules} behind a threshold pre-filter (see
+     * {@link AccountPreFilter}). Only accounts below the minimum, or with an
+     * actual default R3 may charge, and their history are inserted into the
+     * session; maintained accounts are counted in
+     * {@link RuleExecutionResult#getSkippedAccounts()} instead. Defaulters and
+     * charges are the same as executeRules; R1C does not fire for the
+     * skipped accounts, so rulesFired and the balance-maintained events
+     * cover only the accounts that reached the session.
+     */
+    public RuleExecutionResult executeRulesPrefiltered(
+            List<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context) {
+
+        RuleGeneration rules = leaseGeneration();
+        try {
+            assignKeys(existingProbableDefaulters, existingActualDefaulters, existingCharges);
+            AccountPreFilter.Selection selection = AccountPreFilter.select(
+                    forkJoinPool, accounts, accountDictionary, existingActualDefaulters, context);
+
+            RuleExecutionResult session = executeInPooledSession(
+                    rules,
+                    selection.getAccounts(),
+                    forAccounts(existingProbableDefaulters, ProbableDefaulter::getAccountKey, selection),
+                    forAccounts(existingActualDefaulters, ActualDefaulter::getAccountKey, selection),
+                    forAccounts(existingCharges, Charge::getAccountKey, selection),
+                    context
+            );
+            RuleExecutionResult result = new RuleExecutionResult(session.getProbableDefaulters(),
+                    session.getActualDefaulters(), session.getCharges(), session.getRulesFired(),
+                    selection.getMaintained());
+            printSummary("Pre-filtered Rules Execution Summary", rules, result);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("ERROR during pre-filtered rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Pre-filtered rule execution failed", e);
+        } finally {
+            rules.returnLease();
+        }
+    }
+
+    private static <T> List<T> forAccounts(List<T> facts, ToIntFunction<T> accountKey,
+                                           AccountPreFilter.Selection selection) {
+        List<T> selected = new ArrayList<>();
+        for (T fact : facts) {
+            if (selection.includes(accountKey.applyAsInt(fact))) {
+                selected.add(fact);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Parallel variant of {@link #executeRules}. Every rule joins on the account only,
+     * so accounts and their history are partitioned by account key and each
+     * partition runs in its own pooled session on a fork-join pool. Partition
+     * results are merged and ordered by accountId, then month, so the output
+     * does not depend on the partition count or on thread scheduling.
+     * All partitions of one call run on the same rules version, and the call
+     * returns only once every partition has finished, even when one fails.
+     */
+    public RuleExecutionResult executeRulesParallel(
+            List<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int partitions) {
+
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1, got " + partitions);
+        }
+
+        RuleGeneration rules = leaseGeneration();
+        List<ForkJoinTask<RuleExecutionResult>> tasks = new ArrayList<>(partitions);
+        try {
+            // Partition accounts and their history by account key; keys are dense, so parts stay even
+            assignKeys(existingProbableDefaulters, existingActualDefaulters, existingCharges);
+            List<List<Account>> accountParts =
+                    partition(accounts, account -> accountDictionary.encode(account.getAccountId()), partitions);
+            List<List<ProbableDefaulter>> pdParts =
+                    partition(existingProbableDefaulters, ProbableDefaulter::getAccountKey, partitions);
+            List<List<ActualDefaulter>> adParts =
+                    partition(existingActualDefaulters, ActualDefaulter::getAccountKey, partitions);
+            List<List<Charge>> chargeParts = partition(existingCharges, Charge::getAccountKey, partitions);
+
+            for (int p = 0; p < partitions; p++) {
+                if (accountParts.get(p).isEmpty()) {
+                    continue;
+                }
+                final int part = p;
+                tasks.add(forkJoinPool.submit(() -> executeInPooledSession(
+                        rules,
+                        accountParts.get(part),
+                        pdParts.get(part),
+                        adParts.get(part),
+                        chargeParts.get(part),
+                        context
+                )));
+            }
+
+            // Merge in partition order, then sort into a partition-independent order
+            List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+            List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+            List<Charge> charges = new ArrayList<>();
+            int rulesFired = 0;
+            for (ForkJoinTask<RuleExecutionResult> task : tasks) {
+                RuleExecutionResult part = task.join();
+                probableDefaulters.addAll(part.getProbableDefaulters());
+                actualDefaulters.addAll(part.getActualDefaulters());
+                charges.addAll(part.getCharges());
+                rulesFired += part.getRulesFired();
+            }
+            probableDefaulters.sort(Comparator.comparing(ProbableDefaulter::getAccountId)
+                    .thenComparingInt(ProbableDefaulter::getMonth));
+            actualDefaulters.sort(Comparator.comparing(ActualDefaulter::getAccountId)
+                    .thenComparingInt(ActualDefaulter::getMonth));
+            charges.sort(Comparator.comparing(Charge::getAccountId)
+                    .thenComparingInt(Charge::getChargedInMonth));
+
+            RuleExecutionResult result =
+                    new RuleExecutionResult(probableDefaulters, actualDefaulters, charges, rulesFired);
+            printSummary("Parallel Rules Execution Summary (" + partitions + " partitions)", rules, result);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("ERROR during parallel rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Parallel rule execution failed", e);
+        } finally {
+            // A failed join leaves the other partitions running on this generation's
+            // pooled sessions; the lease must outlive them or a reload could close the pool
+            for (ForkJoinTask<RuleExecutionResult> task : tasks) {
+                task.quietlyJoin();
+            }
+            rules.returnLease();
+        }
+    }
 
+    /**
+     * Stateless variant of {@link #executeRules}. All facts, the result globals,
+     * the agenda focus and fireAllRules are sent to a StatelessKieSession as a
+     * single batch command, so there is no session to borrow, reset or dispose.
+     * Suited to large account chunks; the result is the same as executeRules.
+     */
+    @SuppressWarnings("unchecked")
+    public RuleExecutionResult executeRulesBatch(
+            List<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context) {
+
+        RuleGeneration rules = leaseGeneration();
         try {
-            // Create new session
-            kieSession = kieContainer.newKieSession();
+            // Collect every fact for one insert-elements command
+            List<Object> facts = new ArrayList<>(1 + existingProbableDefaulters.size()
+                    + existingActualDefaulters.size() + existingCharges.size() + accounts.size());
+            facts.add(context);
+            assignKeys(existingProbableDefaulters, existingActualDefaulters, existingCharges);
+            facts.addAll(existingProbableDefaulters);
+            facts.addAll(existingActualDefaulters);
+            facts.addAll(existingCharges);
+            for (Account account : accounts) {
+                account.setCurrentMonth(context.getCurrentMonth());
+                facts.add(keyed(AccountMetrics.of(account, context)));
+            }
 
-            if (kieSession == null) {
-                throw new RuntimeException("Failed to create KieSession");
+            KieCommands commands = KieServices.Factory.get().getCommands();
+            List<Command<?>> batch = new ArrayList<>();
+            batch.add(commands.newSetGlobal("probableDefaultersList", new ArrayList<ProbableDefaulter>(), true));
+            batch.add(commands.newSetGlobal("actualDefaultersList", new ArrayList<ActualDefaulter>(), true));
+            batch.add(commands.newSetGlobal("chargesList", new ArrayList<Charge>(), true));
+            batch.add(commands.newSetGlobal("decisionEvents", decisionEvents));
+            batch.add(commands.newInsertElements(facts));
+            String agendaGroup = agendaGroupFor(context);
+            if (agendaGroup != null) {
+                batch.add(commands.newAgendaGroupSetFocus(agendaGroup));
             }
+            batch.add(commands.newFireAllRules("rulesFired"));
+
+            ExecutionResults results = rules.getStatelessSession().execute(commands.newBatchExecution(batch));
+
+            RuleExecutionResult result = new RuleExecutionResult(
+                    (List<ProbableDefaulter>) results.getValue("probableDefaultersList"),
+                    (List<ActualDefaulter>) results.getValue("actualDefaultersList"),
+                    (List<Charge>) results.getValue("chargesList"),
+                    (Integer) results.getValue("rulesFired")
+            );
+            printSummary("Batch Rules Execution Summary", rules, result);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("ERROR during batch rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Batch rule execution failed", e);
+        } finally {
+            rules.returnLease();
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #executeRules} for populations that do not
+     * fit on the heap at once. Accounts are pulled from the iterator on a
+     * reader thread and reduced to AccountMetrics, then run through one pooled
+     * session a chunk at a time. After each chunk settles, its metrics, the
+     * history facts of its accounts and the facts the rules produced for them
+     * are retracted, so working memory holds at most one chunk regardless of
+     * population size. Every rule joins on accountId only, so chunking does
+     * not change the outcome.
+     *
+     * The existing history lists are indexed by account key up front; only the
+     * result lists and the engine's account dictionary grow with the population.
+     */
+    public RuleExecutionResult executeRulesStreaming(
+            Iterator<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int chunkSize) {
+
+        checkChunkSize(chunkSize);
+        return executeStreaming(AccountMetricsFeeder.ofAccounts(accounts, context, chunkSize),
+                existingProbableDefaulters, existingActualDefaulters, existingCharges, context, chunkSize);
+    }
+
+    /**
+     * Streaming run over every account in a columnar balance store. Balances
+     * are read from the mapped store through a flyweight cursor, so no
+     * Account objects are created.
+     */
+    public RuleExecutionResult executeRulesStreaming(
+            BalanceStore accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int chunkSize) {
+
+        checkChunkSize(chunkSize);
+        return executeStreaming(AccountMetricsFeeder.ofStore(accounts, context, chunkSize),
+                existingProbableDefaulters, existingActualDefaulters, existingCharges, context, chunkSize);
+    }
+
+    /**
+     * Streaming run over accounts whose AMB sums were accumulated day by day
+     * as end-of-day balances arrived (see {@link AmbAccumulator}). Uses the
+     * accumulated day-25 partial and full-month sums and the real length of
+     * each month.
+     */
+    public RuleExecutionResult executeRulesAccumulated(
+            Iterable<AmbAccumulator> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int chunkSize) {
+
+        checkChunkSize(chunkSize);
+        return executeStreaming(AccountMetricsFeeder.ofAccumulators(accounts.iterator(), context, chunkSize),
+                existingProbableDefaulters, existingActualDefaulters, existingCharges, context, chunkSize);
+    }
+
+    /**
+     * Streaming run over accounts given as an opening balance plus the
+     * month's transactions (see {@link AccountActivity}), so no daily
+     * balances need to be materialised upstream.
+     */
+    public RuleExecutionResult executeRulesFromActivity(
+            Iterable<AccountActivity> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int chunkSize) {
+
+        checkChunkSize(chunkSize);
+        return executeStreaming(AccountMetricsFeeder.ofActivity(accounts.iterator(), context, chunkSize),
+                existingProbableDefaulters, existingActualDefaulters, existingCharges, context, chunkSize);
+    }
+
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, got " + chunkSize);
+        }
+    }
+
+    private RuleExecutionResult executeStreaming(
+            AccountMetricsFeeder accountFeeder,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context,
+            int chunkSize) {
+
+        RuleGeneration rules = leaseGeneration();
+        KieSessionPool sessionPool = rules.getSessionPool();
+        KieSession kieSession = null;
+        try (AccountMetricsFeeder feeder = accountFeeder) {
+            // History is only ever joined with the same account's metrics; keys index it directly
+            assignKeys(existingProbableDefaulters, existingActualDefaulters, existingCharges);
+            List<Object>[] historyByAccount =
+                    newHistoryIndex(existingProbableDefaulters, existingActualDefaulters, existingCharges);
+            indexHistory(historyByAccount, existingProbableDefaulters, ProbableDefaulter::getAccountKey);
+            indexHistory(historyByAccount, existingActualDefaulters, ActualDefaulter::getAccountKey);
+            indexHistory(historyByAccount, existingCharges, Charge::getAccountKey);
+
+            kieSession = sessionPool.borrow();
+
+            List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+            List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+            List<Charge> charges = new ArrayList<>();
+            kieSession.setGlobal("probableDefaultersList", probableDefaulters);
+            kieSession.setGlobal("actualDefaultersList", actualDefaulters);
+            kieSession.setGlobal("chargesList", charges);
+            kieSession.setGlobal("decisionEvents", decisionEvents);
+
+            kieSession.insert(context);
+
+            int rulesFired = 0;
+            int chunks = 0;
+            List<FactHandle> chunkHandles = new ArrayList<>();
+            List<AccountMetrics> chunk;
+            while ((chunk = feeder.nextChunk()) != null) {
+                for (AccountMetrics metrics : chunk) {
+                    int key = keyed(metrics).getAccountKey();
+                    chunkHandles.add(kieSession.insert(metrics));
+                    // Accounts past the highest key in the history have none
+                    if (key < historyByAccount.length && historyByAccount[key] != null) {
+                        for (Object history : historyByAccount[key]) {
+                            chunkHandles.add(kieSession.insert(history));
+                        }
+                    }
+                }
+
+                int pdStart = probableDefaulters.size();
+                int adStart = actualDefaulters.size();
+                int chargeStart = charges.size();
+
+                // The focused group is popped once it empties, so focus per chunk
+                focusAgendaGroup(kieSession, context);
+                rulesFired += kieSession.fireAllRules();
+
+                // The chunk has settled: drop everything it put in working memory
+                collectHandles(kieSession, probableDefaulters.subList(pdStart, probableDefaulters.size()), chunkHandles);
+                collectHandles(kieSession, actualDefaulters.subList(adStart, actualDefaulters.size()), chunkHandles);
+                collectHandles(kieSession, charges.subList(chargeStart, charges.size()), chunkHandles);
+                for (FactHandle handle : chunkHandles) {
+                    kieSession.delete(handle);
+                }
+                chunkHandles.clear();
+                chunks++;
+            }
+
+            RuleExecutionResult result =
+                    new RuleExecutionResult(probableDefaulters, actualDefaulters, charges, rulesFired);
+            printSummary("Streaming Rules Execution Summary (" + chunks + " chunks of " + chunkSize + ")",
+                    rules, result);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("ERROR during streaming rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Streaming rule execution failed", e);
+        } finally {
+            sessionPool.release(kieSession);
+            rules.returnLease();
+        }
+    }
+
+    /**
+     * {@link #executeRulesStreaming(Iterator, List, List, List, ExecutionContext, int)}
+     * over a stream, in chunks of {@link #DEFAULT_STREAMING_CHUNK_SIZE}. The caller
+     * keeps ownership of (and closes) the stream.
+     */
+    public RuleExecutionResult executeRulesStreaming(
+            Stream<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context) {
+        return executeRulesStreaming(accounts.iterator(), existingProbableDefaulters, existingActualDefaulters,
+                existingCharges, context, DEFAULT_STREAMING_CHUNK_SIZE);
+    }
+
+    /**
+     * Index sized by the highest key in this run's history rather than by the
+     * dictionary, which keeps every account the engine has ever seen
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object>[] newHistoryIndex(List<ProbableDefaulter> probableDefaulters,
+                                                  List<ActualDefaulter> actualDefaulters,
+                                                  List<Charge> charges) {
+        int maxKey = -1;
+        for (ProbableDefaulter pd : probableDefaulters) {
+            maxKey = Math.max(maxKey, pd.getAccountKey());
+        }
+        for (ActualDefaulter ad : actualDefaulters) {
+            maxKey = Math.max(maxKey, ad.getAccountKey());
+        }
+        for (Charge charge : charges) {
+            maxKey = Math.max(maxKey, charge.getAccountKey());
+        }
+        return (List<Object>[]) new List<?>[maxKey + 1];
+    }
+
+    private static <T> void indexHistory(List<Object>[] historyByAccount, List<T> facts, ToIntFunction<T> accountKey) {
+        for (T fact : facts) {
+            int key = accountKey.applyAsInt(fact);
+            if (historyByAccount[key] == null) {
+                historyByAccount[key] = new ArrayList<>(2);
+            }
+            historyByAccount[key].add(fact);
+        }
+    }
+
+    /**
+     * Give every history fact the key of its account, hashing the id only
+     * when the fact does not already carry a valid key. Writes the key into
+     * the caller's objects, see the class doc.
+     */
+    private void assignKeys(List<ProbableDefaulter> probableDefaulters,
+                            List<ActualDefaulter> actualDefaulters,
+                            List<Charge> charges) {
+        for (ProbableDefaulter pd : probableDefaulters) {
+            pd.setAccountKey(accountDictionary.keyOf(pd.getAccountId(), pd.getAccountKey()));
+        }
+        for (ActualDefaulter ad : actualDefaulters) {
+            ad.setAccountKey(accountDictionary.keyOf(ad.getAccountId(), ad.getAccountKey()));
+        }
+        for (Charge charge : charges) {
+            charge.setAccountKey(accountDictionary.keyOf(charge.getAccountId(), charge.getAccountKey()));
+        }
+    }
+
+    private AccountMetrics keyed(AccountMetrics metrics) {
+        metrics.setAccountKey(accountDictionary.encode(metrics.getAccountId()));
+        return metrics;
+    }
+
+    private static void collectHandles(KieSession kieSession, List<?> facts, List<FactHandle> handles) {
+        for (Object fact : facts) {
+            FactHandle handle = kieSession.getFactHandle(fact);
+            if (handle != null) {
+                handles.add(handle);
+            }
+        }
+    }
+
+    private RuleExecutionResult executeInPooledSession(
+            RuleGeneration rules,
+            List<Account> accounts,
+            List<ProbableDefaulter> existingProbableDefaulters,
+            List<ActualDefaulter> existingActualDefaulters,
+            List<Charge> existingCharges,
+            ExecutionContext context) {
+
+        KieSessionPool sessionPool = rules.getSessionPool();
+        KieSession kieSession = null;
+
+        try {
+            // Borrow a (reset) session from the leased version's pool
+            kieSession = sessionPool.borrow();
 
             // Initialize result lists
             List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
@@ -312,11 +698,13 @@ public class AMBRuleEngineProgrammatic {
             kieSession.setGlobal("probableDefaultersList", probableDefaulters);
             kieSession.setGlobal("actualDefaultersList", actualDefaulters);
             kieSession.setGlobal("chargesList", charges);
+            kieSession.setGlobal("decisionEvents", decisionEvents);
 
             // Insert context
             kieSession.insert(context);
 
             // Insert existing data
+            assignKeys(existingProbableDefaulters, existingActualDefaulters, existingCharges);
             for (ProbableDefaulter pd : existingProbableDefaulters) {
                 kieSession.insert(pd);
             }
@@ -327,24 +715,16 @@ public class AMBRuleEngineProgrammatic {
                 kieSession.insert(charge);
             }
 
-            // Insert accounts
+            // Insert one precomputed metrics fact per account; rules never scan balances
             for (Account account : accounts) {
                 account.setCurrentMonth(context.getCurrentMonth());
-                kieSession.insert(account);
+                kieSession.insert(keyed(AccountMetrics.of(account, context)));
             }
 
-            // Fire all rules
+            // Only the check day's rules are evaluated
+            focusAgendaGroup(kieSession, context);
             int rulesFired = kieSession.fireAllRules();
 
-            System.out.println("\n========================================");
-            System.out.println("Rules Execution Summary");
-            System.out.println("========================================");
-            System.out.println("Rules Fired: " + rulesFired);
-            System.out.println("Probable Defaulters: " + probableDefaulters.size());
-            System.out.println("Actual Defaulters: " + actualDefaulters.size());
-            System.out.println("Charges Applied: " + charges.size());
-            System.out.println("========================================\n");
-
             return new RuleExecutionResult(
                     probableDefaulters,
                     actualDefaulters,
@@ -352,15 +732,208 @@ public class AMBRuleEngineProgrammatic {
                     rulesFired
             );
 
-        } catch (Exception e) {
-            System.err.println("ERROR during rule execution: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Rule execution failed", e);
         } finally {
-            if (kieSession != null) {
-                kieSession.dispose();
+            // Reset and hand the session back instead of disposing it
+            sessionPool.release(kieSession);
+        }
+    }
+
+    /**
+     * Agenda group holding the rules for the context's check day,
+     * or null when no rules apply on that day.
+     */
+    static String agendaGroupFor(ExecutionContext context) {
+        switch (context.getCheckDay()) {
+            case 25:
+                return DAY25_AGENDA_GROUP;
+            case 3:
+                return DAY3_AGENDA_GROUP;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Give focus to the check day's agenda group. Rules in groups that never
+     * get focus are not evaluated (phreak evaluates lazily per agenda group),
+     * so day-25 runs skip the day-3 joins and vice versa.
+     */
+    static void focusAgendaGroup(KieSession kieSession, ExecutionContext context) {
+        String agendaGroup = agendaGroupFor(context);
+        if (agendaGroup != null) {
+            kieSession.getAgenda().getAgendaGroup(agendaGroup).setFocus();
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, ToIntFunction<T> accountKey, int partitions) {
+        List<List<T>> parts = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            parts.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            parts.get(accountKey.applyAsInt(item) % partitions).add(item);
+        }
+        return parts;
+    }
+
+    private void printSummary(String title, RuleGeneration rules, RuleExecutionResult result) {
+        System.out.println("\n========================================");
+        System.out.println(title);
+        System.out.println("========================================");
+        System.out.println("Rules Fired: " + result.getRulesFired());
+        System.out.println("Probable Defaulters: " + result.getProbableDefaulters().size());
+        System.out.println("Actual Defaulters: " + result.getActualDefaulters().size());
+        System.out.println("Charges Applied: " + result.getCharges().size());
+        if (result.getSkippedAccounts() > 0) {
+            System.out.println("Maintained (pre-filtered): " + result.getSkippedAccounts());
+        }
+        System.out.println("Rules Version: " + rules.getVersion());
+        System.out.println("Session Pool: " + rules.getSessionPool().getMetrics());
+        System.out.println("========================================\n");
+    }
+
+    /**
+     * Lease the current rules version, retrying if it is retired concurrently.
+     */
+    RuleGeneration leaseGeneration() {
+        while (true) {
+            RuleGeneration current = generation.get();
+            if (current.tryLease()) {
+                return current;
+            }
+        }
+    }
+
+    private synchronized void swapKieBase(KieBase kieBase, String source) {
+        RuleGeneration previous = generation.get();
+        RuleGeneration next = new RuleGeneration(previous.getVersion() + 1, source, kieBase, maxPooledSessions);
+        generation.set(next);
+        // Pool of the old version closes once in-flight batches return their lease
+        previous.retire();
+        System.out.println("✓ Rules version " + next.getVersion() + " active (" + source + ")");
+    }
+
+    /**
+     * Recompile the configured rule files now and swap them in.
+     * The file watcher does this automatically; this is for callers that
+     * want the reload to be synchronous. Files unchanged since the active
+     * version was compiled are not reloaded.
+     *
+     * @throws IllegalStateException if the engine runs on classpath rules
+     */
+    public void reloadRules() {
+        if (rulesPath == null) {
+            throw new IllegalStateException("Rules were loaded from the classpath; no rules path to reload from");
+        }
+        reload();
+    }
+
+    /**
+     * The watcher and an explicit reload often both see the same write; the
+     * digest taken before compiling makes the second one a no-op
+     */
+    private synchronized void reload() {
+        String digest = KieBaseCache.cacheKey(rulesPath);
+        if (digest.equals(rulesDigest)) {
+            System.out.println("✓ Rules at " + rulesPath + " unchanged, keeping version " + getRulesVersion());
+            return;
+        }
+        long start = System.nanoTime();
+        KieBase kieBase = compileRules(rulesPath);
+        System.out.println("✓ Rules recompiled from " + rulesPath + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        rulesDigest = digest;
+        swapKieBase(kieBase, rulesPath.toString());
+    }
+
+    private KieBase compileRules(Path rulesPath) {
+        return kieBaseCache == null ? RuleFileWatcher.compile(rulesPath) : kieBaseCache.loadOrCompile(rulesPath);
+    }
+
+    private static Path configuredRulesPath() {
+        String configured = System.getProperty(RULES_PATH_PROPERTY);
+        return configured == null || configured.isEmpty() ? null : Paths.get(configured);
+    }
+
+    private static DecisionEventPublisher configuredDecisionEvents() {
+        DecisionEventPublisher publisher = new DecisionEventPublisher();
+        String file = System.getProperty(DECISIONS_FILE_PROPERTY);
+        if (file != null && !file.isEmpty()) {
+            try {
+                publisher.addSink(new JsonLinesDecisionEventSink(Paths.get(file)));
+            } catch (IOException e) {
+                publisher.close();
+                throw new UncheckedIOException("Failed to open decision event file " + file, e);
             }
         }
+        if (Boolean.getBoolean(DECISIONS_CONSOLE_PROPERTY)) {
+            publisher.addSink(new ConsoleDecisionEventSink());
+        }
+        return publisher;
+    }
+
+    private static KieBaseCache configuredCache() {
+        String configured = System.getProperty(RULES_CACHE_DIR_PROPERTY);
+        return configured == null || configured.isEmpty() ? null : new KieBaseCache(Paths.get(configured));
+    }
+
+    /**
+     * Open a long-lived session that keeps defaulter and charge history in
+     * working memory across cycles. The caller owns (and must close) it.
+     * The session stays on the rules version current when it was opened.
+     */
+    public IncrementalRuleSession openIncrementalSession() {
+        return new IncrementalRuleSession(getKieBase(), decisionEvents, accountDictionary);
+    }
+
+    /**
+     * Keys the engine has given to account ids; decode result keys here.
+     * Grows with every new account id and is never cleared.
+     */
+    public AccountDictionary getAccountDictionary() {
+        return accountDictionary;
+    }
+
+    KieBase getKieBase() {
+        return generation.get().getKieBase();
+    }
+
+    /**
+     * Number of the active rules version; starts at 1 and grows with every reload
+     */
+    public long getRulesVersion() {
+        return generation.get().getVersion();
+    }
+
+    /**
+     * Time spent loading the KieBase and preparing the session pool
+     */
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    /**
+     * Publisher the rules emit decision events to; register sinks here
+     */
+    public DecisionEventPublisher getDecisionEvents() {
+        return decisionEvents;
+    }
+
+    public KieSessionPool.Metrics getSessionPoolMetrics() {
+        return generation.get().getSessionPool().getMetrics();
+    }
+
+    /**
+     * Dispose pooled sessions. The engine must not be used afterwards.
+     */
+    public void shutdown() {
+        if (ruleFileWatcher != null) {
+            ruleFileWatcher.close();
+        }
+        forkJoinPool.shutdown();
+        generation.get().retire();
+        // Drains outstanding decision events into the sinks
+        decisionEvents.close();
     }
 
     public static class RuleExecutionResult {
@@ -368,21 +941,34 @@ public class AMBRuleEngineProgrammatic {
         private List<ActualDefaulter> actualDefaulters;
         private List<Charge> charges;
         private int rulesFired;
+        private int skippedAccounts;
 
         public RuleExecutionResult(
                 List<ProbableDefaulter> probableDefaulters,
                 List<ActualDefaulter> actualDefaulters,
                 List<Charge> charges,
                 int rulesFired) {
+            this(probableDefaulters, actualDefaulters, charges, rulesFired, 0);
+        }
+
+        public RuleExecutionResult(
+                List<ProbableDefaulter> probableDefaulters,
+                List<ActualDefaulter> actualDefaulters,
+                List<Charge> charges,
+                int rulesFired,
+                int skippedAccounts) {
             this.probableDefaulters = probableDefaulters;
             this.actualDefaulters = actualDefaulters;
             this.charges = charges;
             this.rulesFired = rulesFired;
+            this.skippedAccounts = skippedAccounts;
         }
 
         public List<ProbableDefaulter> getProbableDefaulters() { return probableDefaulters; }
         public List<ActualDefaulter> getActualDefaulters() { return actualDefaulters; }
         public List<Charge> getCharges() { return charges; }
         public int getRulesFired() { return rulesFired; }
+        /** Accounts the pre-filter found maintained and kept out of the session */
+        public int getSkippedAccounts() { return skippedAccounts; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.model.AccountActivity;
+import com.bank.amb.model.AccountMetrics;
+import com.bank.amb.model.AmbAccumulator;
+import com.bank.amb.model.ExecutionContext;
+import com.bank.amb.store.BalanceCursor;
+import com.bank.amb.store.BalanceStore;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pulls accounts from an iterator (or a balance store) on a background
+ * thread and turns them into chunks of AccountMetrics for a streaming rule run.
+ *
+ * At most {@link #QUEUED_CHUNKS} chunks wait ahead of the rule session, so
+ * a slow session throttles the reader and the number of accounts on the
+ * heap stays bounded. Accounts are not kept once their metrics are computed.
+ */
+class AccountMetricsFeeder implements AutoCloseable {
+
+    static final int QUEUED_CHUNKS = 2;
+
+    // Marks the end of the stream (or a failure, see failure)
+    private static final List<AccountMetrics> END = new ArrayList<>(0);
+
+    private final Iterator<AccountMetrics> metrics;
+    private final int chunkSize;
+    private final BlockingQueue<List<AccountMetrics>> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    private final Thread thread;
+
+    private volatile Throwable failure;
+    private boolean finished;
+
+    private AccountMetricsFeeder(Iterator<AccountMetrics> metrics, int chunkSize) {
+        this.metrics = metrics;
+        this.chunkSize = chunkSize;
+
+        thread = new Thread(this::readLoop, "amb-account-feeder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static AccountMetricsFeeder ofAccounts(Iterator<Account> accounts, ExecutionContext context, int chunkSize) {
+        return new AccountMetricsFeeder(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return accounts.hasNext();
+            }
+
+            @Override
+            public AccountMetrics next() {
+                Account account = accounts.next();
+                account.setCurrentMonth(context.getCurrentMonth());
+                return AccountMetrics.of(account, context);
+            }
+        }, chunkSize);
+    }
+
+    /**
+     * Metrics straight from running EOD sums; no balances are read
+     */
+    static AccountMetricsFeeder ofAccumulators(Iterator<AmbAccumulator> accumulators, ExecutionContext context,
+                                               int chunkSize) {
+        return new AccountMetricsFeeder(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return accumulators.hasNext();
+            }
+
+            @Override
+            public AccountMetrics next() {
+                return AccountMetrics.of(accumulators.next(), context);
+            }
+        }, chunkSize);
+    }
+
+    /**
+     * Metrics from opening balances plus transactions; no daily balances exist
+     */
+    static AccountMetricsFeeder ofActivity(Iterator<AccountActivity> activity, ExecutionContext context,
+                                           int chunkSize) {
+        return new AccountMetricsFeeder(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return activity.hasNext();
+            }
+
+            @Override
+            public AccountMetrics next() {
+                return AccountMetrics.of(activity.next(), context);
+            }
+        }, chunkSize);
+    }
+
+    /**
+     * Reads every account of the store through one flyweight cursor
+     */
+    static AccountMetricsFeeder ofStore(BalanceStore store, ExecutionContext context, int chunkSize) {
+        BalanceCursor cursor = store.cursor();
+        return new AccountMetricsFeeder(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.getIndex() + 1 < store.size();
+            }
+
+            @Override
+            public AccountMetrics next() {
+                cursor.next();
+                return AccountMetrics.of(cursor, context);
+            }
+        }, chunkSize);
+    }
+
+    private void readLoop() {
+        try {
+            List<AccountMetrics> chunk = new ArrayList<>(chunkSize);
+            while (metrics.hasNext()) {
+                chunk.add(metrics.next());
+                if (chunk.size() == chunkSize) {
+                    chunks.put(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            // Closed by the consumer
+            return;
+        } catch (Throwable e) {
+            // Errors too: the consumer must always get the end marker, or it blocks forever
+            failure = e;
+        }
+
+        try {
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            // Closed by the consumer
+        }
+    }
+
+    /**
+     * Next chunk of metrics, blocking until the reader has one,
+     * or null once the iterator is exhausted.
+     *
+     * @throws RuntimeException whatever the iterator threw
+     * @throws Error           whatever the reader thread hit, e.g. OutOfMemoryError
+     */
+    List<AccountMetrics> nextChunk() {
+        if (finished) {
+            return null;
+        }
+        try {
+            List<AccountMetrics> chunk = chunks.take();
+            if (chunk != END) {
+                return chunk;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for accounts", e);
+        }
+
+        finished = true;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            // A checked exception thrown sneakily by the iterator
+            throw new RuntimeException("Account reader failed", failure);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+}
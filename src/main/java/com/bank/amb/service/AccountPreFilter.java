@@ -0,0 +1,114 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Threshold pre-filter in front of the rule session.
+ *
+ * Most accounts maintain their balance every cycle and can only reach R1C
+ * ("balance maintained") or no rule at all. The pre-filter checks every
+ * account's window sum against daysInMonth x minBalance in one parallel
+ * pass (O(1) per account from the prefix sums) and keeps only accounts
+ * that can produce a defaulter or a charge:
+ *
+ *   day 25: day 1-25 AMB below the minimum (R1A / R1B)
+ *   day 3:  full-month AMB below the minimum (R2), or an actual default two
+ *           months back that R3 may turn into a charge
+ *
+ * The rest are only counted. On other days no rules apply and every
+ * account passes through.
+ *
+ * Accounts are keyed with the engine's dictionary in the same pass, and the
+ * selection is a bit set of account keys, so history facts (keyed in place
+ * beforehand) are filtered without touching their ids.
+ */
+final class AccountPreFilter {
+
+    private AccountPreFilter() {
+    }
+
+    /**
+     * Select the at-risk accounts; existingActualDefaulters must already carry
+     * their keys in dictionary
+     */
+    static Selection select(ForkJoinPool pool, List<Account> accounts, AccountDictionary dictionary,
+                            List<ActualDefaulter> existingActualDefaulters, ExecutionContext context) {
+        int checkDay = context.getCheckDay();
+        if (checkDay != 25 && checkDay != 3) {
+            return new Selection(accounts, 0, null);
+        }
+
+        // Accounts R3 can charge regardless of this month's balance
+        BitSet chargeable = new BitSet();
+        if (checkDay == 3) {
+            for (ActualDefaulter defaulter : existingActualDefaulters) {
+                if (defaulter.getMonth() == context.getTwoMonthsBack()) {
+                    chargeable.set(defaulter.getAccountKey());
+                }
+            }
+        }
+
+        // Key of each at-risk account, UNASSIGNED for maintained ones
+        long minBalancePaise = context.getMinBalancePaise();
+        int[] atRisk = new int[accounts.size()];
+        pool.submit(() -> IntStream.range(0, atRisk.length).parallel().forEach(i -> {
+            Account account = accounts.get(i);
+            int days = account.getDaysInMonth();
+            long sumPaise = account.getBalanceSumPaise(1, checkDay == 25 ? 25 : days);
+            int key = dictionary.encode(account.getAccountId());
+            atRisk[i] = sumPaise < days * minBalancePaise || chargeable.get(key) ? key : AccountDictionary.UNASSIGNED;
+        })).join();
+
+        List<Account> selected = new ArrayList<>();
+        BitSet selectedKeys = new BitSet(dictionary.size());
+        for (int i = 0; i < atRisk.length; i++) {
+            if (atRisk[i] != AccountDictionary.UNASSIGNED) {
+                selected.add(accounts.get(i));
+                selectedKeys.set(atRisk[i]);
+            }
+        }
+        return new Selection(selected, accounts.size() - selected.size(), selectedKeys);
+    }
+
+    static final class Selection {
+        private final List<Account> accounts;
+        private final int maintained;
+        private final BitSet accountKeys;    // null when every account passes through
+
+        private Selection(List<Account> accounts, int maintained, BitSet accountKeys) {
+            this.accounts = accounts;
+            this.maintained = maintained;
+            this.accountKeys = accountKeys;
+        }
+
+        /**
+         * Accounts that go on to the rule session, in input order
+         */
+        List<Account> getAccounts() {
+            return accounts;
+        }
+
+        /**
+         * Accounts kept out of the rule session
+         */
+        int getMaintained() {
+            return maintained;
+        }
+
+        /**
+         * Whether the account with this dictionary key goes on to the rule session
+         */
+        boolean includes(int accountKey) {
+            return accountKeys == null || (accountKey >= 0 && accountKeys.get(accountKey));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.DecisionEvent;
+
+import java.io.PrintStream;
+
+/**
+ * Renders decision events as the human-readable console report the rules
+ * used to print themselves. Meant for demos and debugging; register it
+ * explicitly, production runs write to a file sink instead.
+ */
+public class ConsoleDecisionEventSink implements DecisionEventSink {
+
+    private static final String LINE = "═══════════════════════════════════════════════════════════";
+
+    private final PrintStream out;
+
+    public ConsoleDecisionEventSink() {
+        this(System.out);
+    }
+
+    public ConsoleDecisionEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void accept(DecisionEvent event) {
+        switch (event.getType()) {
+            case PROBABLE_DEFAULTER:
+                printProbableDefaulter(event);
+                break;
+            case BALANCE_MAINTAINED:
+                out.println("[RULE " + event.getRuleId() + "] ✓ Balance Maintained: "
+                        + event.getAccountId() + " (" + event.getAccountName() + ")");
+                break;
+            case ACTUAL_DEFAULTER:
+                printActualDefaulter(event);
+                break;
+            case CHARGE:
+                printCharge(event);
+                break;
+            default:
+                out.println(event);
+        }
+    }
+
+    private void printProbableDefaulter(DecisionEvent event) {
+        out.println(LINE);
+        out.println("[RULE " + event.getRuleId() + "] "
+                + (event.isSmsSent() ? "NEW PROBABLE DEFAULTER IDENTIFIED" : "PROBABLE DEFAULTER IDENTIFIED"));
+        out.println("  Account ID: " + event.getAccountId());
+        out.println("  Account Name: " + event.getAccountName());
+        out.println("  Month: " + event.getMonth());
+        out.println("  AMB (Day 1-25): ₹" + String.format("%.2f", event.getAmb()));
+        out.println("  Required Balance: ₹" + String.format("%.2f", event.getRequiredBalance()));
+        out.println("  Deficit: ₹" + String.format("%.2f", event.getShortfall()));
+        if (event.isSmsSent()) {
+            out.println("  ✉️  SMS: SENT");
+        } else {
+            out.println("  SMS Status: NOT SENT (was actual defaulter last month)");
+        }
+        out.println(LINE);
+    }
+
+    private void printActualDefaulter(DecisionEvent event) {
+        out.println("╔" + LINE + "╗");
+        out.println("║ [RULE " + event.getRuleId() + "] ACTUAL DEFAULTER CONFIRMED                      ║");
+        out.println("╚" + LINE + "╝");
+        out.println("  Account ID: " + event.getAccountId());
+        out.println("  Account Name: " + event.getAccountName());
+        out.println("  Defaulted Month: " + event.getMonth());
+        out.println("  Full Month AMB: ₹" + String.format("%.2f", event.getAmb()));
+        out.println("  Required Balance: ₹" + String.format("%.2f", event.getRequiredBalance()));
+        out.println("  Shortfall: ₹" + String.format("%.2f", event.getShortfall()));
+    }
+
+    private void printCharge(DecisionEvent event) {
+        out.println("╔" + LINE + "╗");
+        out.println("║                  💰 CHARGE APPLIED 💰                     ║");
+        out.println("╠" + LINE + "╣");
+        out.println("  Account ID: " + event.getAccountId());
+        out.println("  Account Name: " + event.getAccountName());
+        out.println("  Charged On: Month " + event.getMonth());
+        out.println("  Month " + event.getMonth1() + " Shortfall: ₹" + String.format("%,.2f", event.getShortfall1()));
+        out.println("  Month " + event.getMonth2() + " Shortfall: ₹" + String.format("%,.2f", event.getShortfall2()));
+        out.println("  Base Charge (6%, capped at ₹500 per month): ₹" + String.format("%,.2f", event.getBaseCharge()));
+        out.println("  GST (18%): ₹" + String.format("%,.2f", event.getGstAmount()));
+        out.println("  TOTAL CHARGE: ₹" + String.format("%,.2f", event.getTotalCharge()));
+        out.println("╚" + LINE + "╝");
+    }
+}
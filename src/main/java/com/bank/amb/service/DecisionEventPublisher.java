@@ -0,0 +1,228 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.DecisionEvent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands decision events from rule consequences to a background writer.
+ *
+ * Rule threads claim a slot in a bounded lock-free ring buffer with a CAS
+ * and store the event; they never format text or touch I/O. A single writer
+ * thread drains the buffer in order and passes every event to the registered
+ * sinks. When the buffer is full, publishers back off until the writer frees
+ * a slot, so no decision is dropped.
+ *
+ * With no sinks registered {@link #publish} returns immediately, and the
+ * writer thread is only started by the first {@link #addSink}.
+ *
+ * The closed flag lives in the top bit of the claim sequence, so a publish
+ * and {@link #close} are ordered by the same CAS: an event either claims its
+ * slot before close (and is drained) or sees the publisher closed.
+ */
+public class DecisionEventPublisher implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final AtomicReferenceArray<DecisionEvent> slots;
+    private final int mask;
+    // Next sequence to claim, with CLOSED set once close() has begun
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile long flushed;
+
+    private final List<DecisionEventSink> sinks = new CopyOnWriteArrayList<>();
+    private final Thread writer;
+    private boolean writerStarted;
+
+    // Metrics
+    private final LongAdder fullWaits = new LongAdder();
+    private final LongAdder sinkErrors = new LongAdder();
+
+    public DecisionEventPublisher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity ring buffer size, rounded up to a power of two
+     */
+    public DecisionEventPublisher(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+
+        writer = new Thread(this::drainLoop, "amb-decision-writer");
+        writer.setDaemon(true);
+    }
+
+    public synchronized void addSink(DecisionEventSink sink) {
+        if ((claimed.get() & CLOSED) != 0) {
+            throw new IllegalStateException("DecisionEventPublisher is closed");
+        }
+        sinks.add(sink);
+        if (!writerStarted) {
+            writerStarted = true;
+            writer.start();
+        }
+    }
+
+    public boolean hasSinks() {
+        return !sinks.isEmpty();
+    }
+
+    /**
+     * Enqueue an event for the writer thread. Safe to call from any thread.
+     */
+    public void publish(DecisionEvent event) {
+        if (sinks.isEmpty()) {
+            return;
+        }
+
+        while (true) {
+            long sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                throw new IllegalStateException("DecisionEventPublisher is closed");
+            }
+            if (sequence - consumed >= slots.length()) {
+                // Buffer full: wait for the writer rather than drop the decision
+                fullWaits.increment();
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), event);
+                return;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        long next = consumed;
+        while (true) {
+            DecisionEvent event = slots.get((int) (next & mask));
+            if (event == null) {
+                // A claimed slot may not be written yet; only an empty buffer counts as caught up
+                long state = claimed.get();
+                if (next == (state & ~CLOSED)) {
+                    if (flushed < next) {
+                        flushSinks();
+                        flushed = next;
+                    }
+                    // Closed and caught up: no further slot can be claimed
+                    if ((state & CLOSED) != 0) {
+                        return;
+                    }
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            slots.set((int) (next & mask), null);
+            consumed = ++next;
+            deliver(event);
+        }
+    }
+
+    private void deliver(DecisionEvent event) {
+        for (DecisionEventSink sink : sinks) {
+            try {
+                sink.accept(event);
+            } catch (IOException | RuntimeException e) {
+                sinkErrors.increment();
+                System.err.println("WARN: Decision event sink failed on " + event + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushSinks() {
+        for (DecisionEventSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException | RuntimeException e) {
+                sinkErrors.increment();
+                System.err.println("WARN: Failed to flush decision event sink: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Block until every event published before this call has reached the sinks
+     * and the sinks have been flushed.
+     */
+    public void flush() {
+        long target = claimed.get() & ~CLOSED;
+        while (flushed < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Number of events published but not yet handed to the sinks
+     */
+    public long getBacklog() {
+        return (claimed.get() & ~CLOSED) - consumed;
+    }
+
+    public long getPublished() {
+        return claimed.get() & ~CLOSED;
+    }
+
+    boolean isWriterAlive() {
+        return writer.isAlive();
+    }
+
+    public long getFullWaits() {
+        return fullWaits.sum();
+    }
+
+    public long getSinkErrors() {
+        return sinkErrors.sum();
+    }
+
+    /**
+     * Drain outstanding events, then close the sinks.
+     */
+    @Override
+    public void close() {
+        if ((claimed.getAndUpdate(sequence -> sequence | CLOSED) & CLOSED) != 0) {
+            return;
+        }
+        synchronized (this) {
+            // Without a sink nothing was ever published, so there is nothing to drain
+            if (!writerStarted) {
+                writerStarted = true;
+                return;
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (DecisionEventSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("WARN: Failed to close decision event sink: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.DecisionEvent;
+
+import java.io.IOException;
+
+/**
+ * Destination for decision events drained by {@link DecisionEventPublisher}.
+ *
+ * Sinks are only ever called from the publisher's writer thread, so they
+ * need not be thread-safe.
+ */
+public interface DecisionEventSink extends AutoCloseable {
+
+    void accept(DecisionEvent event) throws IOException;
+
+    /**
+     * Push buffered output through; called whenever the writer runs out of events
+     */
+    default void flush() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,126 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Defaulter and charge history with a bounded active window.
+ *
+ * The rules look back at most to twoMonthsBack, so a run in month M only
+ * needs records of months M - 2 to M. {@link #advanceTo(int)} moves records
+ * older than the window to a {@link HistoryArchive}, which keeps what the
+ * engine is handed the same size however many months have run. Records
+ * are dated by their month, or by chargedInMonth for charges.
+ *
+ * See {@link AMBRuleEngineProgrammatic#executeRules(java.util.List, DefaulterHistory,
+ * com.bank.amb.model.ExecutionContext)}, which advances and records automatically.
+ */
+public class DefaulterHistory {
+
+    /** currentMonth, prevMonth and twoMonthsBack */
+    public static final int DEFAULT_WINDOW_MONTHS = 3;
+
+    private final int windowMonths;
+    private final HistoryArchive archive;
+
+    private final List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+    private final List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+    private final List<Charge> charges = new ArrayList<>();
+    private int currentMonth = Integer.MIN_VALUE;
+
+    public DefaulterHistory() {
+        this(DEFAULT_WINDOW_MONTHS, new InMemoryHistoryArchive());
+    }
+
+    /**
+     * @param windowMonths months kept active, counting the current month; at least
+     *                     {@link #DEFAULT_WINDOW_MONTHS} since the charge rule reads twoMonthsBack
+     * @param archive      receives evicted records
+     */
+    public DefaulterHistory(int windowMonths, HistoryArchive archive) {
+        if (windowMonths < DEFAULT_WINDOW_MONTHS) {
+            throw new IllegalArgumentException("windowMonths must be at least " + DEFAULT_WINDOW_MONTHS
+                    + " (the rules look back to twoMonthsBack), got " + windowMonths);
+        }
+        this.windowMonths = windowMonths;
+        this.archive = archive;
+    }
+
+    /**
+     * Make month the current month and archive every record before the window.
+     * Moving back to an earlier month evicts nothing.
+     */
+    public void advanceTo(int month) {
+        if (month <= currentMonth) {
+            return;
+        }
+        currentMonth = month;
+        int oldestKept = month - windowMonths + 1;
+        List<ProbableDefaulter> oldProbable = evict(probableDefaulters, ProbableDefaulter::getMonth, oldestKept);
+        List<ActualDefaulter> oldActual = evict(actualDefaulters, ActualDefaulter::getMonth, oldestKept);
+        List<Charge> oldCharges = evict(charges, Charge::getChargedInMonth, oldestKept);
+        if (!oldProbable.isEmpty() || !oldActual.isEmpty() || !oldCharges.isEmpty()) {
+            archive.archive(oldProbable, oldActual, oldCharges);
+        }
+    }
+
+    /**
+     * Add the defaulters and charges of a run
+     */
+    public void record(RuleExecutionResult result) {
+        probableDefaulters.addAll(result.getProbableDefaulters());
+        actualDefaulters.addAll(result.getActualDefaulters());
+        charges.addAll(result.getCharges());
+    }
+
+    /**
+     * Active window, the list handed to the engine
+     */
+    public List<ProbableDefaulter> getProbableDefaulters() {
+        return probableDefaulters;
+    }
+
+    public List<ActualDefaulter> getActualDefaulters() {
+        return actualDefaulters;
+    }
+
+    public List<Charge> getCharges() {
+        return charges;
+    }
+
+    public int getWindowMonths() {
+        return windowMonths;
+    }
+
+    public HistoryArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Records in the active window
+     */
+    public int size() {
+        return probableDefaulters.size() + actualDefaulters.size() + charges.size();
+    }
+
+    private static <T> List<T> evict(List<T> records, ToIntFunction<T> month, int oldestKept) {
+        List<T> evicted = new ArrayList<>();
+        Predicate<T> old = record -> month.applyAsInt(record) < oldestKept;
+        for (T record : records) {
+            if (old.test(record)) {
+                evicted.add(record);
+            }
+        }
+        if (!evicted.isEmpty()) {
+            records.removeIf(old);
+        }
+        return evicted;
+    }
+}
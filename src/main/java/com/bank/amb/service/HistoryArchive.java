@@ -0,0 +1,21 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.util.List;
+
+/**
+ * Cold storage for history that has left the active window of a
+ * {@link DefaulterHistory}. The engines never read it.
+ */
+public interface HistoryArchive {
+
+    /**
+     * Take over evicted records; the lists are not reused by the caller
+     */
+    void archive(List<ProbableDefaulter> probableDefaulters,
+                 List<ActualDefaulter> actualDefaulters,
+                 List<Charge> charges);
+}
@@ -0,0 +1,40 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.ActualDefaulter;
+import com.bank.amb.model.Charge;
+import com.bank.amb.model.ProbableDefaulter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archive that keeps evicted records on the heap in eviction order, for
+ * reports over the whole run.
+ */
+public class InMemoryHistoryArchive implements HistoryArchive {
+
+    private final List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+    private final List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+    private final List<Charge> charges = new ArrayList<>();
+
+    @Override
+    public void archive(List<ProbableDefaulter> probableDefaulters,
+                        List<ActualDefaulter> actualDefaulters,
+                        List<Charge> charges) {
+        this.probableDefaulters.addAll(probableDefaulters);
+        this.actualDefaulters.addAll(actualDefaulters);
+        this.charges.addAll(charges);
+    }
+
+    public List<ProbableDefaulter> getProbableDefaulters() {
+        return probableDefaulters;
+    }
+
+    public List<ActualDefaulter> getActualDefaulters() {
+        return actualDefaulters;
+    }
+
+    public List<Charge> getCharges() {
+        return charges;
+    }
+}
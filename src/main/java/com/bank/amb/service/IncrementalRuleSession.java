@@ -0,0 +1,182 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Long-lived stateful rule session for consecutive day-25 / day-3 cycles.
+ *
+ * ProbableDefaulter, ActualDefaulter and Charge facts stay in working memory
+ * between cycles, so a cycle only swaps the ExecutionContext and updates the
+ * per-account AccountMetrics facts through their fact handles instead of
+ * re-inserting all history.
+ * History older than the two months the rules look back at is retracted
+ * automatically at the start of each cycle.
+ *
+ * Not thread-safe: one cycle at a time.
+ */
+public class IncrementalRuleSession implements AutoCloseable {
+
+    /** Rules look at currentMonth - 1 and currentMonth - 2 only */
+    public static final int RETENTION_MONTHS = 2;
+
+    private final KieSession kieSession;
+
+    private final AccountDictionary accountDictionary;
+
+    private FactHandle contextHandle;
+    // Metrics fact handles indexed by account key
+    private FactHandle[] metricsHandles = new FactHandle[0];
+
+    // History fact handles keyed by the month the rules match them on
+    private final TreeMap<Integer, List<FactHandle>> historyByMonth = new TreeMap<>();
+    private int historyFactCount;
+
+    IncrementalRuleSession(KieBase kieBase, DecisionEventPublisher decisionEvents,
+                           AccountDictionary accountDictionary) {
+        this.kieSession = kieBase.newKieSession();
+        this.kieSession.setGlobal("decisionEvents", decisionEvents);
+        this.accountDictionary = accountDictionary;
+    }
+
+    /**
+     * Load history produced before this session was opened (e.g. from storage).
+     * The facts are given their account key in place (setAccountKey) and stay
+     * in working memory, so callers must not modify them afterwards.
+     */
+    public void seedHistory(List<ProbableDefaulter> probableDefaulters,
+                            List<ActualDefaulter> actualDefaulters,
+                            List<Charge> charges) {
+        for (ProbableDefaulter pd : probableDefaulters) {
+            pd.setAccountKey(accountDictionary.keyOf(pd.getAccountId(), pd.getAccountKey()));
+            trackHistory(pd.getMonth(), kieSession.insert(pd));
+        }
+        for (ActualDefaulter ad : actualDefaulters) {
+            ad.setAccountKey(accountDictionary.keyOf(ad.getAccountId(), ad.getAccountKey()));
+            trackHistory(ad.getMonth(), kieSession.insert(ad));
+        }
+        for (Charge charge : charges) {
+            charge.setAccountKey(accountDictionary.keyOf(charge.getAccountId(), charge.getAccountKey()));
+            trackHistory(charge.getChargedInMonth(), kieSession.insert(charge));
+        }
+    }
+
+    /**
+     * Run one day-25 or day-3 cycle against the retained history.
+     * Only the facts produced by this cycle are returned.
+     */
+    public RuleExecutionResult executeCycle(List<Account> accounts, ExecutionContext context) {
+        try {
+            // Drop history the rules can no longer reach
+            expireHistoryBefore(context.getCurrentMonth() - RETENTION_MONTHS);
+
+            List<ProbableDefaulter> probableDefaulters = new ArrayList<>();
+            List<ActualDefaulter> actualDefaulters = new ArrayList<>();
+            List<Charge> charges = new ArrayList<>();
+
+            kieSession.setGlobal("probableDefaultersList", probableDefaulters);
+            kieSession.setGlobal("actualDefaultersList", actualDefaulters);
+            kieSession.setGlobal("chargesList", charges);
+
+            // Swap the context
+            if (contextHandle != null) {
+                kieSession.delete(contextHandle);
+            }
+            contextHandle = kieSession.insert(context);
+
+            // Insert metrics for new accounts, update known ones in place, retract those no longer supplied
+            BitSet seen = new BitSet(metricsHandles.length);
+            for (Account account : accounts) {
+                account.setCurrentMonth(context.getCurrentMonth());
+                int key = accountDictionary.encode(account.getAccountId());
+                seen.set(key);
+
+                AccountMetrics metrics = AccountMetrics.of(account, context);
+                metrics.setAccountKey(key);
+                if (key >= metricsHandles.length) {
+                    metricsHandles = Arrays.copyOf(metricsHandles, Math.max(key + 1, accountDictionary.size()));
+                }
+                if (metricsHandles[key] == null) {
+                    metricsHandles[key] = kieSession.insert(metrics);
+                } else {
+                    kieSession.update(metricsHandles[key], metrics);
+                }
+            }
+            for (int key = 0; key < metricsHandles.length; key++) {
+                if (metricsHandles[key] != null && !seen.get(key)) {
+                    kieSession.delete(metricsHandles[key]);
+                    metricsHandles[key] = null;
+                }
+            }
+
+            AMBRuleEngineProgrammatic.focusAgendaGroup(kieSession, context);
+            int rulesFired = kieSession.fireAllRules();
+
+            // Facts inserted by rule consequences become history for later cycles
+            for (ProbableDefaulter pd : probableDefaulters) {
+                trackHistory(pd.getMonth(), kieSession.getFactHandle(pd));
+            }
+            for (ActualDefaulter ad : actualDefaulters) {
+                trackHistory(ad.getMonth(), kieSession.getFactHandle(ad));
+            }
+            for (Charge charge : charges) {
+                trackHistory(charge.getChargedInMonth(), kieSession.getFactHandle(charge));
+            }
+
+            System.out.println("\n========================================");
+            System.out.println("Incremental Rules Execution Summary");
+            System.out.println("========================================");
+            System.out.println("Rules Fired: " + rulesFired);
+            System.out.println("Probable Defaulters: " + probableDefaulters.size());
+            System.out.println("Actual Defaulters: " + actualDefaulters.size());
+            System.out.println("Charges Applied: " + charges.size());
+            System.out.println("Retained History Facts: " + historyFactCount);
+            System.out.println("========================================\n");
+
+            return new RuleExecutionResult(probableDefaulters, actualDefaulters, charges, rulesFired);
+
+        } catch (Exception e) {
+            System.err.println("ERROR during incremental rule execution: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Incremental rule execution failed", e);
+        }
+    }
+
+    private void trackHistory(int month, FactHandle handle) {
+        if (handle == null) {
+            return;
+        }
+        historyByMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(handle);
+        historyFactCount++;
+    }
+
+    private void expireHistoryBefore(int oldestRetainedMonth) {
+        Map<Integer, List<FactHandle>> expired = historyByMonth.headMap(oldestRetainedMonth);
+        for (List<FactHandle> handles : expired.values()) {
+            for (FactHandle handle : handles) {
+                kieSession.delete(handle);
+            }
+            historyFactCount -= handles.size();
+        }
+        expired.clear();
+    }
+
+    public int getHistoryFactCount() {
+        return historyFactCount;
+    }
+
+    @Override
+    public void close() {
+        kieSession.dispose();
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.DecisionEvent;
+import com.bank.amb.model.Money;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends one JSON object per decision event to a file (JSON Lines).
+ * Only the fields that apply to the event type are written.
+ */
+public class JsonLinesDecisionEventSink implements DecisionEventSink {
+
+    private final Path file;
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public JsonLinesDecisionEventSink(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+    }
+
+    @Override
+    public void accept(DecisionEvent event) throws IOException {
+        line.setLength(0);
+        line.append("{\"ts\":").append(event.getTimestampMillis());
+        string("type", event.getType().name());
+        string("rule", event.getRuleId());
+        string("accountId", event.getAccountId());
+        string("accountName", event.getAccountName());
+        line.append(",\"month\":").append(event.getMonth());
+
+        switch (event.getType()) {
+            case PROBABLE_DEFAULTER:
+                line.append(",\"amb\":").append(Money.format(event.getAmbPaise()));
+                line.append(",\"requiredBalance\":").append(Money.format(event.getRequiredBalancePaise()));
+                line.append(",\"deficit\":").append(Money.format(event.getShortfallPaise()));
+                line.append(",\"smsSent\":").append(event.isSmsSent());
+                break;
+            case ACTUAL_DEFAULTER:
+                line.append(",\"amb\":").append(Money.format(event.getAmbPaise()));
+                line.append(",\"requiredBalance\":").append(Money.format(event.getRequiredBalancePaise()));
+                line.append(",\"shortfall\":").append(Money.format(event.getShortfallPaise()));
+                break;
+            case CHARGE:
+                line.append(",\"month1\":").append(event.getMonth1());
+                line.append(",\"shortfall1\":").append(Money.format(event.getShortfall1Paise()));
+                line.append(",\"month2\":").append(event.getMonth2());
+                line.append(",\"shortfall2\":").append(Money.format(event.getShortfall2Paise()));
+                line.append(",\"baseCharge\":").append(Money.format(event.getBaseChargePaise()));
+                line.append(",\"gst\":").append(Money.format(event.getGstAmountPaise()));
+                line.append(",\"totalCharge\":").append(Money.format(event.getTotalChargePaise()));
+                break;
+            default:
+                break;
+        }
+        line.append("}\n");
+        out.append(line);
+    }
+
+    private void string(String name, String value) {
+        line.append(",\"").append(name).append("\":");
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.amb.service;
+
+import org.drools.base.common.DroolsObjectInputStream;
+import org.drools.base.common.DroolsObjectOutputStream;
+import org.drools.base.definitions.InternalKnowledgePackage;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.kiesession.rulebase.KnowledgeBaseFactory;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk cache of compiled rule packages for DRL loaded at runtime.
+ *
+ * Entries are keyed by a SHA-256 of the Drools version and the name and
+ * content of every rule file, so an edited DRL or a Drools upgrade simply
+ * misses. A hit deserializes the compiled packages (including the generated
+ * consequence classes) and only rebuilds the network, skipping DRL parsing
+ * and Java compilation. Any unreadable entry falls back to compiling.
+ *
+ * Entries are written to a temp file and moved into place atomically, so
+ * several JVMs can share one cache directory.
+ */
+public class KieBaseCache {
+
+    private static final String ENTRY_SUFFIX = ".kpkgs";
+
+    private final Path cacheDir;
+
+    public KieBaseCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Load the compiled rules for a DRL file or directory from the cache,
+     * compiling (and caching) them on a miss.
+     */
+    public KieBase loadOrCompile(Path rulesPath) {
+        String key = cacheKey(rulesPath);
+        Path entry = cacheDir.resolve(key + ENTRY_SUFFIX);
+
+        if (Files.exists(entry)) {
+            long start = System.nanoTime();
+            try {
+                KieBase kieBase = read(entry);
+                System.out.println("✓ Rules loaded from cache " + entry.getFileName() + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return kieBase;
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                System.err.println("WARN: Ignoring unreadable rule cache entry " + entry + ": " + e);
+            }
+        }
+
+        KieBase kieBase = RuleFileWatcher.compile(rulesPath);
+        try {
+            write(kieBase, entry);
+        } catch (IOException | RuntimeException e) {
+            // The rules are compiled; a cache we cannot write only costs the next start
+            System.err.println("WARN: Failed to write rule cache entry " + entry + ": " + e);
+        }
+        return kieBase;
+    }
+
+    /**
+     * SHA-256 (hex) of the Drools version and every rule file's name and content
+     */
+    public static String cacheKey(Path rulesPath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(droolsVersion().getBytes(StandardCharsets.UTF_8));
+            for (Path drlFile : RuleFileWatcher.listRuleFiles(rulesPath)) {
+                digest.update((byte) 0);
+                digest.update(drlFile.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(drlFile));
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new RuntimeException("Failed to hash rules at " + rulesPath, e);
+        }
+    }
+
+    static String droolsVersion() {
+        String version = InternalRuleBase.class.getPackage().getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    @SuppressWarnings("unchecked")
+    private KieBase read(Path entry) throws IOException, ClassNotFoundException {
+        List<InternalKnowledgePackage> packages;
+        try (ObjectInputStream in = new DroolsObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(entry)), getClass().getClassLoader())) {
+            packages = (List<InternalKnowledgePackage>) in.readObject();
+        }
+        InternalKnowledgeBase kieBase = KnowledgeBaseFactory.newKnowledgeBase();
+        kieBase.addPackages(packages);
+        return kieBase;
+    }
+
+    private void write(KieBase kieBase, Path entry) throws IOException {
+        List<KiePackage> packages = new ArrayList<>(kieBase.getKiePackages());
+        Files.createDirectories(cacheDir);
+        Path temp = Files.createTempFile(cacheDir, "entry", ".tmp");
+        try {
+            try (ObjectOutputStream out = new DroolsObjectOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeObject(packages);
+            }
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+}
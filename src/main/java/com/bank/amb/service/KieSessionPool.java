@@ -0,0 +1,216 @@
+package com.bank.amb.service;
+
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable KieSessions built from one shared KieBase.
+ *
+ * A borrowed session belongs to the calling thread until it is released.
+ * On release the session is reset (working memory, agenda, globals and
+ * listeners are cleared) and parked for the next caller, so building a
+ * session drops out of the per-batch cost once the pool is warm.
+ */
+public class KieSessionPool implements AutoCloseable {
+
+    private static final long WAIT_SLICE_MILLIS = 50;
+
+    private final KieBase kieBase;
+    private final int maxSessions;
+    private final BlockingQueue<KieSession> idleSessions;
+    private final AtomicInteger createdSessions = new AtomicInteger();
+
+    // Metrics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    private volatile boolean closed;
+
+    public KieSessionPool(KieBase kieBase, int maxSessions) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1, got " + maxSessions);
+        }
+        this.kieBase = kieBase;
+        this.maxSessions = maxSessions;
+        this.idleSessions = new LinkedBlockingQueue<>(maxSessions);
+    }
+
+    /**
+     * Borrow a session for exclusive use by the calling thread.
+     * Blocks when all sessions are in use and the pool is at capacity.
+     */
+    public KieSession borrow() {
+        if (closed) {
+            throw new IllegalStateException("KieSessionPool is closed");
+        }
+
+        // 1. Reuse an idle session
+        KieSession session = idleSessions.poll();
+        if (session != null) {
+            hits.increment();
+            return session;
+        }
+
+        // 2. Grow the pool while below capacity
+        if (reserveSlot()) {
+            return createSession();
+        }
+
+        // 3. Wait for another thread to release one (re-checking capacity in case
+        //    a released session was disposed instead of parked)
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                session = idleSessions.poll(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+                if (session != null) {
+                    hits.increment();
+                    return session;
+                }
+                if (closed) {
+                    throw new IllegalStateException("KieSessionPool is closed");
+                }
+                if (reserveSlot()) {
+                    return createSession();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a KieSession", e);
+        } finally {
+            waits.increment();
+            waitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Return a session to the pool. The session is reset before it is parked;
+     * sessions that cannot be reset, or are returned after close, are disposed.
+     */
+    public void release(KieSession session) {
+        if (session == null) {
+            return;
+        }
+
+        if (!closed && session instanceof StatefulKnowledgeSessionImpl) {
+            try {
+                ((StatefulKnowledgeSessionImpl) session).reset();
+                if (idleSessions.offer(session)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("WARN: Failed to reset pooled KieSession, disposing it: " + e.getMessage());
+            }
+        }
+
+        session.dispose();
+        createdSessions.decrementAndGet();
+    }
+
+    private KieSession createSession() {
+        misses.increment();
+        try {
+            return kieBase.newKieSession();
+        } catch (RuntimeException e) {
+            createdSessions.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = createdSessions.get();
+            if (current >= maxSessions) {
+                return false;
+            }
+            if (createdSessions.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public KieBase getKieBase() {
+        return kieBase;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(hits.sum(), misses.sum(), waits.sum(), waitNanos.sum(),
+                createdSessions.get(), idleSessions.size());
+    }
+
+    /**
+     * Dispose all idle sessions. Sessions still borrowed are disposed when released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        KieSession session;
+        while ((session = idleSessions.poll()) != null) {
+            session.dispose();
+            createdSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of pool counters.
+     */
+    public static class Metrics {
+        private final long hits;
+        private final long misses;
+        private final long waits;
+        private final long totalWaitNanos;
+        private final int liveSessions;
+        private final int idleSessions;
+
+        public Metrics(long hits, long misses, long waits, long totalWaitNanos,
+                       int liveSessions, int idleSessions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.waits = waits;
+            this.totalWaitNanos = totalWaitNanos;
+            this.liveSessions = liveSessions;
+            this.idleSessions = idleSessions;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getWaits() { return waits; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+        public int getLiveSessions() { return liveSessions; }
+        public int getIdleSessions() { return idleSessions; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        public double getAverageWaitMillis() {
+            return waits == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / waits;
+        }
+
+        @Override
+        public String toString() {
+            return "KieSessionPool.Metrics{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                    ", waits=" + waits +
+                    ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                    ", liveSessions=" + liveSessions +
+                    ", idleSessions=" + idleSessions +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.bank.amb.service;
+
+import org.kie.api.KieBase;
+import org.kie.api.io.ResourceType;
+import org.kie.internal.utils.KieHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a DRL file, or a directory of *.drl files, and recompiles the rules
+ * on a background thread whenever they change.
+ *
+ * Every successful compile is handed to the listener; a compile that fails
+ * is reported and the previous rules stay in use. Bursts of file events
+ * (editors often write a file several times) are folded into one compile.
+ * The compile step is pluggable so callers can route it through a
+ * {@link KieBaseCache}.
+ */
+public class RuleFileWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path rulesPath;
+    private final Path watchedDirectory;
+    private final Runnable reload;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    public RuleFileWatcher(Path rulesPath, Consumer<KieBase> listener) {
+        this(rulesPath, RuleFileWatcher::compile, listener);
+    }
+
+    /**
+     * @param compiler turns the rules path into a KieBase on every change,
+     *                 e.g. {@link KieBaseCache#loadOrCompile}
+     */
+    public RuleFileWatcher(Path rulesPath, Function<Path, KieBase> compiler, Consumer<KieBase> listener) {
+        this(rulesPath, () -> {
+            long start = System.nanoTime();
+            KieBase kieBase = compiler.apply(rulesPath.toAbsolutePath());
+            System.out.println("✓ Rules recompiled from " + rulesPath.toAbsolutePath() + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            listener.accept(kieBase);
+        });
+    }
+
+    /**
+     * @param reload recompiles and applies the rules on every change; if it
+     *               throws, the error is reported and the watcher carries on
+     */
+    public RuleFileWatcher(Path rulesPath, Runnable reload) {
+        this.rulesPath = rulesPath.toAbsolutePath();
+        this.watchedDirectory = Files.isDirectory(this.rulesPath) ? this.rulesPath : this.rulesPath.getParent();
+        this.reload = reload;
+
+        try {
+            watchService = watchedDirectory.getFileSystem().newWatchService();
+            watchedDirectory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("ERROR: Cannot watch rules at " + this.rulesPath);
+            e.printStackTrace();
+            throw new RuntimeException("Failed to watch rules at " + this.rulesPath, e);
+        }
+
+        thread = new Thread(this::watchLoop, "amb-rule-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Compile the DRL at a file path, or every *.drl file in a directory, into a new KieBase.
+     */
+    public static KieBase compile(Path rulesPath) {
+        List<Path> drlFiles = listRuleFiles(rulesPath);
+        if (drlFiles.isEmpty()) {
+            throw new IllegalArgumentException("No .drl files found at " + rulesPath);
+        }
+
+        KieHelper kieHelper = new KieHelper();
+        for (Path drlFile : drlFiles) {
+            try {
+                kieHelper.addContent(new String(Files.readAllBytes(drlFile), StandardCharsets.UTF_8), ResourceType.DRL);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read rules from " + drlFile, e);
+            }
+        }
+        // Throws with the compiler messages if the DRL does not build
+        return kieHelper.build();
+    }
+
+    static List<Path> listRuleFiles(Path rulesPath) {
+        if (!Files.isDirectory(rulesPath)) {
+            return Files.exists(rulesPath) ? List.of(rulesPath) : List.of();
+        }
+        try (Stream<Path> files = Files.list(rulesPath)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".drl"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list rules in " + rulesPath, e);
+        }
+    }
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = isRelevant(key);
+                key.reset();
+
+                // Fold a burst of writes into a single recompile
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= isRelevant(next);
+                    next.reset();
+                }
+
+                if (changed) {
+                    recompile();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean isRelevant(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                return true;
+            }
+            Path changed = watchedDirectory.resolve((Path) event.context());
+            if (changed.equals(rulesPath) || (rulesPath.equals(watchedDirectory)
+                    && changed.getFileName().toString().endsWith(".drl"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recompile() {
+        try {
+            reload.run();
+        } catch (RuntimeException e) {
+            System.err.println("ERROR: Rules at " + rulesPath + " failed to compile, keeping previous rules: "
+                    + e.getMessage());
+        }
+    }
+
+    public Path getRulesPath() {
+        return rulesPath;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("WARN: Failed to close rule watcher: " + e.getMessage());
+        }
+    }
+}
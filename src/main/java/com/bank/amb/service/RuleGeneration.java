@@ -0,0 +1,86 @@
+package com.bank.amb.service;
+
+import org.kie.api.KieBase;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One compiled version of the rules together with the session pool built on it.
+ *
+ * Batches lease the generation that is current when they start and run every
+ * session on it, even if newer rules are swapped in meanwhile. A retired
+ * generation closes its pool once the last lease is returned.
+ */
+class RuleGeneration {
+
+    private final long version;
+    private final String source;
+    private final KieBase kieBase;
+    private final KieSessionPool sessionPool;
+    private final StatelessKieSession statelessSession;
+
+    private final AtomicInteger leases = new AtomicInteger();
+    private volatile boolean retired;
+
+    RuleGeneration(long version, String source, KieBase kieBase, int maxPooledSessions) {
+        this.version = version;
+        this.source = source;
+        this.kieBase = kieBase;
+        this.sessionPool = new KieSessionPool(kieBase, maxPooledSessions);
+        // Thread-safe: every execute() runs on a fresh, internally disposed session
+        this.statelessSession = kieBase.newStatelessKieSession();
+    }
+
+    /**
+     * Take a lease unless the generation has already been retired.
+     */
+    boolean tryLease() {
+        leases.incrementAndGet();
+        if (retired) {
+            returnLease();
+            return false;
+        }
+        return true;
+    }
+
+    void returnLease() {
+        if (leases.decrementAndGet() == 0 && retired) {
+            sessionPool.close();
+        }
+    }
+
+    /**
+     * Stop handing out leases; the pool closes when in-flight batches finish.
+     */
+    void retire() {
+        retired = true;
+        if (leases.get() == 0) {
+            sessionPool.close();
+        }
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    KieBase getKieBase() {
+        return kieBase;
+    }
+
+    KieSessionPool getSessionPool() {
+        return sessionPool;
+    }
+
+    StatelessKieSession getStatelessSession() {
+        return statelessSession;
+    }
+
+    int getActiveLeases() {
+        return leases.get();
+    }
+}
@@ -0,0 +1,179 @@
+package com.bank.amb.store;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.model.ExecutionContext;
+
+import java.util.Arrays;
+
+/**
+ * A block of accounts laid out column-wise (one long[] of paise per day,
+ * indexed by account) for bulk AMB evaluation.
+ *
+ * {@link #evaluate} computes the day-25 and full-month window sums of every
+ * account with one flat loop per day over contiguous primitives, then the
+ * below-minimum flags by comparing each sum with daysInMonth x minBalance,
+ * so the bulk pass does no division. The loops have no branches, calls or
+ * boxing, which lets the JIT compile them to SIMD adds and compares on any
+ * JDK the project targets. AMB itself is only divided out when asked for.
+ *
+ * A block is reusable: {@link #clear} it and fill it again. Not thread-safe;
+ * use one block per thread.
+ */
+public class AmbBlock {
+
+    public static final int PARTIAL_DAY = 25;
+
+    private final int capacity;
+    private final int daysInMonth;
+    private final long[][] balancesByDay; // [day - 1][account]
+    private final String[] accountIds;
+    private final String[] accountNames;
+    private final long[] sum25Paise;
+    private final long[] sumMonthPaise;
+    private final boolean[] belowMin25;
+    private final boolean[] belowMinMonth;
+    private int size;
+
+    public AmbBlock(int capacity) {
+        this(capacity, BalanceStore.DAYS);
+    }
+
+    public AmbBlock(int capacity, int daysInMonth) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, got " + capacity);
+        }
+        if (daysInMonth < 28 || daysInMonth > 31) {
+            throw new IllegalArgumentException("daysInMonth must be 28-31, got " + daysInMonth);
+        }
+        this.capacity = capacity;
+        this.daysInMonth = daysInMonth;
+        this.balancesByDay = new long[daysInMonth][capacity];
+        this.accountIds = new String[capacity];
+        this.accountNames = new String[capacity];
+        this.sum25Paise = new long[capacity];
+        this.sumMonthPaise = new long[capacity];
+        this.belowMin25 = new boolean[capacity];
+        this.belowMinMonth = new boolean[capacity];
+    }
+
+    /**
+     * Append an account's balances; days it does not cover count as zero
+     */
+    public int add(Account account) {
+        int index = nextIndex(account.getAccountId(), account.getAccountName());
+        long[] balances = account.getDailyBalancesPaise();
+        int days = balances == null ? 0 : Math.min(balances.length, daysInMonth);
+        for (int day = 0; day < days; day++) {
+            balancesByDay[day][index] = balances[day];
+        }
+        for (int day = days; day < daysInMonth; day++) {
+            balancesByDay[day][index] = 0;
+        }
+        return index;
+    }
+
+    /**
+     * Fill the block with up to {@link #getCapacity()} consecutive accounts
+     * of a balance store, starting at firstAccount. Returns how many were read.
+     */
+    public int load(BalanceStore store, int firstAccount) {
+        clear();
+        int count = Math.min(capacity, store.size() - firstAccount);
+        int storeDays = Math.min(BalanceStore.DAYS, daysInMonth);
+        for (int i = 0; i < count; i++) {
+            int account = firstAccount + i;
+            int index = nextIndex(store.getAccountId(account), store.getAccountName(account));
+            for (int day = 1; day <= storeDays; day++) {
+                balancesByDay[day - 1][index] = store.getBalancePaise(account, day);
+            }
+            for (int day = storeDays; day < daysInMonth; day++) {
+                balancesByDay[day][index] = 0;
+            }
+        }
+        return Math.max(count, 0);
+    }
+
+    private int nextIndex(String accountId, String accountName) {
+        if (size == capacity) {
+            throw new IllegalStateException("Block is full (" + capacity + " accounts)");
+        }
+        accountIds[size] = accountId;
+        accountNames[size] = accountName;
+        return size++;
+    }
+
+    /**
+     * Compute the window sums and below-minimum flags of every account in the block
+     */
+    public void evaluate(ExecutionContext context) {
+        int n = size;
+        long[] sum25 = sum25Paise;
+        long[] sumMonth = sumMonthPaise;
+        Arrays.fill(sum25, 0, n, 0);
+        for (int day = 0; day < PARTIAL_DAY; day++) {
+            long[] column = balancesByDay[day];
+            for (int i = 0; i < n; i++) {
+                sum25[i] += column[i];
+            }
+        }
+        System.arraycopy(sum25, 0, sumMonth, 0, n);
+        for (int day = PARTIAL_DAY; day < daysInMonth; day++) {
+            long[] column = balancesByDay[day];
+            for (int i = 0; i < n; i++) {
+                sumMonth[i] += column[i];
+            }
+        }
+
+        long thresholdPaise = daysInMonth * context.getMinBalancePaise();
+        boolean[] below25 = belowMin25;
+        boolean[] belowMonth = belowMinMonth;
+        for (int i = 0; i < n; i++) {
+            below25[i] = sum25[i] < thresholdPaise;
+            belowMonth[i] = sumMonth[i] < thresholdPaise;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(accountIds, 0, size, null);
+        Arrays.fill(accountNames, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDaysInMonth() {
+        return daysInMonth;
+    }
+
+    public String getAccountId(int index) {
+        return accountIds[index];
+    }
+
+    public String getAccountName(int index) {
+        return accountNames[index];
+    }
+
+    // The accessors below are valid after evaluate()
+
+    public long getSum25Paise(int index) {
+        return sum25Paise[index];
+    }
+
+    public long getSumMonthPaise(int index) {
+        return sumMonthPaise[index];
+    }
+
+    public boolean isBelowMin25(int index) {
+        return belowMin25[index];
+    }
+
+    public boolean isBelowMinMonth(int index) {
+        return belowMinMonth[index];
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.amb.store;
+
+/**
+ * Flyweight view of one account in a {@link BalanceStore}.
+ *
+ * A single cursor is moved across the population instead of materializing
+ * an Account per row; balances are read straight from the mapped file.
+ * Not thread-safe: use one cursor per thread.
+ */
+public class BalanceCursor {
+
+    private final BalanceStore store;
+    private int index = -1;
+
+    BalanceCursor(BalanceStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Advance to the next account; false once past the last one
+     */
+    public boolean next() {
+        if (index + 1 >= store.size()) {
+            index = store.size();
+            return false;
+        }
+        index++;
+        return true;
+    }
+
+    public BalanceCursor moveTo(int index) {
+        if (index < 0 || index >= store.size()) {
+            throw new IndexOutOfBoundsException("Account index " + index + " outside 0.." + (store.size() - 1));
+        }
+        this.index = index;
+        return this;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getAccountId() {
+        return store.getAccountId(index);
+    }
+
+    public String getAccountName() {
+        return store.getAccountName(index);
+    }
+
+    public double getBalance(int day) {
+        return store.getBalance(index, day);
+    }
+
+    public long getBalanceSumPaise(int startDay, int endDay) {
+        return store.getBalanceSumPaise(index, startDay, endDay);
+    }
+
+    public double calculateAMB(int startDay, int endDay) {
+        return store.calculateAMB(index, startDay, endDay);
+    }
+}
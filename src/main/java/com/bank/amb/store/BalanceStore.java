@@ -0,0 +1,337 @@
+package com.bank.amb.store;
+
+import com.bank.amb.model.AccountDictionary;
+import com.bank.amb.model.Money;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar daily-balance store for the whole account population.
+ *
+ * Balances live in one memory-mapped file laid out as accounts x days
+ * (30 longs of paise per account, row by row, see Money), so they cost no heap and no GC
+ * work. Accounts are addressed by a dense int index, the account's key in
+ * the store's {@link AccountDictionary}, whose ids and names are kept in a
+ * dictionary file next to the balances. Files are mapped in
+ * segments of {@link #SEGMENT_ACCOUNTS} accounts because a single mapping
+ * is limited to 2 GB; the last segment is mapped only as large as the
+ * accounts in it need and remapped, doubling, as accounts are added.
+ *
+ * The store lives in a directory and can be closed after the day-25 run
+ * and reopened for the day-3 run without reloading any balances.
+ *
+ * Reads are safe from any number of threads; adds and writes must come
+ * from a single thread and not overlap with reads of the same account.
+ */
+public class BalanceStore implements AutoCloseable {
+
+    public static final int DAYS = 30;
+    public static final int SEGMENT_ACCOUNTS = 1 << 20;
+    static final int MIN_SEGMENT_ACCOUNTS = 1 << 10;
+
+    static final String BALANCES_FILE = "balances.bin";
+    static final String DICTIONARY_FILE = "accounts.dat";
+
+    private static final int MAGIC = 0x414D4242; // "AMBB"
+    private static final int FORMAT_VERSION = 2; // 2: balances in paise
+    private static final int ACCOUNT_BYTES = DAYS * Long.BYTES;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_ACCOUNTS * ACCOUNT_BYTES;
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Accounts the last mapped segment has room for
+    private int lastSegmentAccounts;
+
+    // Account key = index of the account's balances
+    private final AccountDictionary accounts;
+    private final List<String> accountNames;
+    private boolean dictionaryDirty;
+    private boolean closed;
+
+    private BalanceStore(Path directory, FileChannel channel, List<String> accountIds, List<String> accountNames) {
+        this.directory = directory;
+        this.channel = channel;
+        this.accountNames = accountNames;
+        this.accounts = new AccountDictionary(accountIds.size());
+        for (String accountId : accountIds) {
+            accounts.encode(accountId);
+        }
+    }
+
+    /**
+     * Create an empty store in a directory, replacing any store already there.
+     */
+    public static BalanceStore create(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(DICTIONARY_FILE));
+            FileChannel channel = FileChannel.open(directory.resolve(BALANCES_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            BalanceStore store = new BalanceStore(directory, channel, new ArrayList<>(), new ArrayList<>());
+            store.dictionaryDirty = true;
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create balance store in " + directory, e);
+        }
+    }
+
+    /**
+     * Reopen a store written earlier; balances are mapped, not read.
+     */
+    public static BalanceStore open(Path directory) {
+        try {
+            List<String> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            readDictionary(directory.resolve(DICTIONARY_FILE), ids, names);
+
+            FileChannel channel = FileChannel.open(directory.resolve(BALANCES_FILE),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            BalanceStore store = new BalanceStore(directory, channel, ids, names);
+            long needed = (long) ids.size() * ACCOUNT_BYTES;
+            if (channel.size() < needed) {
+                channel.close();
+                throw new IOException("Balance file holds " + channel.size() + " bytes, dictionary needs " + needed);
+            }
+            int segmentCount = (ids.size() + SEGMENT_ACCOUNTS - 1) / SEGMENT_ACCOUNTS;
+            for (int s = 0; s < segmentCount; s++) {
+                store.mapSegment(s, Math.min(ids.size() - s * SEGMENT_ACCOUNTS, SEGMENT_ACCOUNTS));
+            }
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open balance store in " + directory, e);
+        }
+    }
+
+    /**
+     * Append an account with its 30 daily balances; returns its index.
+     *
+     * @throws IllegalArgumentException if the id is already stored or balances is not 30 days long
+     */
+    public int add(String accountId, String accountName, double[] dailyBalances) {
+        checkOpen();
+        if (dailyBalances.length != DAYS) {
+            throw new IllegalArgumentException("Expected " + DAYS + " daily balances, got " + dailyBalances.length);
+        }
+        if (accounts.lookup(accountId) != AccountDictionary.UNASSIGNED) {
+            throw new IllegalArgumentException("Account " + accountId + " is already stored");
+        }
+
+        int index = accounts.size();
+        int slot = index % SEGMENT_ACCOUNTS;
+        if (index / SEGMENT_ACCOUNTS >= segments.size()) {
+            mapSegment(segments.size(), MIN_SEGMENT_ACCOUNTS);
+        } else if (slot >= lastSegmentAccounts) {
+            mapSegment(segments.size() - 1,
+                    Math.min(Math.max(lastSegmentAccounts * 2, MIN_SEGMENT_ACCOUNTS), SEGMENT_ACCOUNTS));
+        }
+        MappedByteBuffer segment = segments.get(index / SEGMENT_ACCOUNTS);
+        int base = slot * ACCOUNT_BYTES;
+        for (int day = 0; day < DAYS; day++) {
+            segment.putLong(base + day * Long.BYTES, Money.toPaise(dailyBalances[day]));
+        }
+
+        accounts.encode(accountId);
+        accountNames.add(accountName);
+        dictionaryDirty = true;
+        return index;
+    }
+
+    /**
+     * Index of an account id, or -1 if it is not stored
+     */
+    public int indexOf(String accountId) {
+        return accounts.lookup(accountId);
+    }
+
+    public double getBalance(int account, int day) {
+        return Money.toRupees(getBalancePaise(account, day));
+    }
+
+    public long getBalancePaise(int account, int day) {
+        checkIndex(account);
+        return segments.get(account / SEGMENT_ACCOUNTS).getLong(offset(account, day));
+    }
+
+    public void setBalance(int account, int day, double balance) {
+        setBalancePaise(account, day, Money.toPaise(balance));
+    }
+
+    public void setBalancePaise(int account, int day, long balancePaise) {
+        checkIndex(account);
+        segments.get(account / SEGMENT_ACCOUNTS).putLong(offset(account, day), balancePaise);
+    }
+
+    /**
+     * Exact sum in paise of balances from startDay to endDay (inclusive, 1-based, clamped to the month)
+     */
+    public long getBalanceSumPaise(int account, int startDay, int endDay) {
+        checkIndex(account);
+        MappedByteBuffer segment = segments.get(account / SEGMENT_ACCOUNTS);
+        int base = (account % SEGMENT_ACCOUNTS) * ACCOUNT_BYTES;
+        long sum = 0;
+        for (int day = Math.max(startDay, 1); day <= Math.min(endDay, DAYS); day++) {
+            sum += segment.getLong(base + (day - 1) * Long.BYTES);
+        }
+        return sum;
+    }
+
+    /**
+     * Same AMB as {@code Account.calculateAMB}: the window sum divided by 30
+     */
+    public double calculateAMB(int account, int startDay, int endDay) {
+        return getBalanceSumPaise(account, startDay, endDay) / (double) (DAYS * Money.PAISE_PER_RUPEE);
+    }
+
+    public String getAccountId(int account) {
+        checkIndex(account);
+        return accounts.decode(account);
+    }
+
+    public String getAccountName(int account) {
+        return accountNames.get(account);
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Dictionary of the stored accounts; an account's key is its index here
+     */
+    public AccountDictionary getAccountDictionary() {
+        return accounts;
+    }
+
+    /**
+     * New flyweight cursor over this store, positioned before the first account
+     */
+    public BalanceCursor cursor() {
+        return new BalanceCursor(this);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write the dictionary and flush mapped balances to disk.
+     */
+    public void force() {
+        checkOpen();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            if (dictionaryDirty) {
+                writeDictionary();
+                dictionaryDirty = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write balance store in " + directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        segments.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("WARN: Failed to close balance store " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Map (or remap, growing the file) a segment with room for the given number of accounts.
+     * Only the last segment is ever remapped; earlier ones are full.
+     */
+    private void mapSegment(int segment, int accounts) {
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE,
+                    segment * SEGMENT_BYTES, (long) accounts * ACCOUNT_BYTES);
+            if (segment == segments.size()) {
+                segments.add(mapped);
+            } else {
+                segments.set(segment, mapped);
+            }
+            lastSegmentAccounts = accounts;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map balance segment " + segment + " in " + directory, e);
+        }
+    }
+
+    private static int offset(int account, int day) {
+        if (day < 1 || day > DAYS) {
+            throw new IndexOutOfBoundsException("Day " + day + " outside 1.." + DAYS);
+        }
+        return (account % SEGMENT_ACCOUNTS) * ACCOUNT_BYTES + (day - 1) * Long.BYTES;
+    }
+
+    private void checkIndex(int account) {
+        if (account < 0 || account >= accounts.size()) {
+            throw new IndexOutOfBoundsException("Account index " + account + " outside 0.." + (accounts.size() - 1));
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("BalanceStore is closed");
+        }
+    }
+
+    private void writeDictionary() throws IOException {
+        Path temp = Files.createTempFile(directory, "accounts", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(DAYS);
+                out.writeInt(accounts.size());
+                for (int i = 0; i < accounts.size(); i++) {
+                    out.writeUTF(accounts.decode(i));
+                    out.writeUTF(accountNames.get(i) == null ? "" : accountNames.get(i));
+                }
+            }
+            Files.move(temp, directory.resolve(DICTIONARY_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void readDictionary(Path file, List<String> ids, List<String> names) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a balance store dictionary: " + file);
+            }
+            int days = in.readInt();
+            if (days != DAYS) {
+                throw new IOException("Store holds " + days + " days per account, expected " + DAYS);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ids.add(in.readUTF());
+                names.add(in.readUTF());
+            }
+        }
+    }
+}
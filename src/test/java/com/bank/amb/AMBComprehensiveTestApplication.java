@@ -3,6 +3,8 @@ package com.bank.amb;
 import com.bank.amb.model.*;
 import com.bank.amb.service.AMBRuleEngineProgrammatic;
 import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import com.bank.amb.service.ConsoleDecisionEventSink;
+import com.bank.amb.service.DefaulterHistory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +21,8 @@ public class AMBComprehensiveTestApplication {
 
         // Initialize Rule Engine
         AMBRuleEngineProgrammatic ruleEngine = new AMBRuleEngineProgrammatic();
+        // Render rule decisions on the console (off by default)
+        ruleEngine.getDecisionEvents().addSink(new ConsoleDecisionEventSink());
 
         // Run all test scenarios
         System.out.println("\n🧪 Running All Test Scenarios...\n");
@@ -28,6 +32,7 @@ public class AMBComprehensiveTestApplication {
         runScenario3_ConstantLowBalance(ruleEngine);
         runScenario4_RecoveryAfterDefault(ruleEngine);
         runScenario5_EdgeCase_BelowCap(ruleEngine);
+        ruleEngine.shutdown();
 
         printFooter();
     }
@@ -46,10 +51,12 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 6 months
         for (int month = 1; month <= 6; month++) {
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 1", probableList, actualList, chargeList);
@@ -79,10 +86,12 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 6 months
         for (int month = 1; month <= 6; month++) {
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 2", probableList, actualList, chargeList);
@@ -108,10 +117,12 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 7 months to see 3 charges
         for (int month = 1; month <= 7; month++) {
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 3", probableList, actualList, chargeList);
@@ -144,15 +155,17 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Month 1-2: Low balance
-        runMonth(engine, accounts, probableList, actualList, chargeList, 1);
-        runMonth(engine, accounts, probableList, actualList, chargeList, 2);
+        runMonth(engine, accounts, history, probableList, actualList, chargeList, 1);
+        runMonth(engine, accounts, history, probableList, actualList, chargeList, 2);
 
         // Month 3 onwards: Good balance
         acc.setDailyBalances(generateConstantBalance(15000));
         for (int month = 3; month <= 6; month++) {
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 4", probableList, actualList, chargeList);
@@ -177,10 +190,12 @@ public class AMBComprehensiveTestApplication {
         List<ProbableDefaulter> probableList = new ArrayList<>();
         List<ActualDefaulter> actualList = new ArrayList<>();
         List<Charge> chargeList = new ArrayList<>();
+        // Bounded history the engine sees; the lists above log every result for the summary
+        DefaulterHistory history = new DefaulterHistory();
 
         // Run for 3 months to get 1 charge
         for (int month = 1; month <= 3; month++) {
-            runMonth(engine, accounts, probableList, actualList, chargeList, month);
+            runMonth(engine, accounts, history, probableList, actualList, chargeList, month);
         }
 
         printScenarioSummary("SCENARIO 5", probableList, actualList, chargeList);
@@ -199,6 +214,7 @@ public class AMBComprehensiveTestApplication {
 
     private static void runMonth(AMBRuleEngineProgrammatic engine,
                                  List<Account> accounts,
+                                 DefaulterHistory history,
                                  List<ProbableDefaulter> probableList,
                                  List<ActualDefaulter> actualList,
                                  List<Charge> chargeList,
@@ -212,9 +228,7 @@ public class AMBComprehensiveTestApplication {
         ctx1.setCurrentMonth(month);
         ctx1.setCheckDay(25);
 
-        RuleExecutionResult result1 = engine.executeRules(
-                accounts, probableList, actualList, chargeList, ctx1
-        );
+        RuleExecutionResult result1 = engine.executeRules(accounts, history, ctx1);
         probableList.addAll(result1.getProbableDefaulters());
 
         System.out.println("\n╔════════════════════════════════════════════════════════╗");
@@ -225,9 +239,7 @@ public class AMBComprehensiveTestApplication {
         ctx2.setCurrentMonth(month + 1);
         ctx2.setCheckDay(3);
 
-        RuleExecutionResult result2 = engine.executeRules(
-                accounts, probableList, actualList, chargeList, ctx2
-        );
+        RuleExecutionResult result2 = engine.executeRules(accounts, history, ctx2);
         actualList.addAll(result2.getActualDefaulters());
         chargeList.addAll(result2.getCharges());
     }
@@ -0,0 +1,74 @@
+package com.bank.amb.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Folding transactions into the window sums must match AMB over the balances they produce
+ */
+class AccountActivityTest {
+
+    @Test
+    void foldedTransactionsMatchDerivedDailyBalances() {
+        Random random = new Random(11);
+        ExecutionContext context = new ExecutionContext(1, 25);
+        for (int days = 28; days <= 31; days++) {
+            AccountActivity activity = new AccountActivity("ACC1", "ACC1", 1, days, 8_000.0);
+            double[] deltas = new double[days];
+            for (int i = 0; i < 6; i++) {
+                int day = 1 + random.nextInt(days);
+                double amount = Math.round((random.nextDouble() - 0.4) * 500_000) / 100.0;
+                activity.post(day, amount);
+                deltas[day - 1] += amount;
+            }
+
+            double[] balances = new double[days];
+            double balance = 8_000.0;
+            for (int day = 0; day < days; day++) {
+                balance += deltas[day];
+                balances[day] = balance;
+            }
+            Account account = new Account("ACC1", "ACC1", balances);
+            account.setDaysInMonth(days);
+
+            assertEquals(account.getBalanceSumPaise(1, 25), activity.getPartialSumPaise());
+            assertEquals(account.getBalanceSumPaise(1, days), activity.getMonthSumPaise());
+            assertEquals(Money.toPaise(balances[days - 1]), activity.getClosingBalancePaise());
+
+            AccountMetrics expected = AccountMetrics.of(account, context);
+            AccountMetrics actual = AccountMetrics.of(activity, context);
+            assertEquals(expected.getAmb25Paise(), actual.getAmb25Paise());
+            assertEquals(expected.getAmb30Paise(), actual.getAmb30Paise());
+            assertEquals(expected.isBelowMin25(), actual.isBelowMin25());
+            assertEquals(activity.getMonthSumPaise(), activity.toAccumulator().getMonthSumPaise());
+        }
+    }
+
+    @Test
+    void postingOrderDoesNotMatterAndDaysAreChecked() {
+        AccountActivity forward = new AccountActivity("ACC1", "ACC1", 1, 30, 0.0);
+        AccountActivity backward = new AccountActivity("ACC1", "ACC1", 1, 30, 0.0);
+        forward.post(2, 15_000.0);
+        forward.post(26, -4_000.0);
+        backward.post(26, -4_000.0);
+        backward.post(2, 15_000.0);
+
+        assertEquals(forward.getPartialSumPaise(), backward.getPartialSumPaise());
+        assertEquals(forward.getMonthSumPaise(), backward.getMonthSumPaise());
+        assertEquals(Money.toPaise(15_000.0 * 24), forward.getPartialSumPaise());
+        assertEquals(2, forward.getTransactionCount());
+        assertThrows(IllegalArgumentException.class, () -> forward.post(31, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> forward.post(0, 1.0));
+    }
+
+    @Test
+    void metricsRefuseActivityOfAnotherMonth() {
+        AccountActivity activity = new AccountActivity("ACC1", "ACC1", 3, 30, 8_000.0);
+        assertEquals(3, AccountMetrics.of(activity, new ExecutionContext(3, 25)).getMonth());
+        assertThrows(IllegalArgumentException.class,
+                () -> AccountMetrics.of(activity, new ExecutionContext(4, 3)));
+    }
+}
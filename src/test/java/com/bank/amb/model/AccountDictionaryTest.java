@@ -0,0 +1,78 @@
+package com.bank.amb.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Account ids must map to dense keys that decode back to the same id
+ */
+class AccountDictionaryTest {
+
+    @Test
+    void keysAreDenseAndDecodeToTheEncodedString() {
+        AccountDictionary dictionary = new AccountDictionary(2);
+        String first = "ACC001";
+        assertEquals(0, dictionary.encode(first));
+        assertEquals(1, dictionary.encode("ACC002"));
+        assertEquals(0, dictionary.encode(new String("ACC001")));
+        for (int i = 3; i <= 100; i++) {
+            assertEquals(i - 1, dictionary.encode("ACC" + i));
+        }
+
+        assertEquals(100, dictionary.size());
+        assertSame(first, dictionary.decode(0));
+        assertEquals("ACC100", dictionary.decode(99));
+        assertEquals(AccountDictionary.UNASSIGNED, dictionary.lookup("ACC999"));
+        assertEquals(100, dictionary.size());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(100));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(AccountDictionary.UNASSIGNED));
+    }
+
+    @Test
+    void keyOfKeepsMatchingKeysAndReencodesForeignOnes() {
+        AccountDictionary dictionary = new AccountDictionary();
+        dictionary.encode("ACC001");
+        dictionary.encode("ACC002");
+
+        assertEquals(1, dictionary.keyOf("ACC002", 1));
+        // A key from another dictionary that points at a different account here
+        assertEquals(1, dictionary.keyOf("ACC002", 0));
+        assertEquals(0, dictionary.keyOf("ACC001", AccountDictionary.UNASSIGNED));
+        assertEquals(2, dictionary.keyOf("ACC003", 57));
+    }
+
+    @Test
+    void concurrentEncodersAgreeOnEveryKey() throws Exception {
+        AccountDictionary dictionary = new AccountDictionary(16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] keys = new int[5_000];
+                    for (int i = 0; i < keys.length; i++) {
+                        keys[i] = dictionary.encode("ACC" + i);
+                    }
+                    return keys;
+                }));
+            }
+            int[] expected = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+            assertEquals(5_000, dictionary.size());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("ACC" + i, dictionary.decode(expected[i]));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
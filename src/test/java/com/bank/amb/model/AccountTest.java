@@ -0,0 +1,69 @@
+package com.bank.amb.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Window AMB from prefix sums must match a direct sum of the daily balances
+ */
+class AccountTest {
+
+    @Test
+    void windowSumsMatchDirectSums() {
+        double[] balances = new double[30];
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = 1000.0 + i * 37.25;
+        }
+        Account account = new Account("ACC1", "ACC1", balances);
+
+        for (int start = 1; start <= 30; start++) {
+            for (int end = start; end <= 30; end++) {
+                double sum = 0;
+                for (int day = start; day <= end; day++) {
+                    sum += balances[day - 1];
+                }
+                assertEquals(sum / 30.0, account.calculateAMB(start, end), 1e-9);
+                assertEquals(sum / (end - start + 1), account.getAverageBalance(start, end), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void singleDayUpdatesAndArraySwapsAreReflected() {
+        Account account = new Account("ACC1", "ACC1", new double[30]);
+        account.setDailyBalance(10, 3000.0);
+        assertEquals(3000.0, account.getBalanceSum(1, 30));
+        assertEquals(0.0, account.getBalanceSum(11, 30));
+        assertEquals(3000.0, account.getBalanceSum(10, 10));
+
+        double[] replaced = new double[30];
+        Arrays.fill(replaced, 300.0);
+        account.setDailyBalances(replaced);
+        assertEquals(300.0, account.getAverageBalance(1, 15));
+        assertEquals(250.0, account.calculateAMB(1, 25));
+    }
+
+    @Test
+    void windowsOutsideTheMonthAreClamped() {
+        double[] balances = new double[30];
+        Arrays.fill(balances, 600.0);
+        Account account = new Account("ACC1", "ACC1", balances);
+
+        assertEquals(600.0, account.calculateAMB(0, 40));
+        assertEquals(0.0, account.calculateAMB(20, 10));
+        assertEquals(0.0, new Account("SHORT", "SHORT", new double[10]).calculateAMB(1, 10));
+    }
+
+    @Test
+    void ambIsExactInPaise() {
+        double[] balances = new double[30];
+        Arrays.fill(balances, 0.1);
+        Account account = new Account("ACC1", "ACC1", balances);
+        assertEquals(300, account.getBalanceSumPaise(1, 30));
+        assertEquals(10, account.calculateAMBPaise(1, 30));
+        assertEquals(0.1, account.calculateAMB(1, 30));
+    }
+}
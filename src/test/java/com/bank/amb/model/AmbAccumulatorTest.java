@@ -0,0 +1,73 @@
+package com.bank.amb.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Running sums fed day by day must match the AMB computed from a full month of balances
+ */
+class AmbAccumulatorTest {
+
+    @Test
+    void runningSumsMatchAccountForEveryMonthLength() {
+        ExecutionContext context = new ExecutionContext(2, 3);
+        for (int days = 28; days <= 31; days++) {
+            double[] balances = new double[days];
+            AmbAccumulator accumulator = new AmbAccumulator("ACC1", "ACC1", 2, days);
+            for (int day = 1; day <= days; day++) {
+                balances[day - 1] = 9000.0 + day * 41.17;
+                accumulator.recordBalance(day, balances[day - 1]);
+            }
+            Account account = new Account("ACC1", "ACC1", balances);
+            account.setDaysInMonth(days);
+
+            assertTrue(accumulator.isComplete());
+            assertEquals(account.getBalanceSumPaise(1, 25), accumulator.getPartialSumPaise());
+            assertEquals(account.calculateAMBPaise(1, 25), accumulator.calculatePartialAMBPaise());
+            assertEquals(account.calculateAMBPaise(1, days), accumulator.calculateAMBPaise());
+
+            AccountMetrics fromAccount = AccountMetrics.of(account, context);
+            AccountMetrics fromAccumulator = AccountMetrics.of(accumulator, context);
+            assertEquals(fromAccount.getAmb30Paise(), fromAccumulator.getAmb30Paise());
+            assertEquals(fromAccount.isBelowMin30(), fromAccumulator.isBelowMin30());
+        }
+    }
+
+    @Test
+    void restoredPartialSumCarriesIntoFullMonth() {
+        AmbAccumulator dayTwentyFive = AmbAccumulator.forMonth("ACC1", "ACC1", 1, YearMonth.of(2024, 1));
+        for (int day = 1; day <= 25; day++) {
+            dayTwentyFive.recordBalance(day, 1000.0);
+        }
+
+        AmbAccumulator restored = AmbAccumulator.restore("ACC1", "ACC1", 1, 31,
+                dayTwentyFive.getLastDay(), dayTwentyFive.getPartialSumPaise(), dayTwentyFive.getTailSumPaise());
+        for (int day = 26; day <= 31; day++) {
+            restored.recordBalance(day, 2000.0);
+        }
+
+        assertEquals(Money.toPaise(25 * 1000.0), restored.getPartialSumPaise());
+        assertEquals(Money.toPaise(25 * 1000.0 + 6 * 2000.0), restored.getMonthSumPaise());
+        assertEquals(Money.divideRounded(restored.getMonthSumPaise(), 31), restored.calculateAMBPaise());
+    }
+
+    @Test
+    void daysMustArriveInOrderWithinTheMonth() {
+        AmbAccumulator accumulator = new AmbAccumulator("ACC1", "ACC1", 1, 28);
+        accumulator.recordBalance(3, 100.0);
+        assertThrows(IllegalArgumentException.class, () -> accumulator.recordBalance(3, 100.0));
+        assertThrows(IllegalArgumentException.class, () -> accumulator.recordBalance(29, 100.0));
+        assertThrows(IllegalArgumentException.class, () -> new AmbAccumulator("ACC1", "ACC1", 1, 32));
+    }
+
+    @Test
+    void metricsRefuseAnAccumulatorOfAnotherMonth() {
+        AmbAccumulator accumulator = new AmbAccumulator("ACC1", "ACC1", 1, 30);
+        assertEquals(1, AccountMetrics.of(accumulator, new ExecutionContext(1, 25)).getMonth());
+        assertThrows(IllegalArgumentException.class,
+                () -> AccountMetrics.of(accumulator, new ExecutionContext(2, 25)));
+    }
+}
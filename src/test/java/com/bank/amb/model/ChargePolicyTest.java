@@ -0,0 +1,32 @@
+package com.bank.amb.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Charge amounts in paise must be exact and rounded per month
+ */
+class ChargePolicyTest {
+
+    @Test
+    void chargeIsSixPercentCappedPlusGst() {
+        long base = ChargePolicy.baseChargePaise(Money.toPaise(3000.00));
+        assertEquals(18_000, base);
+        assertEquals(3_240, ChargePolicy.gstPaise(base));
+
+        long capped = ChargePolicy.baseChargePaise(Money.toPaise(9500.00));
+        assertEquals(ChargePolicy.BASE_CAP_PAISE, capped);
+        assertEquals("590.00", Money.format(capped + ChargePolicy.gstPaise(capped)));
+    }
+
+    @Test
+    void fractionalAmountsRoundHalfAwayFromZero() {
+        // 6% of 0.25 = 0.015 -> 0.02, 18% of 0.02 = 0.0036 -> 0.00
+        assertEquals(2, ChargePolicy.baseChargePaise(25));
+        assertEquals(0, ChargePolicy.gstPaise(2));
+        assertEquals(2, Money.divideRounded(5, 3));
+        assertEquals(-2, Money.divideRounded(-5, 3));
+        assertEquals(1235, Money.toPaise(12.345));
+    }
+}
@@ -0,0 +1,296 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for AMBRuleEngineProgrammatic execution modes
+ */
+class AMBRuleEngineProgrammaticTest extends RuleEngineTestSupport {
+
+    AMBRuleEngineProgrammaticTest() {
+        super(4);
+    }
+
+    @Test
+    void parallelExecutionMatchesSequentialAcrossCycles() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // Every third account stays above the minimum
+            accounts.add(account("ACC" + i, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10));
+        }
+
+        List<ProbableDefaulter> seqPD = new ArrayList<>();
+        List<ActualDefaulter> seqAD = new ArrayList<>();
+        List<Charge> seqCharges = new ArrayList<>();
+        List<ProbableDefaulter> parPD = new ArrayList<>();
+        List<ActualDefaulter> parAD = new ArrayList<>();
+        List<Charge> parCharges = new ArrayList<>();
+
+        for (int month = 1; month <= 3; month++) {
+            ExecutionContext day25 = new ExecutionContext(month, 25);
+            RuleExecutionResult seq25 = engine.executeRules(accounts, seqPD, seqAD, seqCharges, day25);
+            RuleExecutionResult par25 = engine.executeRulesParallel(accounts, parPD, parAD, parCharges, day25, 7);
+            assertEquals(keys(seq25), keys(par25));
+            assertEquals(seq25.getRulesFired(), par25.getRulesFired());
+            seqPD.addAll(seq25.getProbableDefaulters());
+            parPD.addAll(par25.getProbableDefaulters());
+
+            ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+            RuleExecutionResult seq3 = engine.executeRules(accounts, seqPD, seqAD, seqCharges, day3);
+            RuleExecutionResult par3 = engine.executeRulesParallel(accounts, parPD, parAD, parCharges, day3, 7);
+            assertEquals(keys(seq3), keys(par3));
+            seqAD.addAll(seq3.getActualDefaulters());
+            parAD.addAll(par3.getActualDefaulters());
+            seqCharges.addAll(seq3.getCharges());
+            parCharges.addAll(par3.getCharges());
+        }
+
+        assertFalse(parCharges.isEmpty(), "Scenario should reach the charge rule");
+    }
+
+    @Test
+    void parallelResultOrderDoesNotDependOnPartitionCount() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accounts.add(account("ACC" + i, 500.0));
+        }
+        ExecutionContext day25 = new ExecutionContext(1, 25);
+
+        RuleExecutionResult two = engine.executeRulesParallel(
+                accounts, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), day25, 2);
+        RuleExecutionResult five = engine.executeRulesParallel(
+                accounts, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), day25, 5);
+
+        assertEquals(ids(two.getProbableDefaulters()), ids(five.getProbableDefaulters()));
+    }
+
+    @Test
+    void failedPartitionWaitsForTheOthersBeforeReturning() {
+        // The failing account goes to partition 0, joined first; the slow one to partition 1
+        AccountDictionary dictionary = engine.getAccountDictionary();
+        String failingId = idWithKeyParity(dictionary, "FAIL", 0);
+        String slowId = idWithKeyParity(dictionary, "SLOW", 1);
+        AtomicBoolean slowFinished = new AtomicBoolean();
+        Account failing = new Account(failingId, failingId, new double[30]) {
+            @Override
+            public void setCurrentMonth(int currentMonth) {
+                throw new IllegalStateException("partition failure");
+            }
+        };
+        Account slow = new Account(slowId, slowId, new double[30]) {
+            @Override
+            public void setCurrentMonth(int currentMonth) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.setCurrentMonth(currentMonth);
+                slowFinished.set(true);
+            }
+        };
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> engine.executeRulesParallel(
+                List.of(failing, slow), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                new ExecutionContext(1, 25), 2));
+
+        assertTrue(slowFinished.get(), "Returned while a partition was still running");
+        assertEquals("partition failure", rootCause(error).getMessage());
+        // The engine is still usable afterwards
+        RuleExecutionResult result = engine.executeRulesParallel(List.of(account("AFTER", 500.0)),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ExecutionContext(1, 25), 2);
+        assertEquals(1, result.getProbableDefaulters().size());
+    }
+
+    @Test
+    void batchExecutionMatchesSequentialAcrossCycles() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            accounts.add(account("ACC" + i, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10));
+        }
+        List<ProbableDefaulter> pds = new ArrayList<>();
+        List<ActualDefaulter> ads = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+
+        for (int month = 1; month <= 3; month++) {
+            ExecutionContext day25 = new ExecutionContext(month, 25);
+            RuleExecutionResult seq25 = engine.executeRules(accounts, pds, ads, charges, day25);
+            RuleExecutionResult batch25 = engine.executeRulesBatch(accounts, pds, ads, charges, day25);
+            assertEquals(keys(seq25), keys(batch25));
+            assertEquals(seq25.getRulesFired(), batch25.getRulesFired());
+            pds.addAll(batch25.getProbableDefaulters());
+
+            ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+            RuleExecutionResult seq3 = engine.executeRules(accounts, pds, ads, charges, day3);
+            RuleExecutionResult batch3 = engine.executeRulesBatch(accounts, pds, ads, charges, day3);
+            assertEquals(keys(seq3), keys(batch3));
+            assertEquals(seq3.getRulesFired(), batch3.getRulesFired());
+            ads.addAll(batch3.getActualDefaulters());
+            charges.addAll(batch3.getCharges());
+        }
+
+        assertFalse(charges.isEmpty(), "Scenario should reach the charge rule");
+    }
+
+    @Test
+    void streamingExecutionMatchesSequentialAcrossCycles() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            accounts.add(account("ACC" + i, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10));
+        }
+        List<ProbableDefaulter> pds = new ArrayList<>();
+        List<ActualDefaulter> ads = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+
+        for (int month = 1; month <= 3; month++) {
+            ExecutionContext day25 = new ExecutionContext(month, 25);
+            RuleExecutionResult seq25 = engine.executeRules(accounts, pds, ads, charges, day25);
+            // A chunk size that does not divide the population
+            RuleExecutionResult stream25 = engine.executeRulesStreaming(accounts.iterator(), pds, ads, charges, day25, 7);
+            assertEquals(keys(seq25), keys(stream25));
+            assertEquals(seq25.getRulesFired(), stream25.getRulesFired());
+            pds.addAll(stream25.getProbableDefaulters());
+
+            ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+            RuleExecutionResult seq3 = engine.executeRules(accounts, pds, ads, charges, day3);
+            RuleExecutionResult stream3 = engine.executeRulesStreaming(accounts.iterator(), pds, ads, charges, day3, 7);
+            assertEquals(keys(seq3), keys(stream3));
+            assertEquals(seq3.getRulesFired(), stream3.getRulesFired());
+            ads.addAll(stream3.getActualDefaulters());
+            charges.addAll(stream3.getCharges());
+        }
+
+        assertFalse(charges.isEmpty(), "Scenario should reach the charge rule");
+    }
+
+    @Test
+    void prefilteredExecutionMatchesSequentialAndCountsMaintainedAccounts() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 99; i++) {
+            accounts.add(account("ACC" + i, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10));
+        }
+        List<ProbableDefaulter> pds = new ArrayList<>();
+        List<ActualDefaulter> ads = new ArrayList<>();
+        List<Charge> charges = new ArrayList<>();
+
+        for (int month = 1; month <= 3; month++) {
+            ExecutionContext day25 = new ExecutionContext(month, 25);
+            RuleExecutionResult seq25 = engine.executeRules(accounts, pds, ads, charges, day25);
+            RuleExecutionResult pre25 = engine.executeRulesPrefiltered(accounts, pds, ads, charges, day25);
+            assertEquals(keys(seq25), keys(pre25));
+            assertEquals(33, pre25.getSkippedAccounts());
+            // R1C only fires for the maintained accounts, which never reach the session
+            assertEquals(seq25.getRulesFired() - 33, pre25.getRulesFired());
+            pds.addAll(pre25.getProbableDefaulters());
+
+            ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+            RuleExecutionResult seq3 = engine.executeRules(accounts, pds, ads, charges, day3);
+            RuleExecutionResult pre3 = engine.executeRulesPrefiltered(accounts, pds, ads, charges, day3);
+            assertEquals(keys(seq3), keys(pre3));
+            assertEquals(seq3.getRulesFired(), pre3.getRulesFired());
+            assertEquals(33, pre3.getSkippedAccounts());
+            ads.addAll(pre3.getActualDefaulters());
+            charges.addAll(pre3.getCharges());
+        }
+
+        assertFalse(charges.isEmpty(), "Scenario should reach the charge rule");
+    }
+
+    @Test
+    void streamingLeavesNothingInWorkingMemoryAndSurfacesIteratorErrors() {
+        RuleExecutionResult result = engine.executeRulesStreaming(
+                IntStream.range(0, 5_000).mapToObj(i -> account("S" + i, 500.0)),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ExecutionContext(1, 25));
+        assertEquals(5_000, result.getProbableDefaulters().size());
+
+        Iterator<Account> failing = new Iterator<>() {
+            private int served;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Account next() {
+                if (served++ == 10) {
+                    throw new IllegalStateException("source failed");
+                }
+                return account("F" + served, 500.0);
+            }
+        };
+        RuntimeException e = assertThrows(RuntimeException.class, () -> engine.executeRulesStreaming(
+                failing, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ExecutionContext(1, 25), 4));
+        assertEquals("source failed", e.getCause().getMessage());
+
+        // An Error on the reader thread must reach the caller rather than leave it waiting
+        Iterator<Account> overflowing = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Account next() {
+                throw new StackOverflowError("reader overflowed");
+            }
+        };
+        StackOverflowError error = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                StackOverflowError.class, () -> engine.executeRulesStreaming(overflowing, new ArrayList<>(),
+                        new ArrayList<>(), new ArrayList<>(), new ExecutionContext(1, 25), 4)));
+        assertEquals("reader overflowed", error.getMessage());
+    }
+
+    @Test
+    void resultsCarryDictionaryKeysAndForeignKeysAreReassigned() {
+        List<Account> accounts = List.of(account("K1", 500.0), account("K2", 500.0), account("K3", 12000.0));
+        // History keyed by some other dictionary: K1's key points at another account here
+        List<ProbableDefaulter> pds = new ArrayList<>();
+        pds.add(new ProbableDefaulter("K1", 1, 500.0, true, "Below minimum"));
+        pds.get(0).setAccountKey(engine.getAccountDictionary().encode("K3"));
+        pds.add(new ProbableDefaulter("K2", 1, 500.0, true, "Below minimum"));
+
+        RuleExecutionResult result = engine.executeRules(accounts, pds, new ArrayList<>(), new ArrayList<>(),
+                new ExecutionContext(2, 3));
+
+        assertEquals(List.of("K1", "K2"), result.getActualDefaulters().stream()
+                .map(ActualDefaulter::getAccountId).sorted().collect(Collectors.toList()));
+        AccountDictionary dictionary = engine.getAccountDictionary();
+        for (ActualDefaulter ad : result.getActualDefaulters()) {
+            assertEquals(ad.getAccountId(), dictionary.decode(ad.getAccountKey()));
+        }
+        assertEquals(dictionary.lookup("K1"), pds.get(0).getAccountKey());
+    }
+
+    private static String idWithKeyParity(AccountDictionary dictionary, String prefix, int parity) {
+        for (int i = 0; ; i++) {
+            String id = prefix + i;
+            if (dictionary.encode(id) % 2 == parity) {
+                return id;
+            }
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while (error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static List<String> ids(List<ProbableDefaulter> pds) {
+        return pds.stream().map(ProbableDefaulter::getAccountId).collect(Collectors.toList());
+    }
+}
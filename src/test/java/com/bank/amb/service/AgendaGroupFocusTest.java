@@ -0,0 +1,139 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import org.drools.core.common.Memory;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.TerminalNode;
+import org.junit.jupiter.api.Test;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rules outside the focused check-day agenda group must not be evaluated at all
+ */
+class AgendaGroupFocusTest extends RuleEngineTestSupport {
+
+    AgendaGroupFocusTest() {
+        super(1);
+    }
+
+    @Test
+    void unfocusedGroupIsNeitherMatchedNorJoined() {
+        KieSession kieSession = engine.getKieBase().newKieSession();
+        try {
+            List<String> matchedRules = new ArrayList<>();
+            kieSession.addEventListener(new DefaultAgendaEventListener() {
+                @Override
+                public void matchCreated(MatchCreatedEvent event) {
+                    matchedRules.add(event.getMatch().getRule().getName());
+                }
+            });
+            kieSession.setGlobal("probableDefaultersList", new ArrayList<>());
+            kieSession.setGlobal("actualDefaultersList", new ArrayList<>());
+            kieSession.setGlobal("chargesList", new ArrayList<>());
+            kieSession.setGlobal("decisionEvents", engine.getDecisionEvents());
+
+            // Facts that satisfy R2 and R3, but with the day-25 group in focus
+            ExecutionContext day3 = new ExecutionContext(5, 3);
+            Account account = account("LOW001", 500.0);
+            account.setCurrentMonth(day3.getCurrentMonth());
+            int key = engine.getAccountDictionary().encode("LOW001");
+            ProbableDefaulter pd = new ProbableDefaulter("LOW001", 4, 500.0, true, "Below minimum");
+            pd.setAccountKey(key);
+            ActualDefaulter ad = new ActualDefaulter("LOW001", 3, 500.0, 9500.0, "DEFAULTER");
+            ad.setAccountKey(key);
+            AccountMetrics metrics = AccountMetrics.of(account, day3);
+            metrics.setAccountKey(key);
+            kieSession.insert(day3);
+            kieSession.insert(pd);
+            kieSession.insert(ad);
+            kieSession.insert(metrics);
+            kieSession.getAgenda().getAgendaGroup(AMBRuleEngineProgrammatic.DAY25_AGENDA_GROUP).setFocus();
+
+            assertEquals(0, kieSession.fireAllRules());
+            assertTrue(matchedRules.isEmpty(), "Unfocused rules were matched: " + matchedRules);
+            assertEquals(0, leftTuplesHeldBy("R2_ActualDefaulter", kieSession));
+            assertEquals(0, leftTuplesHeldBy("R3_ChargeCalculation", kieSession));
+
+            // The same working memory fires once the right group has focus
+            AMBRuleEngineProgrammatic.focusAgendaGroup(kieSession, day3);
+            assertEquals(2, kieSession.fireAllRules());
+            assertTrue(matchedRules.contains("R2_ActualDefaulter"));
+            assertTrue(matchedRules.contains("R3_ChargeCalculation"));
+        } finally {
+            kieSession.dispose();
+        }
+    }
+
+    @Test
+    void unkeyedFactsNeverJoin() {
+        KieSession kieSession = engine.getKieBase().newKieSession();
+        try {
+            kieSession.setGlobal("probableDefaultersList", new ArrayList<>());
+            kieSession.setGlobal("actualDefaultersList", new ArrayList<>());
+            kieSession.setGlobal("chargesList", new ArrayList<>());
+            kieSession.setGlobal("decisionEvents", engine.getDecisionEvents());
+
+            // History of one account and metrics of another, none given a key
+            ExecutionContext day3 = new ExecutionContext(5, 3);
+            Account account = account("LOW002", 500.0);
+            account.setCurrentMonth(day3.getCurrentMonth());
+            kieSession.insert(day3);
+            kieSession.insert(new ProbableDefaulter("OTHER", 4, 500.0, true, "Below minimum"));
+            kieSession.insert(new ActualDefaulter("OTHER", 3, 500.0, 9500.0, "DEFAULTER"));
+            kieSession.insert(AccountMetrics.of(account, day3));
+            AMBRuleEngineProgrammatic.focusAgendaGroup(kieSession, day3);
+
+            assertEquals(0, kieSession.fireAllRules());
+        } finally {
+            kieSession.dispose();
+        }
+    }
+
+    @Test
+    void checkDayMapsToItsAgendaGroup() {
+        assertEquals(AMBRuleEngineProgrammatic.DAY25_AGENDA_GROUP,
+                AMBRuleEngineProgrammatic.agendaGroupFor(new ExecutionContext(1, 25)));
+        assertEquals(AMBRuleEngineProgrammatic.DAY3_AGENDA_GROUP,
+                AMBRuleEngineProgrammatic.agendaGroupFor(new ExecutionContext(1, 3)));
+        assertNull(AMBRuleEngineProgrammatic.agendaGroupFor(new ExecutionContext(1, 26)));
+    }
+
+    /**
+     * Left tuples stored in the beta memories of a rule's joins; zero means the
+     * rule's network was never evaluated past its alpha nodes.
+     */
+    private int leftTuplesHeldBy(String ruleName, KieSession kieSession) {
+        InternalRuleBase ruleBase = (InternalRuleBase) engine.getKieBase();
+        ReteEvaluator evaluator = (ReteEvaluator) kieSession;
+        int tuples = 0;
+        for (Map.Entry<String, TerminalNode[]> entry : ruleBase.getReteooBuilder().getTerminalNodes().entrySet()) {
+            if (!entry.getKey().equals(ruleName)) {
+                continue;
+            }
+            for (TerminalNode terminal : entry.getValue()) {
+                for (LeftTupleSource node = terminal.getLeftTupleSource(); node != null; node = node.getLeftTupleSource()) {
+                    if (!(node instanceof BetaNode)) {
+                        continue;
+                    }
+                    Memory memory = evaluator.getNodeMemories().peekNodeMemory((BetaNode) node);
+                    if (memory instanceof BetaMemory) {
+                        tuples += ((BetaMemory) memory).getLeftTupleMemory().size();
+                    }
+                }
+            }
+        }
+        return tuples;
+    }
+}
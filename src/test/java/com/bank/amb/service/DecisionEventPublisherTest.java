@@ -0,0 +1,146 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static com.bank.amb.service.RuleEngineTestSupport.account;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decision events reach every sink, in order per publisher, without loss
+ */
+class DecisionEventPublisherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentPublishersThroughSmallBufferLoseNothing() throws InterruptedException {
+        List<DecisionEvent> received = Collections.synchronizedList(new ArrayList<>());
+        DecisionEventPublisher publisher = new DecisionEventPublisher(8);
+        publisher.addSink(received::add);
+
+        int threads = 4;
+        int perThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "T" + t + "-";
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    publisher.publish(DecisionEvent.balanceMaintained("R1C", prefix + i, "", i));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        publisher.flush();
+
+        assertEquals(threads * perThread, received.size());
+        assertEquals(0, publisher.getBacklog());
+        Set<String> ids = new HashSet<>();
+        int[] lastMonth = new int[threads];
+        Arrays.fill(lastMonth, -1);
+        for (DecisionEvent event : received) {
+            assertTrue(ids.add(event.getAccountId()), "Duplicate event " + event);
+            int thread = event.getAccountId().charAt(1) - '0';
+            assertTrue(event.getMonth() > lastMonth[thread], "Events of one publisher must stay in order");
+            lastMonth[thread] = event.getMonth();
+        }
+        publisher.close();
+    }
+
+    @Test
+    void rulesWriteDecisionsToJsonLinesFile() throws IOException {
+        Path file = tempDir.resolve("decisions.jsonl");
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(1);
+        engine.getDecisionEvents().addSink(new JsonLinesDecisionEventSink(file));
+        try {
+            List<Account> accounts = List.of(account("LOW001", 500.0), account("HIGH001", 50000.0));
+            engine.executeRules(accounts, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                    new ExecutionContext(1, 25));
+        } finally {
+            engine.shutdown();
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        String probable = lines.stream().filter(l -> l.contains("\"LOW001\"")).findFirst().orElseThrow();
+        assertTrue(probable.contains("\"type\":\"PROBABLE_DEFAULTER\""), probable);
+        assertTrue(probable.contains("\"rule\":\"R1B\""), probable);
+        assertTrue(probable.contains("\"smsSent\":true"), probable);
+        assertTrue(lines.stream().anyMatch(l -> l.contains("\"HIGH001\"") && l.contains("BALANCE_MAINTAINED")));
+    }
+
+    @Test
+    void publishWithoutSinksIsANoOp() {
+        DecisionEventPublisher publisher = new DecisionEventPublisher(1);
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(DecisionEvent.balanceMaintained("R1C", "ACC" + i, "", 1));
+        }
+        assertEquals(0, publisher.getPublished());
+        publisher.close();
+    }
+
+    @Test
+    void publishRacingCloseIsEitherDeliveredOrRejected() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            List<DecisionEvent> received = Collections.synchronizedList(new ArrayList<>());
+            DecisionEventPublisher publisher = new DecisionEventPublisher(4);
+            publisher.addSink(received::add);
+
+            int[] accepted = new int[1];
+            Thread producer = new Thread(() -> {
+                for (int i = 0; ; i++) {
+                    try {
+                        publisher.publish(DecisionEvent.balanceMaintained("R1C", "ACC" + i, "", i));
+                    } catch (IllegalStateException closed) {
+                        return;
+                    }
+                    accepted[0]++;
+                }
+            });
+            producer.start();
+            Thread.sleep(2);
+            publisher.close();
+            producer.join();
+
+            assertEquals(accepted[0], received.size(), "Every accepted event must be drained before close returns");
+        }
+    }
+
+    @Test
+    void writerRunsOnlyWhileSinksAreRegistered() {
+        DecisionEventPublisher publisher = new DecisionEventPublisher(1);
+        assertFalse(publisher.isWriterAlive(), "No writer thread without sinks");
+
+        publisher.addSink(event -> { });
+        assertTrue(publisher.isWriterAlive());
+
+        publisher.close();
+        assertFalse(publisher.isWriterAlive());
+        assertThrows(IllegalStateException.class, () -> publisher.addSink(event -> { }));
+    }
+}
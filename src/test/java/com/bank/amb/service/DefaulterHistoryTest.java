@@ -0,0 +1,98 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the bounded defaulter history window
+ */
+class DefaulterHistoryTest extends RuleEngineTestSupport {
+
+    DefaulterHistoryTest() {
+        super(2);
+    }
+
+    @Test
+    void advanceToArchivesRecordsOlderThanTheWindow() {
+        InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+        DefaulterHistory history = new DefaulterHistory(3, archive);
+        List<ProbableDefaulter> probable = new ArrayList<>();
+        for (int month = 1; month <= 4; month++) {
+            probable.add(new ProbableDefaulter("ACC1", month, 5000.0, true, "Below minimum"));
+        }
+        Charge charge = new Charge();
+        charge.setAccountId("ACC1");
+        charge.setChargedInMonth(3);
+        RuleExecutionResult result = new RuleExecutionResult(probable, new ArrayList<>(), List.of(charge), 0);
+        history.advanceTo(4);
+        history.record(result);
+
+        history.advanceTo(5);
+        assertEquals(List.of(3, 4), history.getProbableDefaulters().stream()
+                .map(ProbableDefaulter::getMonth).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), archive.getProbableDefaulters().stream()
+                .map(ProbableDefaulter::getMonth).collect(Collectors.toList()));
+        assertEquals(1, history.getCharges().size());
+
+        // Going back evicts nothing
+        history.advanceTo(2);
+        assertEquals(3, history.size());
+
+        history.advanceTo(6);
+        assertEquals(List.of(4), history.getProbableDefaulters().stream()
+                .map(ProbableDefaulter::getMonth).collect(Collectors.toList()));
+        assertTrue(history.getCharges().isEmpty());
+        assertEquals(1, archive.getCharges().size());
+    }
+
+    @Test
+    void windowShorterThanTheRulesLookBackIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DefaulterHistory(2, new InMemoryHistoryArchive()));
+    }
+
+    @Test
+    void boundedHistoryMatchesUnboundedListsOverManyMonths() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            accounts.add(account("ACC" + i, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10));
+        }
+
+        List<ProbableDefaulter> allPD = new ArrayList<>();
+        List<ActualDefaulter> allAD = new ArrayList<>();
+        List<Charge> allCharges = new ArrayList<>();
+        InMemoryHistoryArchive archive = new InMemoryHistoryArchive();
+        DefaulterHistory history = new DefaulterHistory(DefaulterHistory.DEFAULT_WINDOW_MONTHS, archive);
+        int maxActive = 0;
+
+        for (int month = 1; month <= 12; month++) {
+            ExecutionContext day25 = new ExecutionContext(month, 25);
+            RuleExecutionResult unbounded25 = engine.executeRules(accounts, allPD, allAD, allCharges, day25);
+            RuleExecutionResult bounded25 = engine.executeRules(accounts, history, day25);
+            assertEquals(keys(unbounded25), keys(bounded25));
+            allPD.addAll(unbounded25.getProbableDefaulters());
+
+            ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+            RuleExecutionResult unbounded3 = engine.executeRules(accounts, allPD, allAD, allCharges, day3);
+            RuleExecutionResult bounded3 = engine.executeRules(accounts, history, day3);
+            assertEquals(keys(unbounded3), keys(bounded3));
+            allAD.addAll(unbounded3.getActualDefaulters());
+            allCharges.addAll(unbounded3.getCharges());
+            maxActive = Math.max(maxActive, history.size());
+        }
+
+        int total = allPD.size() + allAD.size() + allCharges.size();
+        int archived = archive.getProbableDefaulters().size() + archive.getActualDefaulters().size()
+                + archive.getCharges().size();
+        assertEquals(total, archived + history.size());
+        // Three months of probable, actual and charge records at most
+        assertTrue(maxActive <= 3 * 3 * accounts.size(), "active history grew to " + maxActive);
+        assertTrue(maxActive < total / 2);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Incremental session must match the re-insert-everything engine cycle by cycle
+ */
+class IncrementalRuleSessionTest extends RuleEngineTestSupport {
+
+    IncrementalRuleSessionTest() {
+        super(1);
+    }
+
+    @Test
+    void matchesFullReinsertAcrossCyclesAndBoundsHistory() {
+        List<Account> accounts = Arrays.asList(
+                account("LOW001", 500.0),
+                account("LOW002", 4000.0),
+                account("HIGH001", 15000.0));
+
+        List<ProbableDefaulter> allPD = new ArrayList<>();
+        List<ActualDefaulter> allAD = new ArrayList<>();
+        List<Charge> allCharges = new ArrayList<>();
+
+        try (IncrementalRuleSession session = engine.openIncrementalSession()) {
+            for (int month = 1; month <= 8; month++) {
+                ExecutionContext day25 = new ExecutionContext(month, 25);
+                RuleExecutionResult expected25 = engine.executeRules(accounts, allPD, allAD, allCharges, day25);
+                RuleExecutionResult actual25 = session.executeCycle(accounts, day25);
+                assertSameOutcome(expected25, actual25);
+                allPD.addAll(expected25.getProbableDefaulters());
+
+                ExecutionContext day3 = new ExecutionContext(month + 1, 3);
+                RuleExecutionResult expected3 = engine.executeRules(accounts, allPD, allAD, allCharges, day3);
+                RuleExecutionResult actual3 = session.executeCycle(accounts, day3);
+                assertSameOutcome(expected3, actual3);
+                allAD.addAll(expected3.getActualDefaulters());
+                allCharges.addAll(expected3.getCharges());
+            }
+
+            int retained = session.getHistoryFactCount();
+            int total = allPD.size() + allAD.size() + allCharges.size();
+            assertTrue(retained < total, "Old history should have been retracted");
+            // Two low accounts, at most one PD + one AD + one charge per month, three months retained
+            assertTrue(retained <= 2 * 3 * (IncrementalRuleSession.RETENTION_MONTHS + 1));
+        }
+    }
+
+    private static void assertSameOutcome(RuleExecutionResult expected, RuleExecutionResult actual) {
+        assertEquals(expected.getProbableDefaulters().size(), actual.getProbableDefaulters().size());
+        assertEquals(expected.getActualDefaulters().size(), actual.getActualDefaulters().size());
+        assertEquals(expected.getCharges().size(), actual.getCharges().size());
+        for (int i = 0; i < expected.getCharges().size(); i++) {
+            assertEquals(expected.getCharges().get(i).getTotalCharge(),
+                    actual.getCharges().get(i).getTotalCharge(), 1e-9);
+        }
+    }
+}
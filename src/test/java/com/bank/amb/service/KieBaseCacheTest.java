@@ -0,0 +1,122 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compiled rules are reused across engine starts until the DRL changes
+ */
+class KieBaseCacheTest {
+
+    @TempDir
+    Path rulesDir;
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void secondStartLoadsSameRulesFromCache() throws IOException {
+        Path drl = writeRules(classpathDrl());
+        KieBaseCache cache = new KieBaseCache(cacheDir);
+
+        AMBRuleEngineProgrammatic compiled = new AMBRuleEngineProgrammatic(drl, cache, 1);
+        int compiledCount;
+        try {
+            compiledCount = probableDefaulterCount(compiled);
+        } finally {
+            compiled.shutdown();
+        }
+        assertTrue(Files.exists(cacheDir.resolve(KieBaseCache.cacheKey(drl) + ".kpkgs")));
+
+        AMBRuleEngineProgrammatic cached = new AMBRuleEngineProgrammatic(drl, cache, 1);
+        try {
+            assertEquals(1, compiledCount);
+            assertEquals(compiledCount, probableDefaulterCount(cached));
+        } finally {
+            cached.shutdown();
+        }
+    }
+
+    @Test
+    void editedRulesMissTheCache() throws IOException {
+        Path drl = writeRules(classpathDrl());
+        String before = KieBaseCache.cacheKey(drl);
+
+        writeRules(classpathDrl().replace("agenda-group \"day25\"", "agenda-group \"paused\""));
+        assertNotEquals(before, KieBaseCache.cacheKey(drl));
+
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(drl, new KieBaseCache(cacheDir), 1);
+        try {
+            assertEquals(0, probableDefaulterCount(engine), "Edited rules must be compiled, not read from cache");
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void corruptEntryFallsBackToCompiling() throws IOException {
+        Path drl = writeRules(classpathDrl());
+        Files.write(cacheDir.resolve(KieBaseCache.cacheKey(drl) + ".kpkgs"), new byte[]{1, 2, 3});
+
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(drl, new KieBaseCache(cacheDir), 1);
+        try {
+            assertEquals(1, probableDefaulterCount(engine));
+        } finally {
+            engine.shutdown();
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(1, files.count(), "Entry should be rewritten without leaving temp files behind");
+        }
+    }
+
+    @Test
+    void watchedReloadIsCached() throws Exception {
+        writeRules(classpathDrl());
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(rulesDir, new KieBaseCache(cacheDir), 1);
+        try {
+            writeRules(classpathDrl().replace("agenda-group \"day25\"", "agenda-group \"paused\""));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (engine.getRulesVersion() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, engine.getRulesVersion());
+            assertTrue(Files.exists(cacheDir.resolve(KieBaseCache.cacheKey(rulesDir) + ".kpkgs")),
+                    "Reloaded rules should be cached for the next start");
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private Path writeRules(String drl) throws IOException {
+        return Files.write(rulesDir.resolve("bank-amb-rules.drl"), drl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String classpathDrl() throws IOException {
+        try (InputStream in = KieBaseCacheTest.class.getResourceAsStream("/rules/bank-amb-rules.drl")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int probableDefaulterCount(AMBRuleEngineProgrammatic engine) {
+        double[] balances = new double[30];
+        Arrays.fill(balances, 500.0);
+        List<Account> accounts = List.of(new Account("LOW001", "LOW001", balances));
+        RuleExecutionResult result = engine.executeRules(accounts, new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), new ExecutionContext(1, 25));
+        return result.getProbableDefaulters().size();
+    }
+}
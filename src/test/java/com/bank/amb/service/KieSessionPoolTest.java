@@ -0,0 +1,70 @@
+package com.bank.amb.service;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.utils.KieHelper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pooled KieSession lifecycle
+ */
+class KieSessionPoolTest {
+
+    private static final String DRL =
+            "package test;\n" +
+            "global java.util.List out;\n" +
+            "rule \"echo\" when $s : String() then out.add($s); end\n";
+
+    private KieBase newKieBase() {
+        return new KieHelper().addContent(DRL, ResourceType.DRL).build();
+    }
+
+    @Test
+    void releasedSessionIsResetAndReused() {
+        try (KieSessionPool pool = new KieSessionPool(newKieBase(), 2)) {
+            KieSession first = pool.borrow();
+            first.setGlobal("out", new java.util.ArrayList<>());
+            first.insert("hello");
+            assertEquals(1, first.fireAllRules());
+            pool.release(first);
+
+            KieSession second = pool.borrow();
+            assertSame(first, second, "Idle session should be handed out again");
+            assertEquals(0, second.getFactCount(), "Working memory should be cleared on release");
+            pool.release(second);
+
+            KieSessionPool.Metrics metrics = pool.getMetrics();
+            assertEquals(1, metrics.getMisses());
+            assertEquals(1, metrics.getHits());
+            assertEquals(1, metrics.getLiveSessions());
+        }
+    }
+
+    @Test
+    void borrowWaitsWhenPoolIsExhausted() throws Exception {
+        try (KieSessionPool pool = new KieSessionPool(newKieBase(), 1)) {
+            KieSession held = pool.borrow();
+
+            Thread releaser = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                pool.release(held);
+            });
+            releaser.start();
+
+            KieSession next = pool.borrow();
+            releaser.join();
+
+            assertSame(held, next);
+            assertEquals(1, pool.getMetrics().getWaits());
+            assertTrue(pool.getMetrics().getTotalWaitNanos() > 0);
+            pool.release(next);
+        }
+    }
+}
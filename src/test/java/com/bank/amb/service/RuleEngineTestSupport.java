@@ -0,0 +1,51 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shared fixture for the rule engine tests: one engine per test class, shut
+ * down after the class, plus the account and outcome helpers they compare with
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class RuleEngineTestSupport {
+
+    protected final AMBRuleEngineProgrammatic engine;
+
+    protected RuleEngineTestSupport(int maxPooledSessions) {
+        this.engine = new AMBRuleEngineProgrammatic(maxPooledSessions);
+    }
+
+    @AfterAll
+    void shutdownEngine() {
+        engine.shutdown();
+    }
+
+    /**
+     * Account holding the same balance on each of 30 days
+     */
+    static Account account(String id, double balance) {
+        double[] balances = new double[30];
+        Arrays.fill(balances, balance);
+        return new Account(id, id, balances);
+    }
+
+    /**
+     * Every decision of a run as a sorted list of strings, for order-free comparison
+     */
+    static List<String> keys(RuleExecutionResult result) {
+        List<String> keys = new ArrayList<>();
+        result.getProbableDefaulters().forEach(pd -> keys.add("PD:" + pd.getAccountId() + ":" + pd.getMonth()));
+        result.getActualDefaulters().forEach(ad -> keys.add("AD:" + ad.getAccountId() + ":" + ad.getMonth()));
+        result.getCharges().forEach(c -> keys.add("CH:" + c.getAccountId() + ":" + c.getChargedInMonth()
+                + ":" + String.format("%.2f", c.getTotalCharge())));
+        return keys.stream().sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.runtime.KieSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rules loaded from a file are recompiled and swapped without disturbing running batches
+ */
+class RuleHotReloadTest {
+
+    private static String originalDrl;
+
+    @TempDir
+    Path rulesDir;
+
+    @BeforeAll
+    static void loadDrl() throws IOException {
+        try (InputStream in = RuleHotReloadTest.class.getResourceAsStream("/rules/bank-amb-rules.drl")) {
+            originalDrl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void reloadSwapsRulesButLeasedVersionStaysUsable() throws IOException {
+        Path drl = writeRules(originalDrl);
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(drl, 2);
+        try {
+            assertEquals(1, probableDefaulterCount(engine));
+
+            // A batch in flight on version 1
+            RuleGeneration inFlight = engine.leaseGeneration();
+
+            writeRules(pausedDay25(originalDrl));
+            engine.reloadRules();
+
+            assertEquals(2, engine.getRulesVersion());
+            assertEquals(0, probableDefaulterCount(engine), "New batches should use the reloaded rules");
+
+            // The old version keeps serving its batch until the lease is returned
+            KieSession session = inFlight.getSessionPool().borrow();
+            inFlight.getSessionPool().release(session);
+            inFlight.returnLease();
+            assertThrows(IllegalStateException.class, () -> inFlight.getSessionPool().borrow());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void watcherRecompilesChangedFilesAndKeepsRulesOnCompileError() throws Exception {
+        writeRules(originalDrl);
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(rulesDir, 1);
+        try {
+            writeRules(originalDrl.replace("then", "thn"));
+            Thread.sleep(1500);
+            assertEquals(1, engine.getRulesVersion(), "Broken DRL must not replace the active rules");
+            assertEquals(1, probableDefaulterCount(engine));
+
+            writeRules(pausedDay25(originalDrl));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (engine.getRulesVersion() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, engine.getRulesVersion());
+            assertEquals(0, probableDefaulterCount(engine));
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private Path writeRules(String drl) throws IOException {
+        return Files.write(rulesDir.resolve("bank-amb-rules.drl"), drl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Moves the day-25 rules out of the group the engine focuses, so they never fire
+    private static String pausedDay25(String drl) {
+        return drl.replace("agenda-group \"day25\"", "agenda-group \"paused\"");
+    }
+
+    private static int probableDefaulterCount(AMBRuleEngineProgrammatic engine) {
+        double[] balances = new double[30];
+        Arrays.fill(balances, 500.0);
+        List<Account> accounts = List.of(new Account("LOW001", "LOW001", balances));
+        RuleExecutionResult result = engine.executeRules(accounts, new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), new ExecutionContext(1, 25));
+        return result.getProbableDefaulters().size();
+    }
+}
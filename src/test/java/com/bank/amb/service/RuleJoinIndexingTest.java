@@ -0,0 +1,153 @@
+package com.bank.amb.service;
+
+import com.bank.amb.model.*;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.TerminalNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Defaulter/charge joins must be hash-indexed so their cost does not grow with history
+ */
+class RuleJoinIndexingTest {
+
+    private static final int ACCOUNTS = 2000;
+    private static final int CURRENT_MONTH = 60;
+
+    private static AMBRuleEngineProgrammatic engine;
+
+    @BeforeAll
+    static void setUp() {
+        engine = new AMBRuleEngineProgrammatic(1);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void everyConstrainedJoinIsFullyIndexed() {
+        InternalRuleBase ruleBase = (InternalRuleBase) engine.getKieBase();
+        int checkedJoins = 0;
+
+        for (Map.Entry<String, TerminalNode[]> entry : ruleBase.getReteooBuilder().getTerminalNodes().entrySet()) {
+            for (TerminalNode terminal : entry.getValue()) {
+                for (LeftTupleSource node = terminal.getLeftTupleSource(); node != null; node = node.getLeftTupleSource()) {
+                    if (!(node instanceof BetaNode)) {
+                        continue;
+                    }
+                    BetaNode join = (BetaNode) node;
+                    int constraints = join.getConstraints().length;
+                    if (constraints == 0) {
+                        continue;
+                    }
+                    assertEquals(constraints, join.getRawConstraints().getIndexCount(),
+                            entry.getKey() + ": join " + join + " has a non-indexed constraint");
+                    checkedJoins++;
+                }
+            }
+        }
+
+        assertTrue(checkedJoins >= 9, "Expected the history joins of R1A, R1B, R2 and R3, found " + checkedJoins);
+    }
+
+    @Test
+    void joinCostStaysFlatAsHistoryGrows() {
+        long shallow = measureJoinNanos(1);
+        long deep = measureJoinNanos(48);
+
+        // 48x more history per account; an unindexed month join would scale with it
+        assertTrue(deep < shallow * 4,
+                "Join time grew with history: 1 month=" + shallow / 1_000_000 + " ms, 48 months="
+                        + deep / 1_000_000 + " ms");
+    }
+
+    /**
+     * Fire day-3 rules once to settle, then re-evaluate every account's joins
+     * against a populated history and time only that second pass. Every account
+     * is a probable defaulter last month and an actual defaulter the month
+     * before, so the first pass confirms one actual defaulter and one charge each.
+     */
+    private static long measureJoinNanos(int historyMonths) {
+        KieBase kieBase = engine.getKieBase();
+        long best = Long.MAX_VALUE;
+
+        for (int round = 0; round < 3; round++) {
+            KieSession session = kieBase.newKieSession();
+            try {
+                List<ActualDefaulter> actuals = new ArrayList<>();
+                List<Charge> charges = new ArrayList<>();
+                session.setGlobal("probableDefaultersList", new ArrayList<>());
+                session.setGlobal("actualDefaultersList", actuals);
+                session.setGlobal("chargesList", charges);
+                session.setGlobal("decisionEvents", engine.getDecisionEvents());
+
+                ExecutionContext context = new ExecutionContext(CURRENT_MONTH, 3);
+                session.insert(context);
+
+                List<FactHandle> metricsHandles = new ArrayList<>();
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    String id = "ACC" + i;
+                    // Facts go straight into the session, so they take the account's key here
+                    // History in months the rules never look at, plus the one they do
+                    for (int m = 1; m <= historyMonths; m++) {
+                        session.insert(keyed(new ProbableDefaulter(id, CURRENT_MONTH - 2 - m, 500.0, true, "old"), i));
+                        session.insert(keyed(new ActualDefaulter(id, CURRENT_MONTH - 2 - m, 500.0, 9500.0, "old"), i));
+                    }
+                    session.insert(keyed(new ProbableDefaulter(id, CURRENT_MONTH - 1, 500.0, true, "m-1"), i));
+                    session.insert(keyed(new ActualDefaulter(id, CURRENT_MONTH - 2, 500.0, 9500.0, "m-2"), i));
+                    AccountMetrics metrics = AccountMetrics.of(account(id), context);
+                    metrics.setAccountKey(i);
+                    metricsHandles.add(session.insert(metrics));
+                }
+                AMBRuleEngineProgrammatic.focusAgendaGroup(session, context);
+                session.fireAllRules();
+                assertEquals(ACCOUNTS, actuals.size(), "R2 should confirm every account");
+                assertEquals(ACCOUNTS, charges.size(), "R3 should charge every account");
+
+                // Touch every account so all its joins are re-evaluated
+                for (FactHandle handle : metricsHandles) {
+                    session.update(handle, session.getObject(handle));
+                }
+                AMBRuleEngineProgrammatic.focusAgendaGroup(session, context);
+                long start = System.nanoTime();
+                int fired = session.fireAllRules();
+                best = Math.min(best, System.nanoTime() - start);
+                assertTrue(fired > 0, "Timed pass evaluated an empty agenda");
+            } finally {
+                session.dispose();
+            }
+        }
+        return best;
+    }
+
+    private static ProbableDefaulter keyed(ProbableDefaulter pd, int key) {
+        pd.setAccountKey(key);
+        return pd;
+    }
+
+    private static ActualDefaulter keyed(ActualDefaulter ad, int key) {
+        ad.setAccountKey(key);
+        return ad;
+    }
+
+    private static Account account(String id) {
+        double[] balances = new double[30];
+        Arrays.fill(balances, 500.0);
+        return new Account(id, id, balances);
+    }
+}
@@ -0,0 +1,104 @@
+package com.bank.amb.store;
+
+import com.bank.amb.model.Account;
+import com.bank.amb.model.AccountMetrics;
+import com.bank.amb.model.ExecutionContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bulk column-wise kernel must agree with Account.calculateAMB for every account
+ */
+class AmbBlockTest {
+
+    @TempDir
+    Path storeDir;
+
+    @Test
+    void bulkFlagsAndSumsMatchPerAccountAmb() {
+        ExecutionContext context = new ExecutionContext(1, 25);
+        List<Account> accounts = accounts(300, 30);
+        AmbBlock block = new AmbBlock(accounts.size());
+        accounts.forEach(block::add);
+        block.evaluate(context);
+
+        for (int i = 0; i < accounts.size(); i++) {
+            Account account = accounts.get(i);
+            assertEquals(account.getAccountId(), block.getAccountId(i));
+            assertEquals(account.getBalanceSumPaise(1, 25), block.getSum25Paise(i));
+            assertEquals(account.calculateAMB(1, 25) < context.getMinBalance(), block.isBelowMin25(i));
+            assertEquals(account.calculateAMB(1, 30) < context.getMinBalance(), block.isBelowMinMonth(i));
+
+            AccountMetrics expected = AccountMetrics.of(account, context);
+            AccountMetrics actual = AccountMetrics.of(block, i, context);
+            assertEquals(expected.getAmb25Paise(), actual.getAmb25Paise());
+            assertEquals(expected.getAmb30Paise(), actual.getAmb30Paise());
+        }
+    }
+
+    @Test
+    void monthLengthDrivesTheThreshold() {
+        ExecutionContext context = new ExecutionContext(1, 3);
+        List<Account> accounts = accounts(40, 31);
+        AmbBlock block = new AmbBlock(64, 31);
+        for (Account account : accounts) {
+            account.setDaysInMonth(31);
+            block.add(account);
+        }
+        block.evaluate(context);
+
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(accounts.get(i).calculateAMB(1, 31) < context.getMinBalance(), block.isBelowMinMonth(i));
+        }
+    }
+
+    @Test
+    void blocksLoadedFromStoreMatchAccounts() {
+        ExecutionContext context = new ExecutionContext(1, 25);
+        List<Account> accounts = accounts(100, 30);
+        try (BalanceStore store = BalanceStore.create(storeDir)) {
+            for (Account account : accounts) {
+                store.add(account.getAccountId(), account.getAccountName(), account.getDailyBalances());
+            }
+
+            AmbBlock block = new AmbBlock(32);
+            int first = 0;
+            int read;
+            while ((read = block.load(store, first)) > 0) {
+                block.evaluate(context);
+                for (int i = 0; i < read; i++) {
+                    Account account = accounts.get(first + i);
+                    assertEquals(account.getAccountId(), block.getAccountId(i));
+                    assertEquals(account.getBalanceSumPaise(1, 30), block.getSumMonthPaise(i));
+                }
+                first += read;
+            }
+            assertEquals(accounts.size(), first);
+            assertThrows(IllegalStateException.class, () -> {
+                AmbBlock full = new AmbBlock(1);
+                full.add(accounts.get(0));
+                full.add(accounts.get(1));
+            });
+        }
+    }
+
+    private static List<Account> accounts(int count, int days) {
+        Random random = new Random(7);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double[] balances = new double[days];
+            for (int day = 0; day < days; day++) {
+                balances[day] = Math.round(random.nextDouble() * 2_000_000) / 100.0;
+            }
+            accounts.add(new Account("ACC" + i, "Account " + i, balances));
+        }
+        return accounts;
+    }
+}
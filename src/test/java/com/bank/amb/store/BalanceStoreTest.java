@@ -0,0 +1,135 @@
+package com.bank.amb.store;
+
+import com.bank.amb.model.*;
+import com.bank.amb.service.AMBRuleEngineProgrammatic;
+import com.bank.amb.service.AMBRuleEngineProgrammatic.RuleExecutionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Balances written to the columnar store survive a reopen and drive the rules like Account objects do
+ */
+class BalanceStoreTest {
+
+    @TempDir
+    Path storeDir;
+
+    @Test
+    void reopenedStoreServesSameBalancesAndAmb() {
+        List<Account> accounts = accounts(50);
+        try (BalanceStore store = BalanceStore.create(storeDir)) {
+            for (Account account : accounts) {
+                store.add(account.getAccountId(), account.getAccountName(), account.getDailyBalances());
+            }
+            store.setBalance(store.indexOf("ACC3"), 30, 99_000.0);
+        }
+        accounts.get(3).setDailyBalance(30, 99_000.0);
+
+        try (BalanceStore store = BalanceStore.open(storeDir)) {
+            assertEquals(accounts.size(), store.size());
+            assertEquals(-1, store.indexOf("MISSING"));
+            AccountDictionary dictionary = store.getAccountDictionary();
+            assertEquals(accounts.size(), dictionary.size());
+            assertEquals(7, dictionary.lookup("ACC7"));
+            assertEquals(store.getAccountId(7), dictionary.decode(7));
+
+            BalanceCursor cursor = store.cursor();
+            for (Account account : accounts) {
+                assertTrue(cursor.next());
+                assertEquals(account.getAccountId(), cursor.getAccountId());
+                assertEquals(account.getAccountName(), cursor.getAccountName());
+                assertEquals(account.calculateAMB(1, 25), cursor.calculateAMB(1, 25), 1e-9);
+                assertEquals(account.calculateAMB(1, 30), cursor.calculateAMB(1, 30), 1e-9);
+            }
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    void duplicateIdsAndWrongDayCountsAreRejected() {
+        try (BalanceStore store = BalanceStore.create(storeDir)) {
+            store.add("ACC1", "ACC1", new double[30]);
+            assertThrows(IllegalArgumentException.class, () -> store.add("ACC1", "ACC1", new double[30]));
+            assertThrows(IllegalArgumentException.class, () -> store.add("ACC2", "ACC2", new double[29]));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getBalance(0, 31));
+        }
+    }
+
+    @Test
+    void smallStoreMapsOnlyWhatItHoldsAndGrowsAfterReopen() throws IOException {
+        int accounts = BalanceStore.MIN_SEGMENT_ACCOUNTS + 5;
+        try (BalanceStore store = BalanceStore.create(storeDir)) {
+            for (int i = 0; i < accounts; i++) {
+                store.add("ACC" + i, "ACC" + i, filled(i));
+            }
+        }
+        long fileBytes = Files.size(storeDir.resolve(BalanceStore.BALANCES_FILE));
+        assertTrue(fileBytes <= 2L * accounts * BalanceStore.DAYS * Long.BYTES,
+                "Balance file should track the account count, was " + fileBytes + " bytes");
+
+        try (BalanceStore store = BalanceStore.open(storeDir)) {
+            store.add("NEW", "NEW", filled(-1));
+            for (int i = 0; i < accounts; i++) {
+                assertEquals(i, store.getBalance(i, 30), 0.0);
+            }
+            assertEquals(-1, store.getBalance(store.indexOf("NEW"), 1), 0.0);
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getBalanceSumPaise(accounts + 1, 1, 30));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getBalanceSumPaise(-1, 1, 30));
+        }
+    }
+
+    @Test
+    void streamingOverStoreMatchesAccountObjects() {
+        List<Account> accounts = accounts(120);
+        AMBRuleEngineProgrammatic engine = new AMBRuleEngineProgrammatic(1);
+        try (BalanceStore store = BalanceStore.create(storeDir)) {
+            for (Account account : accounts) {
+                store.add(account.getAccountId(), account.getAccountName(), account.getDailyBalances());
+            }
+
+            ExecutionContext day25 = new ExecutionContext(1, 25);
+            RuleExecutionResult fromAccounts = engine.executeRules(
+                    accounts, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), day25);
+            RuleExecutionResult fromStore = engine.executeRulesStreaming(
+                    store, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), day25, 16);
+
+            assertEquals(ids(fromAccounts), ids(fromStore));
+            assertEquals(fromAccounts.getRulesFired(), fromStore.getRulesFired());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private static List<Account> accounts(int count) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double[] balances = new double[30];
+            Arrays.fill(balances, i % 3 == 0 ? 12000.0 : 1000.0 + i * 10);
+            accounts.add(new Account("ACC" + i, "Customer " + i, balances));
+        }
+        return accounts;
+    }
+
+    private static List<String> ids(RuleExecutionResult result) {
+        return result.getProbableDefaulters().stream()
+                .map(ProbableDefaulter::getAccountId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static double[] filled(double balance) {
+        double[] balances = new double[BalanceStore.DAYS];
+        Arrays.fill(balances, balance);
+        return balances;
+    }
+}